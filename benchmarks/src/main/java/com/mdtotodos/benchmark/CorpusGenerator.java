@@ -0,0 +1,433 @@
+package com.mdtotodos.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * 合成Markdown语料生成器，为负载测试和长时间运行测试生成大规模输入
+ * 生成的文件符合解析器接受的格式：按章节组织的编号任务、"//"分隔的描述、
+ * YYYY/MM/DD-Ham 格式的截止日期，标题和描述混合中文和英文，并按比例夹杂格式错误的行。
+ * 相同的种子和参数总是生成逐字节相同的文件，便于在不同版本间对比测试结果。
+ */
+public class CorpusGenerator {
+    
+    private static final String[] ASCII_WORDS = {
+        "update", "customer", "records", "prepare", "quarterly", "report", "review", "pull", "request",
+        "fix", "login", "bug", "book", "flights", "renew", "passport", "clean", "garage", "read",
+        "new", "book", "deploy", "release", "budget", "draft", "proposal", "call", "supplier",
+        "migrate", "database", "backup", "server", "plan", "team", "offsite", "write", "tests"
+    };
+    
+    private static final String[] CJK_WORDS = {
+        "完成", "项目", "报告", "安排", "团队", "会议", "更新", "客户", "档案", "购买", "日用品",
+        "预约", "医生", "整理", "车库", "阅读", "新书", "学习", "语言", "在线", "课程", "财务",
+        "部分", "讨论", "季度", "规划", "牛奶", "面包", "鸡蛋", "体检", "自行车", "合同", "发票"
+    };
+    
+    private static final String[] SECTIONS = {
+        "工作任务", "个人任务", "学习计划", "Work", "Personal", "Errands", "项目 Alpha", "Backlog"
+    };
+    
+    // 需要CSV引号或JSON转义的描述片段
+    private static final String[] SPECIAL_FRAGMENTS = {
+        ", 含逗号", " \"带引号\"", " C:\\notes\\todo.md", "，全角逗号", "\ttab"
+    };
+    
+    // 解析器不接受或部分接受的行
+    private static final String[] MALFORMED_LINES = {
+        "- 无序列表项不是任务",
+        "1.编号后缺少空格",
+        "12 编号后缺少点",
+        ". 缺少编号",
+        "abc. 编号不是数字",
+        "3. 日期格式错误 2024-11-22 3pm",
+        "4. 日期超出范围 2024/13/45-3pm",
+        "5. 小时缺少am/pm 2024/11/22-15",
+        "6. // 只有描述",
+        "普通段落文本，不属于任何任务。",
+        "Plain paragraph text without a number.",
+        "   ",
+        "> 引用块中的文字",
+        "```",
+        "7. 多个分隔符 // 第一段 // 第二段"
+    };
+    
+    // 超长行的标题词数范围
+    private static final int LONG_TITLE_MIN_WORDS = 200;
+    private static final int LONG_TITLE_MAX_WORDS = 800;
+    
+    private final long seed;
+    private double descriptionRatio = 0.6;
+    private double dateRatio = 0.5;
+    private double cjkRatio = 0.5;
+    private double malformedRatio = 0.02;
+    private double specialRatio = 0.05;
+    private double longRatio = 0.001;
+    private int sectionSize = 12;
+    
+    /**
+     * 创建生成器
+     * 
+     * @param seed 随机种子
+     */
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * @param ratio 带描述的任务比例
+     */
+    public void setDescriptionRatio(double ratio) {
+        this.descriptionRatio = checkRatio(ratio);
+    }
+    
+    /**
+     * @param ratio 带截止日期的任务比例
+     */
+    public void setDateRatio(double ratio) {
+        this.dateRatio = checkRatio(ratio);
+    }
+    
+    /**
+     * @param ratio 标题和描述中每个词为中文词的概率
+     */
+    public void setCjkRatio(double ratio) {
+        this.cjkRatio = checkRatio(ratio);
+    }
+    
+    /**
+     * @param ratio 格式错误的行占所有条目行的比例
+     */
+    public void setMalformedRatio(double ratio) {
+        this.malformedRatio = checkRatio(ratio);
+    }
+    
+    /**
+     * @param ratio 描述中含有需要CSV引号或JSON转义字符的比例
+     */
+    public void setSpecialRatio(double ratio) {
+        this.specialRatio = checkRatio(ratio);
+    }
+    
+    /**
+     * @param ratio 标题长达数千字节的任务比例
+     */
+    public void setLongRatio(double ratio) {
+        this.longRatio = checkRatio(ratio);
+    }
+    
+    /**
+     * @param sectionSize 每个章节的平均条目数
+     */
+    public void setSectionSize(int sectionSize) {
+        if (sectionSize <= 0) {
+            throw new IllegalArgumentException("章节条目数必须为正数");
+        }
+        this.sectionSize = sectionSize;
+    }
+    
+    /**
+     * 生成语料，达到任一上限时停止
+     * 
+     * @param out 输出，调用方负责关闭
+     * @param maxTasks 任务数上限（只计格式正确的任务行），不限制时为 {@link Long#MAX_VALUE}
+     * @param maxBytes UTF-8编码后的字节数上限，不限制时为 {@link Long#MAX_VALUE}
+     * @return 生成结果统计
+     * @throws IOException 如果写入出错
+     */
+    public Summary generate(Writer out, long maxTasks, long maxBytes) throws IOException {
+        if (maxTasks == Long.MAX_VALUE && maxBytes == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("必须指定任务数或文件大小上限");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder line = new StringBuilder(256);
+        Summary summary = new Summary();
+        
+        summary.write(out, "# 待办事项列表");
+        summary.write(out, "");
+        while (summary.tasks < maxTasks && summary.bytes < maxBytes) {
+            // 章节标题，偶尔使用不同级别
+            line.setLength(0);
+            line.append(random.nextInt(8) == 0 ? "### " : "## ")
+                    .append(SECTIONS[random.nextInt(SECTIONS.length)])
+                    .append(' ').append(summary.sections + 1);
+            summary.write(out, line);
+            summary.sections++;
+            
+            int items = 1 + random.nextInt(2 * sectionSize - 1);
+            int number = 1;
+            for (int i = 0; i < items && summary.tasks < maxTasks && summary.bytes < maxBytes; i++) {
+                line.setLength(0);
+                if (random.nextDouble() < malformedRatio) {
+                    line.append(MALFORMED_LINES[random.nextInt(MALFORMED_LINES.length)]);
+                    summary.malformed++;
+                } else {
+                    appendTask(line, random, number++);
+                    summary.tasks++;
+                }
+                summary.write(out, line);
+            }
+            summary.write(out, "");
+        }
+        return summary;
+    }
+    
+    private void appendTask(StringBuilder line, SplittableRandom random, int number) {
+        line.append(number).append(". ");
+        if (random.nextDouble() < longRatio) {
+            appendWords(line, random, LONG_TITLE_MIN_WORDS + random.nextInt(LONG_TITLE_MAX_WORDS - LONG_TITLE_MIN_WORDS));
+        } else {
+            appendWords(line, random, 1 + random.nextInt(4));
+        }
+        if (random.nextDouble() < descriptionRatio) {
+            line.append(" // ");
+            appendWords(line, random, 1 + random.nextInt(8));
+            if (random.nextDouble() < specialRatio) {
+                line.append(SPECIAL_FRAGMENTS[random.nextInt(SPECIAL_FRAGMENTS.length)]);
+            }
+        }
+        if (random.nextDouble() < dateRatio) {
+            line.append(' ');
+            appendDate(line, random);
+        }
+    }
+    
+    private void appendWords(StringBuilder line, SplittableRandom random, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            if (random.nextDouble() < cjkRatio) {
+                line.append(CJK_WORDS[random.nextInt(CJK_WORDS.length)]);
+            } else {
+                line.append(ASCII_WORDS[random.nextInt(ASCII_WORDS.length)]);
+            }
+        }
+    }
+    
+    /**
+     * 追加 YYYY/MM/DD-Ham 格式的日期，月、日、小时随机使用一位或两位数字
+     */
+    private static void appendDate(StringBuilder line, SplittableRandom random) {
+        line.append(2024 + random.nextInt(3)).append('/');
+        appendShortNumber(line, random, 1 + random.nextInt(12));
+        line.append('/');
+        appendShortNumber(line, random, 1 + random.nextInt(28));
+        line.append('-');
+        appendShortNumber(line, random, 1 + random.nextInt(12));
+        line.append(random.nextBoolean() ? "am" : "pm");
+    }
+    
+    private static void appendShortNumber(StringBuilder line, SplittableRandom random, int value) {
+        if (value < 10 && random.nextBoolean()) {
+            line.append('0');
+        }
+        line.append(value);
+    }
+    
+    private static double checkRatio(double ratio) {
+        if (!(ratio >= 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("比例必须在0到1之间: " + ratio);
+        }
+        return ratio;
+    }
+    
+    /**
+     * 计算文本的UTF-8编码长度
+     */
+    static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
+    /**
+     * 生成结果统计
+     */
+    public static final class Summary {
+        private long tasks;
+        private long malformed;
+        private long sections;
+        private long lines;
+        private long bytes;
+        
+        private void write(Writer out, CharSequence line) throws IOException {
+            out.append(line).append('\n');
+            lines++;
+            bytes += utf8Length(line) + 1;
+        }
+        
+        /**
+         * @return 格式正确的任务行数
+         */
+        public long getTasks() {
+            return tasks;
+        }
+        
+        /**
+         * @return 格式错误的行数
+         */
+        public long getMalformed() {
+            return malformed;
+        }
+        
+        /**
+         * @return 章节数
+         */
+        public long getSections() {
+            return sections;
+        }
+        
+        /**
+         * @return 总行数
+         */
+        public long getLines() {
+            return lines;
+        }
+        
+        /**
+         * @return UTF-8编码后的总字节数
+         */
+        public long getBytes() {
+            return bytes;
+        }
+    }
+    
+    /**
+     * 命令行入口
+     * 
+     * @param args 命令行参数
+     */
+    public static void main(String[] args) {
+        String output = null;
+        long seed = 42;
+        long maxTasks = Long.MAX_VALUE;
+        long maxBytes = Long.MAX_VALUE;
+        CorpusGenerator generator;
+        
+        try {
+            // 先找出种子，其余选项在创建生成器后设置
+            for (int i = 0; i < args.length - 1; i++) {
+                if (args[i].equals("--seed")) {
+                    seed = Long.parseLong(args[i + 1]);
+                }
+            }
+            generator = new CorpusGenerator(seed);
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    output = arg;
+                } else if (arg.equals("--help")) {
+                    printHelp();
+                    return;
+                } else if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("选项缺少参数值: " + arg);
+                } else if (arg.equals("--seed")) {
+                    i++;
+                } else if (arg.equals("--tasks")) {
+                    maxTasks = Long.parseLong(args[++i]);
+                } else if (arg.equals("--size")) {
+                    maxBytes = parseSize(args[++i]);
+                } else if (arg.equals("--description-ratio")) {
+                    generator.setDescriptionRatio(Double.parseDouble(args[++i]));
+                } else if (arg.equals("--date-ratio")) {
+                    generator.setDateRatio(Double.parseDouble(args[++i]));
+                } else if (arg.equals("--cjk-ratio")) {
+                    generator.setCjkRatio(Double.parseDouble(args[++i]));
+                } else if (arg.equals("--malformed-ratio")) {
+                    generator.setMalformedRatio(Double.parseDouble(args[++i]));
+                } else if (arg.equals("--special-ratio")) {
+                    generator.setSpecialRatio(Double.parseDouble(args[++i]));
+                } else if (arg.equals("--long-ratio")) {
+                    generator.setLongRatio(Double.parseDouble(args[++i]));
+                } else if (arg.equals("--section-size")) {
+                    generator.setSectionSize(Integer.parseInt(args[++i]));
+                } else {
+                    throw new IllegalArgumentException("未知选项: " + arg);
+                }
+            }
+            if (output == null) {
+                throw new IllegalArgumentException("必须指定输出文件");
+            }
+            if (maxTasks == Long.MAX_VALUE && maxBytes == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("必须指定 --tasks 或 --size");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
+            printHelp();
+            System.exit(1);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        Summary summary;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(output)), StandardCharsets.UTF_8), 1 << 16)) {
+            summary = generator.generate(out, maxTasks, maxBytes);
+        } catch (IOException e) {
+            System.err.println("错误: 写入文件失败: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("已生成 %s: %d 个任务, %d 行格式错误, %d 个章节, %d 行, %.1f MB, 用时 %d ms%n",
+                output, summary.getTasks(), summary.getMalformed(), summary.getSections(),
+                summary.getLines(), summary.getBytes() / (1024.0 * 1024.0), elapsedMillis);
+    }
+    
+    /**
+     * 解析带K/M/G后缀的字节数
+     */
+    static long parseSize(String value) {
+        String text = value.trim().toUpperCase();
+        long unit = 1;
+        if (text.endsWith("K")) {
+            unit = 1L << 10;
+        } else if (text.endsWith("M")) {
+            unit = 1L << 20;
+        } else if (text.endsWith("G")) {
+            unit = 1L << 30;
+        }
+        if (unit > 1) {
+            text = text.substring(0, text.length() - 1);
+        }
+        long size = Long.parseLong(text) * unit;
+        if (size <= 0) {
+            throw new IllegalArgumentException("大小必须为正数: " + value);
+        }
+        return size;
+    }
+    
+    private static void printHelp() {
+        System.out.println("用法: java -cp benchmarks.jar " + CorpusGenerator.class.getName() + " <输出文件> [选项]");
+        System.out.println("选项:");
+        System.out.println("  --tasks <数量>             生成的任务数（不含格式错误的行）");
+        System.out.println("  --size <大小>              生成的文件大小，可带K/M/G后缀，如 512M");
+        System.out.println("  --seed <种子>              随机种子（默认: 42），相同种子生成相同文件");
+        System.out.println("  --description-ratio <比例> 带描述的任务比例（默认: 0.6）");
+        System.out.println("  --date-ratio <比例>        带截止日期的任务比例（默认: 0.5）");
+        System.out.println("  --cjk-ratio <比例>         中文词所占比例（默认: 0.5）");
+        System.out.println("  --malformed-ratio <比例>   格式错误的行所占比例（默认: 0.02）");
+        System.out.println("  --special-ratio <比例>     描述含需转义字符的比例（默认: 0.05）");
+        System.out.println("  --long-ratio <比例>        超长标题的任务比例（默认: 0.001）");
+        System.out.println("  --section-size <数量>      每个章节的平均条目数（默认: 12）");
+    }
+}
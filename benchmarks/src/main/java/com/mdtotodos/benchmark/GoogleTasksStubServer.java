@@ -0,0 +1,232 @@
+package com.mdtotodos.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 模拟Google Tasks API，用于测试和测量远程导出
+ * 支持 GET /users/@me/lists、POST /lists/{列表ID}/tasks 创建任务，以及对 /lists/{列表ID}/tasks/{任务ID}
+ * 的PATCH（包括以 X-HTTP-Method-Override 指明的POST）和DELETE。
+ * 可以按比例返回限流响应（交替使用429和带 rateLimitExceeded 原因的403），同时处理的请求超过上限时也返回429。
+ * 定期输出收到的请求数、创建的任务数和限流次数。
+ * 将导出器的 MDTOTODOS_GOOGLE_TASKS_URL 设为服务器地址即可在本地测试导出。
+ */
+public class GoogleTasksStubServer {
+    
+    private final int maxConcurrent;
+    private final double throttleRate;
+    private final int retryAfterSeconds;
+    private final long latencyMillis;
+    private final Random random;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    
+    /**
+     * 创建模拟服务器
+     * 
+     * @param maxConcurrent 同时处理的最大请求数，超过时返回429
+     * @param throttleRate 返回限流响应的比例
+     * @param retryAfterSeconds 429响应中的Retry-After秒数
+     * @param latencyMillis 每个请求的处理延迟（毫秒）
+     * @param seed 随机数种子
+     */
+    public GoogleTasksStubServer(int maxConcurrent, double throttleRate, int retryAfterSeconds,
+                                 long latencyMillis, long seed) {
+        this.maxConcurrent = maxConcurrent;
+        this.throttleRate = throttleRate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.latencyMillis = latencyMillis;
+        this.random = new Random(seed);
+    }
+    
+    /**
+     * 在指定端口上启动服务器
+     * 
+     * @param port 端口，为0时自动选择
+     * @return 已启动的服务器
+     * @throws IOException 如果无法监听端口
+     */
+    public HttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/users/@me/lists", this::handleLists);
+        server.createContext("/lists/", this::handleTask);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+    
+    private void handleLists(HttpExchange exchange) throws IOException {
+        GraphStubServer.send(exchange, 200, "{\"kind\":\"tasks#taskLists\",\"items\":["
+                + "{\"id\":\"stub-default\",\"title\":\"My Tasks\"},"
+                + "{\"id\":\"stub-work\",\"title\":\"Work\"}]}", null);
+    }
+    
+    private void handleTask(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String override = exchange.getRequestHeaders().getFirst("X-HTTP-Method-Override");
+        if ("POST".equals(method) && override != null) {
+            method = override;
+        }
+        boolean insert = exchange.getRequestURI().getPath().endsWith("/tasks");
+        if (insert ? !"POST".equals(method) : !"PATCH".equals(method) && !"DELETE".equals(method)) {
+            GraphStubServer.send(exchange, 404, "{\"error\":{\"code\":404,\"message\":\"Not Found\"}}", null);
+            return;
+        }
+        String body = GraphStubServer.readFully(exchange.getRequestBody());
+        long request = requests.incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        try {
+            maxInFlight.accumulateAndGet(current, Math::max);
+            if (current > maxConcurrent || nextDouble() < throttleRate) {
+                throttled.incrementAndGet();
+                if (request % 2 == 0) {
+                    GraphStubServer.send(exchange, 429, "{\"error\":{\"code\":429,\"message\":\"Too Many Requests\"}}",
+                            String.valueOf(retryAfterSeconds));
+                } else {
+                    GraphStubServer.send(exchange, 403, "{\"error\":{\"code\":403,\"message\":\"Rate Limit Exceeded\","
+                            + "\"errors\":[{\"reason\":\"rateLimitExceeded\"}]}}", null);
+                }
+                return;
+            }
+            if ("DELETE".equals(method)) {
+                deleted.incrementAndGet();
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+                return;
+            }
+            if (!body.contains("\"title\"")) {
+                GraphStubServer.send(exchange, 400, "{\"error\":{\"code\":400,\"message\":\"Missing title\"}}", null);
+                return;
+            }
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            if ("PATCH".equals(method)) {
+                updated.incrementAndGet();
+                String path = exchange.getRequestURI().getPath();
+                GraphStubServer.send(exchange, 200, "{\"kind\":\"tasks#task\",\"id\":\""
+                        + path.substring(path.lastIndexOf('/') + 1) + "\"}", null);
+                return;
+            }
+            long id = created.incrementAndGet();
+            GraphStubServer.send(exchange, 200, "{\"kind\":\"tasks#task\",\"id\":\"task-" + id + "\"}", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    private double nextDouble() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+    
+    /**
+     * @return 统计信息
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "请求 %d，创建任务 %d，修改 %d，删除 %d，限流 %d，最大并发 %d",
+                requests.get(), created.get(), updated.get(), deleted.get(), throttled.get(), maxInFlight.get());
+    }
+    
+    /**
+     * 启动模拟服务器，直到进程退出
+     * 
+     * @param args 命令行参数
+     */
+    public static void main(String[] args) {
+        int port = 8090;
+        int maxConcurrent = 10;
+        double throttleRate = 0;
+        int retryAfter = 1;
+        long latency = 0;
+        long seed = 42;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(10);
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help")) {
+                    printHelp();
+                    return;
+                } else if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("选项缺少参数值: " + arg);
+                } else if (arg.equals("--port")) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--max-concurrent")) {
+                    maxConcurrent = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--throttle-rate")) {
+                    throttleRate = Double.parseDouble(args[++i]);
+                } else if (arg.equals("--retry-after")) {
+                    retryAfter = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--latency")) {
+                    latency = Long.parseLong(args[++i]);
+                } else if (arg.equals("--seed")) {
+                    seed = Long.parseLong(args[++i]);
+                } else if (arg.equals("--interval")) {
+                    intervalNanos = SoakHarness.parseDuration(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("未知选项: " + arg);
+                }
+            }
+            if (maxConcurrent <= 0) {
+                throw new IllegalArgumentException("并发数必须为正数");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
+            printHelp();
+            System.exit(1);
+            return;
+        }
+        
+        // 立即发送响应，避免与客户端的延迟确认叠加后每个请求多等约40毫秒
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        GoogleTasksStubServer stub = new GoogleTasksStubServer(maxConcurrent, throttleRate, retryAfter, latency, seed);
+        try {
+            HttpServer server = stub.start(port);
+            System.out.println("模拟Google Tasks服务器已启动: http://127.0.0.1:" + server.getAddress().getPort());
+        } catch (IOException e) {
+            System.err.println("错误: 无法启动服务器: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(stub.summary())));
+        while (true) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(intervalNanos);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println(stub.summary());
+        }
+    }
+    
+    private static void printHelp() {
+        System.out.println("用法: java -cp benchmarks.jar " + GoogleTasksStubServer.class.getName() + " [选项]");
+        System.out.println("选项:");
+        System.out.println("  --port <端口>               监听端口，0为自动选择（默认: 8090）");
+        System.out.println("  --max-concurrent <数量>     同时处理的最大请求数，超过时返回429（默认: 10）");
+        System.out.println("  --throttle-rate <比例>      返回限流响应的比例（默认: 0）");
+        System.out.println("  --retry-after <秒>          429响应的Retry-After（默认: 1）");
+        System.out.println("  --latency <毫秒>            每个请求的处理延迟（默认: 0）");
+        System.out.println("  --seed <种子>               限流的随机数种子（默认: 42）");
+        System.out.println("  --interval <时长>           输出统计信息的间隔（默认: 10s）");
+    }
+}
@@ -0,0 +1,281 @@
+package com.mdtotodos.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 模拟Microsoft Graph的To Do接口，用于测试和测量远程导出
+ * 支持 GET /me/todo/lists 和 POST /$batch，批量请求中的每个请求按其方法视为创建（POST）、修改（PATCH）或删除（DELETE）一个任务。
+ * 可以按比例对整个批次或单个请求返回429，同时在途的批次超过上限时也返回429，
+ * 与Graph对同一邮箱的并发限制一致。定期输出收到的批次数、创建的任务数和限流次数。
+ * 将导出器的 MDTOTODOS_MS_GRAPH_URL 设为服务器地址即可在本地测试导出。
+ */
+public class GraphStubServer {
+    
+    // 批量请求中每个请求的id和方法，转义后的字符串中引号前总有反斜杠，不会误匹配任务内容
+    private static final Pattern REQUEST = Pattern.compile(
+            "(?<!\\\\)\"id\"\\s*:\\s*\"([^\"]*)\"\\s*,\\s*\"method\"\\s*:\\s*\"([A-Z]+)\"");
+    
+    private final int maxConcurrent;
+    private final double throttleRate;
+    private final double itemThrottleRate;
+    private final int retryAfterSeconds;
+    private final long latencyMillis;
+    private final Random random;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong itemsThrottled = new AtomicLong();
+    
+    /**
+     * 创建模拟服务器
+     * 
+     * @param maxConcurrent 同时处理的最大批次数，超过时返回429
+     * @param throttleRate 整个批次返回429的比例
+     * @param itemThrottleRate 批次中单个请求返回429的比例
+     * @param retryAfterSeconds 429响应中的Retry-After秒数
+     * @param latencyMillis 每个批次的处理延迟（毫秒）
+     * @param seed 随机数种子
+     */
+    public GraphStubServer(int maxConcurrent, double throttleRate, double itemThrottleRate,
+                           int retryAfterSeconds, long latencyMillis, long seed) {
+        this.maxConcurrent = maxConcurrent;
+        this.throttleRate = throttleRate;
+        this.itemThrottleRate = itemThrottleRate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.latencyMillis = latencyMillis;
+        this.random = new Random(seed);
+    }
+    
+    /**
+     * 在指定端口上启动服务器
+     * 
+     * @param port 端口，为0时自动选择
+     * @return 已启动的服务器
+     * @throws IOException 如果无法监听端口
+     */
+    public HttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/me/todo/lists", this::handleLists);
+        server.createContext("/$batch", this::handleBatch);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+    
+    private void handleLists(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "{\"error\":{\"code\":\"MethodNotAllowed\",\"message\":\"只支持GET\"}}", null);
+            return;
+        }
+        send(exchange, 200, "{\"value\":["
+                + "{\"id\":\"stub-default\",\"displayName\":\"Tasks\",\"wellknownListName\":\"defaultList\"},"
+                + "{\"id\":\"stub-work\",\"displayName\":\"Work\",\"wellknownListName\":\"none\"}]}", null);
+    }
+    
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "{\"error\":{\"code\":\"MethodNotAllowed\",\"message\":\"只支持POST\"}}", null);
+            return;
+        }
+        String body = readFully(exchange.getRequestBody());
+        batches.incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        try {
+            maxInFlight.accumulateAndGet(current, Math::max);
+            if (current > maxConcurrent || nextDouble() < throttleRate) {
+                throttled.incrementAndGet();
+                send(exchange, 429, "{\"error\":{\"code\":\"TooManyRequests\",\"message\":\"请求过多\"}}",
+                        String.valueOf(retryAfterSeconds));
+                return;
+            }
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            
+            List<String> ids = new ArrayList<>();
+            List<String> methods = new ArrayList<>();
+            Matcher matcher = REQUEST.matcher(body);
+            while (matcher.find()) {
+                ids.add(matcher.group(1));
+                methods.add(matcher.group(2));
+            }
+            StringBuilder sb = new StringBuilder("{\"responses\":[");
+            for (int i = 0; i < ids.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"id\":\"").append(ids.get(i)).append('"');
+                if (nextDouble() < itemThrottleRate) {
+                    itemsThrottled.incrementAndGet();
+                    sb.append(",\"status\":429,\"headers\":{\"Retry-After\":\"").append(retryAfterSeconds)
+                            .append("\"},\"body\":{\"error\":{\"code\":\"TooManyRequests\",\"message\":\"请求过多\"}}}");
+                } else if (methods.get(i).equals("PATCH")) {
+                    updated.incrementAndGet();
+                    sb.append(",\"status\":200,\"body\":{}}");
+                } else if (methods.get(i).equals("DELETE")) {
+                    deleted.incrementAndGet();
+                    sb.append(",\"status\":204}");
+                } else {
+                    long id = created.incrementAndGet();
+                    sb.append(",\"status\":201,\"body\":{\"id\":\"task-").append(id).append("\"}}");
+                }
+            }
+            send(exchange, 200, sb.append("]}").toString(), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    private double nextDouble() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+    
+    static void send(HttpExchange exchange, int status, String body, String retryAfter) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (retryAfter != null) {
+            exchange.getResponseHeaders().set("Retry-After", retryAfter);
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    /**
+     * @return 统计信息
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "批次 %d，创建任务 %d，修改 %d，删除 %d，批次限流 %d，单个请求限流 %d，最大并发 %d",
+                batches.get(), created.get(), updated.get(), deleted.get(), throttled.get(), itemsThrottled.get(),
+                maxInFlight.get());
+    }
+    
+    /**
+     * 启动模拟服务器，直到进程退出
+     * 
+     * @param args 命令行参数
+     */
+    public static void main(String[] args) {
+        int port = 8089;
+        int maxConcurrent = 4;
+        double throttleRate = 0;
+        double itemThrottleRate = 0;
+        int retryAfter = 1;
+        long latency = 0;
+        long seed = 42;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(10);
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help")) {
+                    printHelp();
+                    return;
+                } else if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("选项缺少参数值: " + arg);
+                } else if (arg.equals("--port")) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--max-concurrent")) {
+                    maxConcurrent = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--throttle-rate")) {
+                    throttleRate = Double.parseDouble(args[++i]);
+                } else if (arg.equals("--item-throttle-rate")) {
+                    itemThrottleRate = Double.parseDouble(args[++i]);
+                } else if (arg.equals("--retry-after")) {
+                    retryAfter = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--latency")) {
+                    latency = Long.parseLong(args[++i]);
+                } else if (arg.equals("--seed")) {
+                    seed = Long.parseLong(args[++i]);
+                } else if (arg.equals("--interval")) {
+                    intervalNanos = SoakHarness.parseDuration(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("未知选项: " + arg);
+                }
+            }
+            if (maxConcurrent <= 0) {
+                throw new IllegalArgumentException("并发数必须为正数");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
+            printHelp();
+            System.exit(1);
+            return;
+        }
+        
+        // 立即发送响应，避免与客户端的延迟确认叠加后每个请求多等约40毫秒
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        GraphStubServer stub = new GraphStubServer(maxConcurrent, throttleRate, itemThrottleRate, retryAfter,
+                latency, seed);
+        try {
+            HttpServer server = stub.start(port);
+            System.out.println("模拟Graph服务器已启动: http://127.0.0.1:" + server.getAddress().getPort());
+        } catch (IOException e) {
+            System.err.println("错误: 无法启动服务器: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(stub.summary())));
+        while (true) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(intervalNanos);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println(stub.summary());
+        }
+    }
+    
+    private static void printHelp() {
+        System.out.println("用法: java -cp benchmarks.jar " + GraphStubServer.class.getName() + " [选项]");
+        System.out.println("选项:");
+        System.out.println("  --port <端口>               监听端口，0为自动选择（默认: 8089）");
+        System.out.println("  --max-concurrent <数量>     同时处理的最大批次数，超过时返回429（默认: 4）");
+        System.out.println("  --throttle-rate <比例>      整个批次返回429的比例（默认: 0）");
+        System.out.println("  --item-throttle-rate <比例> 批次中单个请求返回429的比例（默认: 0）");
+        System.out.println("  --retry-after <秒>          429响应的Retry-After（默认: 1）");
+        System.out.println("  --latency <毫秒>            每个批次的处理延迟（默认: 0）");
+        System.out.println("  --seed <种子>               限流的随机数种子（默认: 42）");
+        System.out.println("  --interval <时长>           输出统计信息的间隔（默认: 10s）");
+    }
+}
@@ -0,0 +1,488 @@
+package com.mdtotodos.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.mdtotodos.model.MarkdownParser;
+import com.mdtotodos.model.Task;
+import com.mdtotodos.model.TaskExporter;
+import com.mdtotodos.model.TaskExporter.ExportPlatform;
+import com.mdtotodos.model.TaskSink;
+import com.mdtotodos.model.TaskStore;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * 长时间运行测试：反复解析并导出同一组文件，记录堆占用、GC停顿和吞吐量
+ * 每轮依次解析所有输入文件并导出到临时文件，轮次之间不保留任何结果。
+ * 如果GC后的存活堆大小随轮次持续增长，说明存在泄漏或缓存无界增长。
+ * 每轮的指标可写入CSV报告，结束时输出汇总。
+ */
+public class SoakHarness {
+    
+    // 存活堆增长同时超过该比例和字节数时在汇总中给出警告
+    private static final double HEAP_GROWTH_WARNING = 0.5;
+    private static final long HEAP_GROWTH_MIN_BYTES = 32L << 20;
+    // 判断堆占用增长至少需要的轮数
+    private static final int MIN_GROWTH_ITERATIONS = 4;
+    
+    private static final double MB = 1024.0 * 1024.0;
+    
+    private final List<File> inputs;
+    private final MarkdownParser parser;
+    private final TaskExporter exporter = new TaskExporter();
+    private final ExportPlatform platform;
+    private final int threads;
+    private final boolean store;
+    private final PauseRecorder pauses = new PauseRecorder();
+    
+    /**
+     * 创建长时间运行测试
+     * 
+     * @param inputs 输入文件
+     * @param charset 输入文件字符集
+     * @param platform 导出格式（CSV或JSON）
+     * @param threads 解析线程数
+     * @param store 是否解析到列式任务存储
+     */
+    public SoakHarness(List<File> inputs, Charset charset, ExportPlatform platform, int threads, boolean store) {
+        this.inputs = inputs;
+        this.parser = new MarkdownParser(charset);
+        this.platform = platform;
+        this.threads = threads;
+        this.store = store;
+    }
+    
+    /**
+     * 运行测试，达到轮数或时长任一上限时停止
+     * 
+     * @param maxIterations 最大轮数
+     * @param maxNanos 最长运行时间（纳秒）
+     * @param report 每轮指标的CSV报告，可为null
+     * @param intervalNanos 输出进度的间隔（纳秒）
+     * @throws IOException 如果读写文件出错
+     */
+    public void run(long maxIterations, long maxNanos, PrintWriter report, long intervalNanos) throws IOException {
+        long inputBytes = 0;
+        for (File input : inputs) {
+            inputBytes += input.length();
+        }
+        File output = File.createTempFile("mdtotodos-soak", "." + platform.name().toLowerCase());
+        output.deleteOnExit();
+        pauses.install();
+        if (report != null) {
+            report.println("iteration,elapsed_s,parse_ms,export_ms,tasks,mb_per_s,tasks_per_s,"
+                    + "heap_used_mb,heap_after_gc_mb,gc_count,gc_pause_ms,gc_max_pause_ms");
+        }
+        
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        long nextProgress = start + intervalNanos;
+        try {
+            for (long iteration = 1; iteration <= maxIterations && System.nanoTime() - start < maxNanos; iteration++) {
+                int pauseMark = pauses.size();
+                long parseNanos = 0;
+                long exportNanos = 0;
+                long tasks = 0;
+                for (File input : inputs) {
+                    long t0 = System.nanoTime();
+                    List<Task> taskList = null;
+                    TaskStore taskStore = null;
+                    if (store) {
+                        taskStore = parser.parseTaskStore(input, threads);
+                        tasks += taskStore.size();
+                    } else {
+                        taskList = parser.parseTasks(input, threads);
+                        tasks += taskList.size();
+                    }
+                    long t1 = System.nanoTime();
+                    try (TaskSink sink = exporter.createSink(platform, output)) {
+                        if (store) {
+                            exporter.export(taskStore, sink);
+                        } else {
+                            exporter.export(taskList, sink);
+                        }
+                    }
+                    long t2 = System.nanoTime();
+                    parseNanos += t1 - t0;
+                    exportNanos += t2 - t1;
+                }
+                
+                long now = System.nanoTime();
+                double seconds = (parseNanos + exportNanos) / 1e9;
+                Sample sample = new Sample(iteration, now - start, parseNanos, exportNanos, tasks,
+                        inputBytes / MB / seconds, tasks / seconds, heapUsed(), heapAfterGc(),
+                        pauses.count(pauseMark), pauses.total(pauseMark), pauses.max(pauseMark));
+                summary.add(sample);
+                if (report != null) {
+                    report.println(sample.toCsv());
+                    report.flush();
+                }
+                if (now >= nextProgress) {
+                    System.out.println(sample);
+                    nextProgress = now + intervalNanos;
+                }
+            }
+        } finally {
+            pauses.uninstall();
+            output.delete();
+        }
+        summary.print(pauses);
+    }
+    
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+    
+    /**
+     * 获取各堆内存池在最近一次GC之后的占用之和，近似存活对象大小
+     */
+    private static long heapAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                if (usage != null) {
+                    used += usage.getUsed();
+                }
+            }
+        }
+        return used;
+    }
+    
+    /**
+     * 一轮测试的指标
+     */
+    private static final class Sample {
+        final long iteration;
+        final long elapsedNanos;
+        final long parseNanos;
+        final long exportNanos;
+        final long tasks;
+        final double mbPerSecond;
+        final double tasksPerSecond;
+        final long heapUsed;
+        final long heapAfterGc;
+        final int gcCount;
+        final long gcPauseMillis;
+        final long gcMaxPauseMillis;
+        
+        Sample(long iteration, long elapsedNanos, long parseNanos, long exportNanos, long tasks,
+               double mbPerSecond, double tasksPerSecond, long heapUsed, long heapAfterGc,
+               int gcCount, long gcPauseMillis, long gcMaxPauseMillis) {
+            this.iteration = iteration;
+            this.elapsedNanos = elapsedNanos;
+            this.parseNanos = parseNanos;
+            this.exportNanos = exportNanos;
+            this.tasks = tasks;
+            this.mbPerSecond = mbPerSecond;
+            this.tasksPerSecond = tasksPerSecond;
+            this.heapUsed = heapUsed;
+            this.heapAfterGc = heapAfterGc;
+            this.gcCount = gcCount;
+            this.gcPauseMillis = gcPauseMillis;
+            this.gcMaxPauseMillis = gcMaxPauseMillis;
+        }
+        
+        String toCsv() {
+            return String.format("%d,%.1f,%d,%d,%d,%.1f,%.0f,%.1f,%.1f,%d,%d,%d",
+                    iteration, elapsedNanos / 1e9, TimeUnit.NANOSECONDS.toMillis(parseNanos),
+                    TimeUnit.NANOSECONDS.toMillis(exportNanos), tasks, mbPerSecond, tasksPerSecond,
+                    heapUsed / MB, heapAfterGc / MB, gcCount, gcPauseMillis, gcMaxPauseMillis);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("第 %d 轮 [%.0fs]: 解析 %d ms, 导出 %d ms, %d 个任务, %.1f MB/s, "
+                            + "堆 %.0f MB (GC后 %.0f MB), GC %d 次 / %d ms, 最长停顿 %d ms",
+                    iteration, elapsedNanos / 1e9, TimeUnit.NANOSECONDS.toMillis(parseNanos),
+                    TimeUnit.NANOSECONDS.toMillis(exportNanos), tasks, mbPerSecond,
+                    heapUsed / MB, heapAfterGc / MB, gcCount, gcPauseMillis, gcMaxPauseMillis);
+        }
+    }
+    
+    /**
+     * 所有轮次的汇总
+     */
+    private static final class Summary {
+        private long iterations;
+        private long elapsedNanos;
+        private double minMbPerSecond = Double.MAX_VALUE;
+        private double maxMbPerSecond;
+        private double totalMbPerSecond;
+        private double totalTasksPerSecond;
+        private long maxHeapUsed;
+        private long maxHeapAfterGc;
+        private long[] heapAfterGc = new long[64];
+        
+        void add(Sample sample) {
+            if (iterations == heapAfterGc.length) {
+                heapAfterGc = Arrays.copyOf(heapAfterGc, heapAfterGc.length * 2);
+            }
+            heapAfterGc[(int) iterations++] = sample.heapAfterGc;
+            elapsedNanos = sample.elapsedNanos;
+            minMbPerSecond = Math.min(minMbPerSecond, sample.mbPerSecond);
+            maxMbPerSecond = Math.max(maxMbPerSecond, sample.mbPerSecond);
+            totalMbPerSecond += sample.mbPerSecond;
+            totalTasksPerSecond += sample.tasksPerSecond;
+            maxHeapUsed = Math.max(maxHeapUsed, sample.heapUsed);
+            maxHeapAfterGc = Math.max(maxHeapAfterGc, sample.heapAfterGc);
+        }
+        
+        void print(PauseRecorder pauses) {
+            System.out.println("------------------------------------------");
+            if (iterations == 0) {
+                System.out.println("没有完成任何一轮测试");
+                return;
+            }
+            System.out.printf("共 %d 轮, 用时 %.1f s%n", iterations, elapsedNanos / 1e9);
+            System.out.printf("吞吐量: 平均 %.1f MB/s (最低 %.1f, 最高 %.1f), 平均 %.0f 个任务/s%n",
+                    totalMbPerSecond / iterations, minMbPerSecond, maxMbPerSecond, totalTasksPerSecond / iterations);
+            // 单次GC后的占用受GC时机影响很大，比较前后半程的最低值来判断存活对象是否增长
+            int half = (int) (iterations / 2);
+            long earlyMin = min(heapAfterGc, 0, Math.max(half, 1));
+            long lateMin = min(heapAfterGc, half, (int) iterations);
+            System.out.printf("堆: 最高占用 %.0f MB, GC后占用 最高 %.0f MB, 前半程最低 %.0f MB, 后半程最低 %.0f MB%n",
+                    maxHeapUsed / MB, maxHeapAfterGc / MB, earlyMin / MB, lateMin / MB);
+            long[] durations = pauses.durations();
+            if (durations.length > 0) {
+                System.out.printf("GC停顿: %d 次, 共 %d ms, p50 %d ms, p99 %d ms, 最长 %d ms%n",
+                        durations.length, pauses.total(0), percentile(durations, 0.50),
+                        percentile(durations, 0.99), durations[durations.length - 1]);
+            } else {
+                System.out.println("GC停顿: 无");
+            }
+            if (iterations >= MIN_GROWTH_ITERATIONS && earlyMin > 0
+                    && lateMin > earlyMin * (1 + HEAP_GROWTH_WARNING)
+                    && lateMin - earlyMin > HEAP_GROWTH_MIN_BYTES) {
+                System.out.printf("警告: GC后的堆占用增长了 %.0f%%，可能存在内存泄漏%n",
+                        (lateMin - earlyMin) * 100.0 / earlyMin);
+            }
+        }
+        
+        private static long min(long[] values, int from, int to) {
+            long min = Long.MAX_VALUE;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, values[i]);
+            }
+            return min == Long.MAX_VALUE ? 0 : min;
+        }
+        
+        private static long percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+    
+    /**
+     * 通过GC通知记录每次GC的耗时
+     * 通知在JMX线程中异步到达，所有方法都是同步的。
+     */
+    private static final class PauseRecorder implements NotificationListener {
+        private long[] durations = new long[64];
+        private int size;
+        
+        void install() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter) {
+                    ((NotificationEmitter) gc).addNotificationListener(this, null, null);
+                }
+            }
+        }
+        
+        void uninstall() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter) {
+                    try {
+                        ((NotificationEmitter) gc).removeNotificationListener(this);
+                    } catch (ListenerNotFoundException e) {
+                        // 未注册时忽略
+                    }
+                }
+            }
+        }
+        
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            record(info.getGcInfo().getDuration());
+        }
+        
+        synchronized void record(long millis) {
+            if (size == durations.length) {
+                durations = Arrays.copyOf(durations, size * 2);
+            }
+            durations[size++] = millis;
+        }
+        
+        synchronized int size() {
+            return size;
+        }
+        
+        synchronized int count(int from) {
+            return size - from;
+        }
+        
+        synchronized long total(int from) {
+            long total = 0;
+            for (int i = from; i < size; i++) {
+                total += durations[i];
+            }
+            return total;
+        }
+        
+        synchronized long max(int from) {
+            long max = 0;
+            for (int i = from; i < size; i++) {
+                max = Math.max(max, durations[i]);
+            }
+            return max;
+        }
+        
+        /**
+         * @return 所有耗时，升序排列
+         */
+        synchronized long[] durations() {
+            long[] sorted = Arrays.copyOf(durations, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+    
+    /**
+     * 命令行入口
+     * 
+     * @param args 命令行参数
+     */
+    public static void main(String[] args) {
+        List<File> inputs = new ArrayList<>();
+        long maxIterations = Long.MAX_VALUE;
+        long maxNanos = Long.MAX_VALUE;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(10);
+        Charset charset = StandardCharsets.UTF_8;
+        ExportPlatform platform = ExportPlatform.CSV;
+        int threads = 1;
+        boolean store = false;
+        String reportFile = null;
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    inputs.add(new File(arg));
+                } else if (arg.equals("--help")) {
+                    printHelp();
+                    return;
+                } else if (arg.equals("--store")) {
+                    store = true;
+                } else if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("选项缺少参数值: " + arg);
+                } else if (arg.equals("--iterations")) {
+                    maxIterations = Long.parseLong(args[++i]);
+                } else if (arg.equals("--duration")) {
+                    maxNanos = parseDuration(args[++i]);
+                } else if (arg.equals("--interval")) {
+                    intervalNanos = parseDuration(args[++i]);
+                } else if (arg.equals("--threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--charset")) {
+                    charset = Charset.forName(args[++i]);
+                } else if (arg.equals("--platform")) {
+                    platform = ExportPlatform.valueOf(args[++i].toUpperCase());
+                    if (platform != ExportPlatform.CSV && platform != ExportPlatform.JSON) {
+                        throw new IllegalArgumentException("只支持导出到csv或json");
+                    }
+                } else if (arg.equals("--report")) {
+                    reportFile = args[++i];
+                } else {
+                    throw new IllegalArgumentException("未知选项: " + arg);
+                }
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("必须指定输入文件");
+            }
+            for (File input : inputs) {
+                if (!input.isFile()) {
+                    throw new IllegalArgumentException("输入文件不存在: " + input);
+                }
+            }
+            if (maxIterations == Long.MAX_VALUE && maxNanos == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("必须指定 --iterations 或 --duration");
+            }
+            if (threads <= 0) {
+                throw new IllegalArgumentException("线程数必须为正数");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
+            printHelp();
+            System.exit(1);
+            return;
+        }
+        
+        SoakHarness harness = new SoakHarness(inputs, charset, platform, threads, store);
+        try (PrintWriter report = reportFile != null ? new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(reportFile), StandardCharsets.UTF_8)) : null) {
+            harness.run(maxIterations, maxNanos, report, intervalNanos);
+        } catch (IOException e) {
+            System.err.println("错误: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * 解析带s/m/h后缀的时长，没有后缀时按秒计
+     */
+    static long parseDuration(String value) {
+        String text = value.trim().toLowerCase();
+        TimeUnit unit = TimeUnit.SECONDS;
+        if (text.endsWith("h")) {
+            unit = TimeUnit.HOURS;
+        } else if (text.endsWith("m")) {
+            unit = TimeUnit.MINUTES;
+        }
+        if (text.endsWith("s") || text.endsWith("m") || text.endsWith("h")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        long amount = Long.parseLong(text);
+        if (amount <= 0) {
+            throw new IllegalArgumentException("时长必须为正数: " + value);
+        }
+        return unit.toNanos(amount);
+    }
+    
+    private static void printHelp() {
+        System.out.println("用法: java -cp benchmarks.jar " + SoakHarness.class.getName() + " <输入文件>... [选项]");
+        System.out.println("选项:");
+        System.out.println("  --duration <时长>     运行时长，可带s/m/h后缀，如 30m");
+        System.out.println("  --iterations <轮数>   运行轮数，与 --duration 同时指定时先到者为准");
+        System.out.println("  --threads <数量>      解析线程数（默认: 1）");
+        System.out.println("  --store               解析到列式任务存储");
+        System.out.println("  --platform <格式>     导出格式 csv 或 json（默认: csv）");
+        System.out.println("  --charset <字符集>    输入文件字符集（默认: UTF-8）");
+        System.out.println("  --report <文件>       将每轮指标写入CSV报告");
+        System.out.println("  --interval <时长>     输出进度的间隔（默认: 10s）");
+    }
+}
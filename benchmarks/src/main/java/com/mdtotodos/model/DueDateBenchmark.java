@@ -0,0 +1,80 @@
+package com.mdtotodos.model;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 截止日期解析和格式化的基准测试
+ * repeated 模式只轮换少量日期，对应实际文件中同一日期反复出现、缓存几乎全部命中的情况；
+ * distinct 模式轮换的日期远多于缓存槽位，用于衡量未命中缓存时的开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DueDateBenchmark {
+    
+    // 两种模式下轮换的日期数量，均为2的幂以便用掩码取序号
+    private static final int REPEATED_DATES = 16;
+    private static final int DISTINCT_DATES = 1 << 16;
+    
+    @Param({"repeated", "distinct"})
+    public String dates;
+    
+    private DueDateCodec codec;
+    private String[] texts;
+    private LocalDateTime[] values;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        codec = new DueDateCodec();
+        int count = "repeated".equals(dates) ? REPEATED_DATES : DISTINCT_DATES;
+        texts = new String[count];
+        values = new LocalDateTime[count];
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime value = start.plusHours(i);
+            int hour = value.getHour() % 12 == 0 ? 12 : value.getHour() % 12;
+            texts[i] = value.getYear() + "/" + value.getMonthValue() + "/" + value.getDayOfMonth()
+                    + "-" + hour + (value.getHour() < 12 ? "am" : "pm");
+            values[i] = value;
+        }
+    }
+    
+    /**
+     * 解析 YYYY/MM/DD-HHam/pm 格式的日期
+     */
+    @Benchmark
+    public LocalDateTime parseDate() {
+        return codec.parse(texts[nextIndex()]);
+    }
+    
+    /**
+     * 将日期格式化为导出格式
+     */
+    @Benchmark
+    public String formatDate() {
+        return codec.format(values[nextIndex()]);
+    }
+    
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & (texts.length - 1);
+        return index;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mdtotodos.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 整个任务列表导出到CSV和JSON文件的基准测试
+ * 任务的标题、描述和截止日期取自固定大小的样本池，千万级任务时堆中主要是任务对象本身，
+ * 测量结果反映的是导出器逐个转义和写出任务的开销。样本中约八分之一含有需要转义或加引号的字符，
+ * 约四分之一没有截止日期。每次调用覆盖同一个临时文件。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ExporterBenchmark {
+    
+    // 样本池大小，超过日期编解码器的缓存槽位数
+    private static final int POOL_SIZE = 4096;
+    
+    @Param({"1000", "1000000", "10000000"})
+    public int tasks;
+    
+    private TaskExporter exporter;
+    private List<Task> taskList;
+    private File output;
+    
+    @Setup
+    public void setUp() throws IOException {
+        String[] titles = new String[POOL_SIZE];
+        String[] descriptions = new String[POOL_SIZE];
+        LocalDateTime[] dueDates = new LocalDateTime[POOL_SIZE];
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (i % 8 == 7) {
+                titles[i] = "检查 \"报告\", 第" + i + "版";
+                descriptions[i] = "路径 C:\\notes\\" + i + ".md";
+            } else {
+                titles[i] = (i % 2 == 0 ? "完成项目报告 " : "Update customer records ") + i;
+                descriptions[i] = i % 3 == 0 ? "" : "需要包含财务部分 " + i;
+            }
+            dueDates[i] = i % 4 == 3 ? null : start.plusHours(i);
+        }
+        
+        taskList = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int k = i & (POOL_SIZE - 1);
+            taskList.add(new Task(titles[k], descriptions[k], dueDates[k]));
+        }
+        exporter = new TaskExporter();
+        output = File.createTempFile("mdtotodos-bench", ".out");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        if (!output.delete()) {
+            output.deleteOnExit();
+        }
+    }
+    
+    @Benchmark
+    public File exportToCSV() throws IOException {
+        exporter.exportToCSV(taskList, output);
+        return output;
+    }
+    
+    @Benchmark
+    public File exportToJSON() throws IOException {
+        exporter.exportToJSON(taskList, output);
+        return output;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mdtotodos.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON字符串转义的基准测试
+ * 大多数标题和描述不含需要转义的字符，因此分别测量无需转义和含有转义字符两种输入。
+ * 转义结果编码为UTF-8写入输出缓冲区，每次调用后写出到丢弃数据的通道，与导出时的路径相同。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonEscapeBenchmark {
+    
+    @Param({"ascii", "cjk", "escaped"})
+    public String text;
+    
+    private String input;
+    private EncodedOutput output;
+    
+    @Setup
+    public void setUp() {
+        switch (text) {
+            case "ascii":
+                input = "Prepare quarterly report, include the finance section";
+                break;
+            case "cjk":
+                input = "完成项目报告，需要包含财务部分和下一季度规划";
+                break;
+            case "escaped":
+                input = "路径 C:\\notes\\todo.md 中的 \"引号\"\t和制表符";
+                break;
+            default:
+                throw new IllegalArgumentException("未知的输入类型: " + text);
+        }
+        output = new EncodedOutput(new DiscardChannel(), StandardCharsets.UTF_8, 1 << 18);
+    }
+    
+    @Benchmark
+    public long escapeJson() throws IOException {
+        JsonTaskSink.writeEscaped(output, input);
+        output.finish();
+        return output.getWritten();
+    }
+    
+    /**
+     * 丢弃写入数据的通道
+     */
+    private static final class DiscardChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            return remaining;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
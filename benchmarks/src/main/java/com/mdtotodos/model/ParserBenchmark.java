@@ -0,0 +1,103 @@
+package com.mdtotodos.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 单行任务解析的基准测试
+ * 覆盖不同形态的任务行，分别以字符串和UTF-8字节行两种方式输入解析器：
+ * 字符串对应逐行读取的路径，字节行对应内存映射和分块并行解析的路径。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+    
+    // 超长行的标题重复次数
+    private static final int LONG_LINE_REPEAT = 200;
+    
+    @Param({"plain", "description", "date", "cjk", "long"})
+    public String shape;
+    
+    @Param({"chars", "bytes"})
+    public String input;
+    
+    private MarkdownParser parser;
+    private CharSequence line;
+    private int lineBytes;
+    
+    @Setup
+    public void setUp() {
+        parser = new MarkdownParser(StandardCharsets.UTF_8);
+        String text = sampleLine(shape);
+        lineBytes = text.getBytes(StandardCharsets.UTF_8).length;
+        if ("bytes".equals(input)) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            ByteLine byteLine = new ByteLine(StandardCharsets.UTF_8);
+            byteLine.reset(bytes, 0, bytes.length);
+            line = byteLine;
+        } else {
+            line = text;
+        }
+    }
+    
+    /**
+     * 解析一行任务文本并创建任务对象
+     */
+    @Benchmark
+    public Task parseTaskLine() {
+        return parser.parseTaskLine(line, MarkdownParser.TASKS);
+    }
+    
+    /**
+     * 解析一行任务文本并追加到列式存储，不创建字符串和任务对象
+     * 存储每次调用都按行长预分配后重新创建，以免字节区持续增长或在调用中扩容。
+     */
+    @Benchmark
+    public TaskStore parseTaskLineIntoStore() {
+        TaskStore store = new TaskStore(1, lineBytes);
+        return parser.parseTaskLine(line, store.appender);
+    }
+    
+    /**
+     * 获取指定形态的任务行
+     * 
+     * @param shape 行形态
+     * @return 任务行文本
+     */
+    static String sampleLine(String shape) {
+        switch (shape) {
+            case "plain":
+                return "1. Update customer records";
+            case "description":
+                return "2. Prepare quarterly report // include the finance section";
+            case "date":
+                return "3. Schedule team meeting // discuss next quarter 2024/11/15-10am";
+            case "cjk":
+                return "4. 完成项目报告 // 需要包含财务部分和下一季度规划 2024/11/22-3pm";
+            case "long":
+                StringBuilder sb = new StringBuilder("5. ");
+                for (int i = 0; i < LONG_LINE_REPEAT; i++) {
+                    sb.append("整理车库 tidy the garage ");
+                }
+                return sb.append("// 留出空间放自行车 2024/11/25-2pm").toString();
+            default:
+                throw new IllegalArgumentException("未知的行形态: " + shape);
+        }
+    }
+}
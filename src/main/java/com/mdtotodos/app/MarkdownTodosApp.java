@@ -1,13 +1,38 @@
 package com.mdtotodos.app;
 
+import com.mdtotodos.controller.BatchConverter;
+import com.mdtotodos.controller.BatchConverter.BatchResult;
+import com.mdtotodos.controller.BatchInput;
 import com.mdtotodos.controller.TaskController;
-import com.mdtotodos.model.Task;
+import com.mdtotodos.controller.TaskController.TargetResult;
+import com.mdtotodos.controller.TaskWatcher;
+import com.mdtotodos.model.BlockIndex;
+import com.mdtotodos.model.GoogleTasksExporter;
+import com.mdtotodos.model.MicrosoftToDoExporter;
+import com.mdtotodos.model.ParseCache;
+import com.mdtotodos.model.RemoteExportResult;
+import com.mdtotodos.model.TaskFilter;
+import com.mdtotodos.model.TaskMetrics;
 import com.mdtotodos.model.TaskExporter.ExportPlatform;
 import com.mdtotodos.view.MainView;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import javax.management.JMException;
 
 /**
  * 应用程序主类，包含命令行入口和GUI入口
@@ -43,22 +68,103 @@ public class MarkdownTodosApp {
      */
     private static void processCommandLine(String[] args) {
         // 参数解析
-        String inputFile = null;
+        List<String> inputs = new ArrayList<>();
         String outputFile = null;
-        ExportPlatform platform = ExportPlatform.CSV; // 默认为CSV
+        String outputDir = null;
+        String snapshotFile = null;
+        List<ExportPlatform> platforms = Collections.singletonList(ExportPlatform.CSV); // 默认为CSV
         boolean listOnly = false;
+        int threads = 1;
+        Charset charset = null;
+        boolean pipelined = false;
+        boolean compact = false;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        String cacheDir = null;
+        boolean cacheVerify = false;
+        long cacheMaxBytes = ParseCache.DEFAULT_MAX_BYTES;
+        boolean watch = false;
+        LocalDateTime dueAfter = null;
+        LocalDateTime dueBefore = null;
+        String match = null;
+        boolean stats = false;
+        String msList = null;
+        String googleList = null;
+        int concurrency = 0;
+        String journalFile = null;
         
         for (int i = 0; i < args.length; i++) {
-            if (i == 0 && !args[i].startsWith("--")) {
-                // 第一个非选项参数视为输入文件
-                inputFile = args[i];
+            if (!args[i].startsWith("--")) {
+                // 非选项参数视为输入文件、目录、通配符模式或清单文件
+                inputs.add(args[i]);
             } else if (args[i].equals("--platform") && i + 1 < args.length) {
-                // 平台选项
-                String platformName = args[++i].toLowerCase();
-                platform = parsePlatform(platformName);
+                // 平台选项，多个平台以逗号分隔
+                platforms = parsePlatforms(args[++i].toLowerCase());
             } else if (args[i].equals("--output") && i + 1 < args.length) {
                 // 输出文件选项
                 outputFile = args[++i];
+            } else if (args[i].equals("--output-dir") && i + 1 < args.length) {
+                // 批量模式输出目录选项
+                outputDir = args[++i];
+            } else if (args[i].equals("--snapshot") && i + 1 < args.length) {
+                // 任务快照输出文件选项
+                snapshotFile = args[++i];
+            } else if (args[i].equals("--jobs") && i + 1 < args.length) {
+                // 批量模式并发数选项
+                jobs = parseJobs(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                // 解析线程数选项
+                threads = parseThreads(args[++i]);
+            } else if (args[i].equals("--charset") && i + 1 < args.length) {
+                // 输入文件字符集选项
+                String charsetName = args[++i];
+                try {
+                    charset = Charset.forName(charsetName);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("错误: 不支持的字符集: " + charsetName);
+                    System.exit(1);
+                }
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                // 解析结果缓存目录选项
+                cacheDir = args[++i];
+            } else if (args[i].equals("--cache-verify")) {
+                // 以内容校验值判断文件是否变化
+                cacheVerify = true;
+            } else if (args[i].equals("--cache-max-mb") && i + 1 < args.length) {
+                // 缓存大小上限选项
+                cacheMaxBytes = parseCacheSize(args[++i]);
+            } else if (args[i].equals("--pipeline")) {
+                // 解析和写出在不同线程中同时进行
+                pipelined = true;
+            } else if (args[i].equals("--compact")) {
+                // 使用列式任务存储
+                compact = true;
+            } else if (args[i].equals("--watch")) {
+                // 监视输入文件，变化时重新导出
+                watch = true;
+            } else if (args[i].equals("--due-after") && i + 1 < args.length) {
+                // 截止日期下限过滤选项
+                dueAfter = parseDateOption("--due-after", args[++i]);
+            } else if (args[i].equals("--due-before") && i + 1 < args.length) {
+                // 截止日期上限过滤选项
+                dueBefore = parseDateOption("--due-before", args[++i]);
+            } else if (args[i].equals("--match") && i + 1 < args.length) {
+                // 标题关键字过滤选项
+                match = args[++i];
+            } else if (args[i].equals("--stats")) {
+                // 记录并打印解析和导出统计信息
+                stats = true;
+            } else if (args[i].equals("--ms-list") && i + 1 < args.length) {
+                // Microsoft To Do任务列表选项
+                msList = args[++i];
+            } else if (args[i].equals("--google-list") && i + 1 < args.length) {
+                // Google Tasks任务列表选项
+                googleList = args[++i];
+            } else if (args[i].equals("--concurrency") && i + 1 < args.length) {
+                // 远程导出最大并发请求数选项
+                concurrency = parseConcurrency(args[++i]);
+            } else if (args[i].equals("--journal") && i + 1 < args.length) {
+                // 远程导出同步状态日志选项
+                journalFile = args[++i];
             } else if (args[i].equals("--list")) {
                 // 仅列出任务，不导出
                 listOnly = true;
@@ -70,54 +176,645 @@ public class MarkdownTodosApp {
         }
         
         // 验证输入文件
-        if (inputFile == null) {
+        if (inputs.isEmpty()) {
             System.err.println("错误: 必须指定输入文件");
             printHelp();
             System.exit(1);
         }
         
+        TaskController controller = new TaskController();
+        controller.setParseThreads(threads);
+        controller.setPipelined(pipelined);
+        controller.setCompact(compact);
+        if (dueAfter != null || dueBefore != null || match != null) {
+            try {
+                TaskFilter filter = new TaskFilter(dueAfter, dueBefore, match);
+                controller.setFilter(filter);
+                System.out.println("过滤条件: " + filter);
+            } catch (IllegalArgumentException e) {
+                System.err.println("错误: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (charset != null) {
+            controller.setCharset(charset);
+        }
+        if (stats) {
+            TaskMetrics metrics = new TaskMetrics();
+            try {
+                metrics.register();
+            } catch (JMException e) {
+                System.err.println("警告: 无法注册JMX统计信息: " + e.getMessage());
+            }
+            controller.setMetrics(metrics);
+        }
+        ExportPlatform platform = platforms.get(0);
+        if (platforms.contains(ExportPlatform.MICROSOFT_TODO) && !listOnly) {
+            try {
+                MicrosoftToDoExporter microsoftToDo = MicrosoftToDoExporter.fromEnvironment();
+                microsoftToDo.setList(msList);
+                if (concurrency > 0) {
+                    microsoftToDo.setMaxConcurrency(concurrency);
+                }
+                microsoftToDo.setJournalFile(journalFor(journalFile, platforms, "microsoft"));
+                controller.setMicrosoftToDo(microsoftToDo);
+            } catch (UnsupportedOperationException e) {
+                System.err.println("错误: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (platforms.contains(ExportPlatform.GOOGLE_TASKS) && !listOnly) {
+            try {
+                GoogleTasksExporter googleTasks = GoogleTasksExporter.fromEnvironment();
+                googleTasks.setList(googleList);
+                if (concurrency > 0) {
+                    googleTasks.setMaxConcurrency(concurrency);
+                }
+                googleTasks.setJournalFile(journalFor(journalFile, platforms, "google"));
+                controller.setGoogleTasks(googleTasks);
+            } catch (UnsupportedOperationException e) {
+                System.err.println("错误: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (journalFile != null && !platforms.contains(ExportPlatform.MICROSOFT_TODO)
+                && !platforms.contains(ExportPlatform.GOOGLE_TASKS)) {
+            System.err.println("警告: --journal 只用于导出到Microsoft To Do和Google Tasks，导出到文件时总是写出全部任务");
+        }
+        if (cacheDir != null) {
+            try {
+                controller.setParseCache(ParseCache.open(Paths.get(cacheDir), cacheMaxBytes, cacheVerify));
+            } catch (IOException e) {
+                System.err.println("错误: 无法打开缓存目录: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        
+        if (inputs.size() > 1 || outputDir != null || BatchInput.isBatchSpec(inputs.get(0))) {
+            // 多个输入、目录、通配符或清单文件按批量模式处理
+            if (snapshotFile != null) {
+                System.err.println("错误: 批量模式不支持 --snapshot");
+                System.exit(1);
+            }
+            if (platforms.size() > 1) {
+                System.err.println("错误: 批量模式不支持同时导出到多个平台");
+                System.exit(1);
+            }
+            processBatch(controller, inputs, platform, listOnly, outputFile, outputDir, jobs, watch);
+            return;
+        }
+        
+        String inputFile = inputs.get(0);
         File mdFile = new File(inputFile);
         if (!mdFile.exists()) {
             System.err.println("错误: 找不到文件: " + inputFile);
             System.exit(1);
         }
         
+        Map<ExportPlatform, File> targets = null;
+        try {
+            targets = exportTargets(platforms, outputFile, listOnly);
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
+            System.exit(1);
+        }
+        File snapshot = (snapshotFile != null) ? new File(snapshotFile) : null;
+        
         // 执行操作
         try {
-            TaskController controller = new TaskController();
+            if (watch) {
+                // 监视期间反复加载同一文件，首次处理时就建立分块索引
+                controller.setIncremental(true);
+            }
+            processFile(controller, mdFile, targets, listOnly, snapshot);
+            if (watch) {
+                watchFile(controller, mdFile, targets, listOnly, snapshot);
+            }
+            printStats(controller);
+            closeParseCache(controller);
+        } catch (IOException e) {
+            System.err.println("错误: " + e.getMessage());
+            System.exit(1);
+        } catch (UnsupportedOperationException e) {
+            System.err.println("不支持的操作: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * 确定远程平台的同步状态日志文件
+     * 同时导出到Microsoft To Do和Google Tasks时两个导出器同时运行，各自的日志记录不同的导出目标，
+     * 因此在 --journal 的文件名后加上平台名，每个平台使用自己的日志文件。
+     * 
+     * @param journalFile --journal 的值，可为null
+     * @param platforms 导出平台
+     * @param name 平台名，如microsoft
+     * @return 日志文件，没有指定 --journal 时返回null
+     */
+    private static File journalFor(String journalFile, List<ExportPlatform> platforms, String name) {
+        if (journalFile == null) {
+            return null;
+        }
+        boolean shared = platforms.contains(ExportPlatform.MICROSOFT_TODO)
+                && platforms.contains(ExportPlatform.GOOGLE_TASKS);
+        return new File(shared ? journalFile + "." + name : journalFile);
+    }
+    
+    /**
+     * 确定每个导出平台的输出文件
+     * 导出到多个平台时 --output 以逗号分隔，依次对应导出到文件的平台；没有指定文件的平台使用默认文件名。
+     * 
+     * @param platforms 导出平台
+     * @param outputFile --output 的值，可为null
+     * @param listOnly 是否仅列出任务，此时不需要输出文件
+     * @return 导出平台及其输出文件，非文件导出时为null
+     * @throws IllegalArgumentException 如果指定的输出文件多于导出到文件的平台
+     */
+    private static Map<ExportPlatform, File> exportTargets(List<ExportPlatform> platforms, String outputFile,
+                                                           boolean listOnly) {
+        String[] outputs = outputFile == null ? new String[0]
+                : platforms.size() > 1 ? outputFile.split(",") : new String[] {outputFile};
+        Map<ExportPlatform, File> targets = new LinkedHashMap<>();
+        int next = 0;
+        for (ExportPlatform platform : platforms) {
+            File output = null;
+            if (platform == ExportPlatform.CSV || platform == ExportPlatform.JSON) {
+                String name = next < outputs.length ? outputs[next].trim() : "";
+                next++;
+                if (name.isEmpty() && !listOnly) {
+                    // 如果输出到文件但未指定文件名，使用默认文件名
+                    name = "tasks" + (platform == ExportPlatform.CSV ? ".csv" : ".json");
+                    System.out.println("未指定输出文件，将使用默认文件: " + name);
+                }
+                output = name.isEmpty() ? null : new File(name);
+            } else if (platforms.size() == 1 && outputFile != null) {
+                output = new File(outputFile);
+            }
+            targets.put(platform, output);
+        }
+        if (platforms.size() > 1 && next < outputs.length) {
+            throw new IllegalArgumentException("--output 指定的文件多于导出到文件的平台");
+        }
+        return targets;
+    }
+    
+    /**
+     * 处理单个输入文件：列出任务或导出任务，需要时同时保存任务快照
+     * 
+     * @param controller 任务控制器
+     * @param mdFile Markdown文件或任务快照
+     * @param targets 导出平台及其输出文件，多个平台时解析一次后同时导出
+     * @param listOnly 是否仅列出任务
+     * @param snapshot 任务快照输出文件，不保存快照时为null
+     * @throws IOException 如果读取或导出出错
+     */
+    private static void processFile(TaskController controller, File mdFile, Map<ExportPlatform, File> targets,
+                                    boolean listOnly, File snapshot) throws IOException {
+        String inputFile = mdFile.getPath();
+        if (snapshot != null) {
+            // 保存快照需要完整的任务列表，加载后再从快照列出或导出
             int taskCount = controller.loadTasks(mdFile);
             System.out.println("从文件 " + inputFile + " 中解析出 " + taskCount + " 个任务");
-            
+            controller.saveSnapshot(snapshot);
+            System.out.println("成功保存任务快照: " + snapshot.getPath());
             if (listOnly) {
-                // 仅列出任务
-                printTasks(controller.getCurrentTasks());
+                printTasks(controller, snapshot);
+                return;
+            }
+            exportLoaded(controller, targets);
+            return;
+        }
+        
+        if (listOnly) {
+            // 仅列出任务，边解析边输出，不保存完整任务列表
+            int taskCount = printTasks(controller, mdFile);
+            System.out.println("从文件 " + inputFile + " 中解析出 " + taskCount + " 个任务");
+            return;
+        }
+        
+        ExportPlatform platform = targets.keySet().iterator().next();
+        File output = targets.get(platform);
+        boolean fileExport = platform == ExportPlatform.CSV || platform == ExportPlatform.JSON;
+        if (targets.size() == 1 && fileExport && (controller.getParseThreads() == 1 || controller.isPipelined())) {
+            // 顺序解析导出到文件时边解析边写出
+            int taskCount = controller.convertTasks(mdFile, platform, output);
+            System.out.println("从文件 " + inputFile + " 中解析出 " + taskCount + " 个任务");
+            printExported(platform, output, null);
+        } else {
+            int taskCount = controller.loadTasks(mdFile);
+            System.out.println("从文件 " + inputFile + " 中解析出 " + taskCount + " 个任务");
+            exportLoaded(controller, targets);
+        }
+    }
+    
+    /**
+     * 导出已加载的任务，多个平台时同时导出并打印每个平台的结果和总耗时
+     * 
+     * @param controller 任务控制器
+     * @param targets 导出平台及其输出文件
+     * @throws IOException 如果导出出错，多个平台时任一平台失败
+     */
+    private static void exportLoaded(TaskController controller, Map<ExportPlatform, File> targets) throws IOException {
+        if (targets.size() == 1) {
+            Map.Entry<ExportPlatform, File> target = targets.entrySet().iterator().next();
+            controller.exportTasks(target.getKey(), target.getValue());
+            printExported(target.getKey(), target.getValue(), controller.getLastRemoteResult());
+            return;
+        }
+        
+        long start = System.nanoTime();
+        List<TargetResult> results = controller.exportTasks(targets);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        long slowestMillis = 0;
+        int failures = 0;
+        for (TargetResult result : results) {
+            slowestMillis = Math.max(slowestMillis, result.getElapsedNanos() / 1000000);
+            if (result.isSuccess()) {
+                printExported(result.getPlatform(), result.getOutput(), result.getRemoteResult());
             } else {
-                // 导出任务
-                if ((platform == ExportPlatform.CSV || platform == ExportPlatform.JSON) && outputFile == null) {
-                    // 如果输出到文件但未指定文件名，使用默认文件名
-                    String extension = (platform == ExportPlatform.CSV) ? ".csv" : ".json";
-                    outputFile = "tasks" + extension;
-                    System.out.println("未指定输出文件，将使用默认文件: " + outputFile);
-                }
-                
-                File output = (outputFile != null) ? new File(outputFile) : null;
-                controller.exportTasks(platform, output);
-                
-                if (platform == ExportPlatform.CSV || platform == ExportPlatform.JSON) {
-                    System.out.println("成功导出任务到文件: " + outputFile);
-                } else {
-                    System.out.println("成功导出任务");
+                failures++;
+                System.err.println("错误: 导出到 " + result.getPlatform() + " 失败: " + result.getError());
+            }
+        }
+        System.out.println("同时导出到 " + results.size() + " 个平台，用时 " + elapsedMillis
+                + " 毫秒 (最慢的平台 " + slowestMillis + " 毫秒)");
+        if (failures > 0) {
+            throw new IOException(failures + " 个平台导出失败");
+        }
+    }
+    
+    /**
+     * 打印导出成功的信息，导出到远程平台时打印创建的任务数和速度
+     * 
+     * @param platform 导出平台
+     * @param output 输出文件，非文件导出时为null
+     * @param remoteResult 远程导出的结果，非远程导出时为null
+     */
+    private static void printExported(ExportPlatform platform, File output, RemoteExportResult remoteResult) {
+        if (platform == ExportPlatform.CSV || platform == ExportPlatform.JSON) {
+            System.out.println("成功导出任务到文件: " + output.getPath());
+        } else if ((platform == ExportPlatform.MICROSOFT_TODO || platform == ExportPlatform.GOOGLE_TASKS)
+                && remoteResult != null) {
+            System.out.println(remoteResult);
+        } else {
+            System.out.println("成功导出任务");
+        }
+    }
+    
+    /**
+     * 监视单个输入文件，变化时重新处理，直到进程退出
+     * 控制器启用增量解析时打印重新解析的块数。
+     * 
+     * @param controller 任务控制器
+     * @param mdFile Markdown文件
+     * @param targets 导出平台及其输出文件
+     * @param listOnly 是否仅列出任务
+     * @param snapshot 任务快照输出文件，不保存快照时为null
+     * @throws IOException 如果注册监视出错
+     */
+    private static void watchFile(TaskController controller, File mdFile, Map<ExportPlatform, File> targets,
+                                  boolean listOnly, File snapshot) throws IOException {
+        watchFiles(Collections.singletonList(mdFile.toPath()), files -> {
+            try {
+                long start = System.nanoTime();
+                processFile(controller, mdFile, targets, listOnly, snapshot);
+                System.out.println("重新处理完成，用时 " + (System.nanoTime() - start) / 1000000 + " 毫秒");
+                BlockIndex index = controller.getBlockIndex(mdFile);
+                if (index != null) {
+                    System.out.println("增量解析: 重新解析 " + index.getReparsedBlockCount()
+                            + "/" + index.getBlockCount() + " 个块");
                 }
+                printStats(controller);
+                flushParseCache(controller);
+            } catch (IOException | UnsupportedOperationException e) {
+                System.err.println("错误: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * 监视文件和目录，变化时调用监听器，直到进程退出
+     * 
+     * @param roots 监视的文件和目录
+     * @param listener 文件变化监听器
+     * @throws IOException 如果注册监视出错
+     */
+    private static void watchFiles(List<Path> roots, TaskWatcher.ChangeListener listener) throws IOException {
+        TaskWatcher.ErrorListener errorListener = (files, error) ->
+                System.err.println("错误: 重新处理 " + files.size() + " 个变化的文件时出错: " + error);
+        try (TaskWatcher watcher = new TaskWatcher(roots, TaskWatcher.DEFAULT_DEBOUNCE_MILLIS, listener,
+                errorListener)) {
+            watcher.start();
+            System.out.println("正在监视文件变化，按 Ctrl+C 退出...");
+            watcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * 批量转换多个输入文件
+     * 指定 --output 时所有任务合并导出到一个文件，否则每个输入生成一个输出文件。
+     * 
+     * @param controller 任务控制器
+     * @param specs 输入参数
+     * @param platform 导出平台
+     * @param listOnly 是否仅列出任务
+     * @param outputFile 合并输出文件，可为null
+     * @param outputDir 输出目录，可为null
+     * @param jobs 同时转换的最大文件数
+     * @param watch 转换后是否继续监视输入，只重新转换变化的文件
+     */
+    private static void processBatch(TaskController controller, List<String> specs, ExportPlatform platform,
+                                     boolean listOnly, String outputFile, String outputDir, int jobs,
+                                     boolean watch) {
+        if (listOnly) {
+            System.err.println("错误: 批量模式不支持 --list");
+            System.exit(1);
+        }
+        if (platform != ExportPlatform.CSV && platform != ExportPlatform.JSON) {
+            System.err.println("错误: 批量模式仅支持CSV和JSON导出");
+            System.exit(1);
+        }
+        if (outputFile != null && outputDir != null) {
+            System.err.println("错误: --output 和 --output-dir 不能同时使用");
+            System.exit(1);
+        }
+        
+        ExecutorService executor = null;
+        try {
+            List<BatchInput> inputs = BatchInput.resolve(specs);
+            String threadKind = BatchConverter.isVirtualThreadAvailable() ? "虚拟线程" : "线程池";
+            System.out.println("找到 " + inputs.size() + " 个输入文件，并发数 " + jobs + " (" + threadKind + ")");
+            
+            executor = BatchConverter.newExecutor(jobs);
+            BatchConverter converter = new BatchConverter(controller, executor, jobs);
+            Path dir = (outputDir != null) ? Paths.get(outputDir) : null;
+            BatchResult result;
+            if (outputFile != null) {
+                result = converter.convertMerged(inputs, platform, new File(outputFile));
+            } else {
+                result = converter.convertEach(inputs, platform, dir);
+            }
+            
+            printBatchSummary(result);
+            if (outputFile != null) {
+                System.out.println("成功导出任务到文件: " + outputFile);
+            }
+            
+            if (watch) {
+                watchFiles(BatchInput.watchRoots(specs), files -> {
+                    try {
+                        reconvertBatch(controller, converter, specs, files, platform, outputFile, dir);
+                    } catch (IOException | IllegalArgumentException e) {
+                        System.err.println("错误: " + e.getMessage());
+                    }
+                });
+            }
+            printStats(controller);
+            closeParseCache(controller);
+            if (!result.getFailures().isEmpty()) {
+                System.exit(1);
             }
         } catch (IOException e) {
             System.err.println("错误: " + e.getMessage());
             System.exit(1);
-        } catch (UnsupportedOperationException e) {
-            System.err.println("不支持的操作: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
             System.exit(1);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+    
+    /**
+     * 监视模式下重新转换变化的输入文件
+     * 重新展开输入参数以包含新建的文件；合并输出时重新导出所有输入，否则只转换变化的文件。
+     * 
+     * @param controller 任务控制器
+     * @param converter 批量转换器
+     * @param specs 输入参数
+     * @param files 变化的文件
+     * @param platform 导出平台
+     * @param outputFile 合并输出文件，可为null
+     * @param outputDir 输出目录，可为null
+     * @throws IOException 如果展开输入或写入合并输出出错
+     */
+    private static void reconvertBatch(TaskController controller, BatchConverter converter, List<String> specs,
+                                       List<Path> files, ExportPlatform platform, String outputFile,
+                                       Path outputDir) throws IOException {
+        Set<Path> changedFiles = new HashSet<>();
+        for (Path file : files) {
+            changedFiles.add(file.toAbsolutePath().normalize());
+        }
+        
+        List<BatchInput> inputs = BatchInput.resolve(specs);
+        List<BatchInput> changed = new ArrayList<>();
+        for (BatchInput input : inputs) {
+            if (changedFiles.contains(input.getFile().toAbsolutePath().normalize())) {
+                changed.add(input);
+            }
+        }
+        if (changed.isEmpty()) {
+            // 变化的不是输入文件，例如写到输入目录中的输出文件
+            return;
+        }
+        
+        System.out.println("检测到 " + changed.size() + " 个文件变化");
+        BatchResult result = outputFile != null
+                ? converter.convertMerged(inputs, platform, new File(outputFile))
+                : converter.convertEach(changed, platform, outputDir);
+        printBatchSummary(result);
+        printStats(controller);
+        flushParseCache(controller);
+    }
+    
+    /**
+     * 打印批量转换的吞吐量汇总和失败文件
+     * 
+     * @param result 批量转换结果
+     */
+    private static void printBatchSummary(BatchResult result) {
+        double seconds = Math.max(result.getElapsedNanos(), 1) / 1e9;
+        double megabytes = result.getByteCount() / (1024.0 * 1024.0);
+        System.out.println(String.format("批量转换完成: %d 个文件, %d 个任务, %.1f MB, 用时 %.2f 秒",
+                result.getFileCount(), result.getTaskCount(), megabytes, seconds));
+        System.out.println(String.format("吞吐量: %.1f 文件/秒, %.0f 任务/秒, %.1f MB/秒",
+                result.getFileCount() / seconds, result.getTaskCount() / seconds, megabytes / seconds));
+        
+        Map<Path, String> failures = result.getFailures();
+        if (!failures.isEmpty()) {
+            System.err.println("失败 " + failures.size() + " 个文件:");
+            for (Map.Entry<Path, String> failure : failures.entrySet()) {
+                System.err.println("  " + failure.getKey() + ": " + failure.getValue());
+            }
+        }
+    }
+    
+    /**
+     * 打印累计的解析和导出统计信息，没有启用 --stats 时不打印
+     * 
+     * @param controller 任务控制器
+     */
+    private static void printStats(TaskController controller) {
+        TaskMetrics metrics = controller.getMetrics();
+        if (metrics != null) {
+            System.out.println(metrics.report());
+        }
+    }
+    
+    /**
+     * 打印缓存命中情况并将缓存索引写回磁盘
+     * 
+     * @param controller 任务控制器
+     * @throws IOException 如果写入缓存索引出错
+     */
+    private static void closeParseCache(TaskController controller) throws IOException {
+        ParseCache cache = controller.getParseCache();
+        if (cache == null) {
+            return;
+        }
+        System.out.println("解析缓存: 命中 " + cache.getHits() + " 次, 未命中 " + cache.getMisses()
+                + " 次, 淘汰 " + cache.getEvictions() + " 个条目");
+        cache.close();
+    }
+    
+    /**
+     * 将缓存索引写回磁盘，用于监视模式下每次重新处理之后
+     * 
+     * @param controller 任务控制器
+     * @throws IOException 如果写入缓存索引出错
+     */
+    private static void flushParseCache(TaskController controller) throws IOException {
+        ParseCache cache = controller.getParseCache();
+        if (cache != null) {
+            cache.flush();
         }
     }
     
+    /**
+     * 解析缓存大小参数
+     * 
+     * @param value 参数值（MB）
+     * @return 缓存字节数上限，无效时返回默认值
+     */
+    private static long parseCacheSize(String value) {
+        try {
+            long megabytes = Long.parseLong(value);
+            if (megabytes > 0) {
+                return megabytes << 20;
+            }
+        } catch (NumberFormatException ignored) {
+            // 按无效值处理
+        }
+        System.err.println("警告: 无效的缓存大小 '" + value + "', 将使用 " + (ParseCache.DEFAULT_MAX_BYTES >> 20) + " MB");
+        return ParseCache.DEFAULT_MAX_BYTES;
+    }
+    
+    /**
+     * 解析线程数参数
+     * 
+     * @param value 参数值
+     * @return 线程数，无效时返回1
+     */
+    private static int parseThreads(String value) {
+        try {
+            int threads = Integer.parseInt(value);
+            if (threads > 0) {
+                return threads;
+            }
+        } catch (NumberFormatException ignored) {
+            // 按无效值处理
+        }
+        System.err.println("警告: 无效的线程数 '" + value + "', 将使用单线程解析");
+        return 1;
+    }
+    
+    /**
+     * 解析日期过滤参数，接受 yyyy-MM-dd、yyyy-MM-dd HH:mm 或 yyyy-MM-ddTHH:mm[:ss]
+     * 只有日期时取当天零点。
+     * 
+     * @param option 选项名称，用于错误信息
+     * @param value 参数值
+     * @return 日期时间
+     */
+    private static LocalDateTime parseDateOption(String option, String value) {
+        String text = value.trim();
+        try {
+            if (text.length() == 10) {
+                return LocalDate.parse(text).atStartOfDay();
+            }
+            return LocalDateTime.parse(text.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            System.err.println("错误: " + option + " 的日期无效: " + value + "，应为 yyyy-MM-dd 或 yyyy-MM-dd HH:mm");
+            System.exit(1);
+            return null;
+        }
+    }
+    
+    /**
+     * 解析批量模式并发数参数
+     * 
+     * @param value 参数值
+     * @return 并发数，无效时返回处理器数量
+     */
+    private static int parseJobs(String value) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        try {
+            int jobs = Integer.parseInt(value);
+            if (jobs > 0) {
+                return jobs;
+            }
+        } catch (NumberFormatException ignored) {
+            // 按无效值处理
+        }
+        System.err.println("警告: 无效的并发数 '" + value + "', 将使用 " + processors);
+        return processors;
+    }
+    
+    /**
+     * 解析远程导出并发数参数
+     * 
+     * @param value 参数值
+     * @return 并发数，无效时返回0，即使用各平台的默认值
+     */
+    private static int parseConcurrency(String value) {
+        try {
+            int concurrency = Integer.parseInt(value);
+            if (concurrency > 0) {
+                return concurrency;
+            }
+        } catch (NumberFormatException ignored) {
+            // 按无效值处理
+        }
+        System.err.println("警告: 无效的并发数 '" + value + "', 将使用默认值");
+        return 0;
+    }
+    
+    /**
+     * 解析以逗号分隔的平台名称，重复的平台只保留一次
+     * 
+     * @param platformNames 平台名称
+     * @return 对应的平台枚举值，按指定的顺序
+     */
+    private static List<ExportPlatform> parsePlatforms(String platformNames) {
+        List<ExportPlatform> platforms = new ArrayList<>();
+        for (String name : platformNames.split(",")) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            ExportPlatform platform = parsePlatform(name.trim());
+            if (platforms.contains(platform)) {
+                System.err.println("警告: 重复的平台 '" + name.trim() + "' 将被忽略");
+            } else {
+                platforms.add(platform);
+            }
+        }
+        return platforms.isEmpty() ? Collections.singletonList(ExportPlatform.CSV) : platforms;
+    }
+    
     /**
      * 解析平台名称
      * 
@@ -143,22 +840,20 @@ public class MarkdownTodosApp {
     }
     
     /**
-     * 打印任务列表
+     * 以流的方式打印文件中的任务列表
      * 
-     * @param tasks 任务列表
+     * @param controller 任务控制器
+     * @param file Markdown文件
+     * @return 打印的任务数量
+     * @throws IOException 如果读取文件出错
      */
-    private static void printTasks(List<Task> tasks) {
-        if (tasks == null || tasks.isEmpty()) {
-            System.out.println("未找到任务");
-            return;
-        }
-        
-        System.out.println("任务列表 (" + tasks.size() + " 个任务):");
+    private static int printTasks(TaskController controller, File file) throws IOException {
+        System.out.println("任务列表:");
         System.out.println("------------------------------------------");
         
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.get(i);
-            System.out.println((i + 1) + ". " + task.getTitle());
+        int[] index = {0};
+        int taskCount = controller.forEachTask(file, task -> {
+            System.out.println((++index[0]) + ". " + task.getTitle());
             
             if (task.hasDescription()) {
                 System.out.println("   描述: " + task.getDescription());
@@ -169,7 +864,12 @@ public class MarkdownTodosApp {
             }
             
             System.out.println();
+        });
+        
+        if (taskCount == 0) {
+            System.out.println("未找到任务");
         }
+        return taskCount;
     }
     
     /**
@@ -178,16 +878,55 @@ public class MarkdownTodosApp {
     private static void printHelp() {
         System.out.println("Markdown待办事项导入器");
         System.out.println("用法: java -jar mdtotodos.jar input.md [选项]");
+        System.out.println("      java -jar mdtotodos.jar <文件|目录|通配符|@清单文件>... [选项]");
         System.out.println();
         System.out.println("选项:");
-        System.out.println("  --platform <platform>  指定导出平台 (csv, json, apple, microsoft, google)");
-        System.out.println("  --output <file>        指定输出文件 (仅用于CSV和JSON导出)");
+        System.out.println("  --platform <platform>  指定导出平台 (csv, json, apple, microsoft, google)，多个平台以逗号分隔，解析一次后同时导出");
+        System.out.println("  --output <file>        指定输出文件 (仅用于CSV和JSON导出，批量模式下合并到该文件，多个平台时以逗号分隔)");
+        System.out.println("  --output-dir <dir>     批量模式下每个输入生成一个输出文件，按相对路径存放到该目录");
+        System.out.println("  --snapshot <file>      同时将解析结果保存为二进制任务快照 (.mdtb)，之后可直接作为输入");
+        System.out.println("  --jobs <n>             批量模式下同时转换的文件数 (默认为处理器数量)");
+        System.out.println("  --threads <n>          使用n个线程并行解析输入文件 (默认1)");
+        System.out.println("  --charset <name>       指定输入文件字符集 (默认为系统字符集，文件带BOM时以BOM为准)");
+        System.out.println("  --pipeline             导出到文件时解析和写出在不同线程中同时进行");
+        System.out.println("  --compact              使用紧凑的列式任务存储，降低大文件的内存占用");
+        System.out.println("  --cache <dir>          将解析结果缓存到该目录，未变化的文件不再重新解析");
+        System.out.println("  --cache-verify         按文件内容校验值而不是修改时间判断文件是否变化");
+        System.out.println("  --cache-max-mb <n>     缓存大小上限，超出时淘汰最久未使用的条目 (默认256)");
+        System.out.println("  --watch                处理完成后继续监视输入，文件变化时只重新处理变化的文件");
+        System.out.println("  --due-after <date>     只导出截止日期不早于该时间的任务 (yyyy-MM-dd 或 yyyy-MM-dd HH:mm)");
+        System.out.println("  --due-before <date>    只导出截止日期早于该时间的任务");
+        System.out.println("  --match <text>         只导出标题包含该文本的任务 (英文字母不区分大小写)");
+        System.out.println("  --stats                运行结束后打印行数、字节数和各阶段耗时统计，运行期间可通过JMX查看");
+        System.out.println("  --ms-list <name|id>    导出到Microsoft To Do的任务列表 (默认为默认列表)");
+        System.out.println("  --google-list <name|id> 导出到Google Tasks的任务列表 (默认为默认列表)");
+        System.out.println("  --concurrency <n>      导出到远程平台时最多同时发送的请求数 (Microsoft To Do默认4，Google Tasks默认5)");
+        System.out.println("  --journal <file>       导出到远程平台时记录同步状态，之后只发送新增、修改和删除的任务 (中断后重新运行只发送剩余的变化，同时导出到microsoft和google时分别写入 <file>.microsoft 和 <file>.google)");
         System.out.println("  --list                 仅列出任务，不导出");
         System.out.println("  --help                 显示此帮助信息");
         System.out.println();
+        System.out.println("环境变量:");
+        System.out.println("  MDTOTODOS_MS_TOKEN     导出到Microsoft To Do时使用的Microsoft Graph访问令牌 (需要Tasks.ReadWrite权限)");
+        System.out.println("  MDTOTODOS_MS_GRAPH_URL Microsoft Graph地址，可指向测试用的模拟服务器");
+        System.out.println("  MDTOTODOS_GOOGLE_TOKEN 导出到Google Tasks时使用的OAuth访问令牌 (需要tasks权限)");
+        System.out.println("  MDTOTODOS_GOOGLE_TASKS_URL Google Tasks API地址，可指向测试用的模拟服务器");
+        System.out.println();
         System.out.println("示例:");
         System.out.println("  java -jar mdtotodos.jar example.md --platform csv --output tasks.csv");
         System.out.println("  java -jar mdtotodos.jar example.md --platform apple");
         System.out.println("  java -jar mdtotodos.jar example.md --list");
+        System.out.println("  java -jar mdtotodos.jar example.md --platform microsoft --ms-list 工作");
+        System.out.println("  java -jar mdtotodos.jar large.md --platform google --journal large.journal");
+        System.out.println("  java -jar mdtotodos.jar example.md --platform csv,json,microsoft --output tasks.csv,tasks.json");
+        System.out.println("  java -jar mdtotodos.jar example.md --due-after 2024-11-01 --due-before 2024-12-01 --match 报告");
+        System.out.println("  java -jar mdtotodos.jar large.md --threads 8 --platform json --output tasks.json");
+        System.out.println("  java -jar mdtotodos.jar large.md --compact --threads 8 --output tasks.csv");
+        System.out.println("  java -jar mdtotodos.jar large.md --threads 8 --stats --output tasks.csv");
+        System.out.println("  java -jar mdtotodos.jar large.md --snapshot large.mdtb --output tasks.csv");
+        System.out.println("  java -jar mdtotodos.jar large.mdtb --platform json --output tasks.json");
+        System.out.println("  java -jar mdtotodos.jar notes/ --jobs 16 --platform json --output-dir out/");
+        System.out.println("  java -jar mdtotodos.jar \"notes/*.md\" @list.txt --output all.csv");
+        System.out.println("  java -jar mdtotodos.jar notes/ --cache .mdcache --output-dir out/");
+        System.out.println("  java -jar mdtotodos.jar notes/ --watch --platform json --output-dir out/");
     }
 } 
\ No newline at end of file
@@ -0,0 +1,330 @@
+package com.mdtotodos.controller;
+
+import com.mdtotodos.model.Task;
+import com.mdtotodos.model.TaskExporter.ExportPlatform;
+import com.mdtotodos.model.TaskSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量转换器，在线程池中并发转换多个Markdown文件
+ * 可以为每个输入生成一个输出文件，也可以将所有任务按输入顺序合并到一个输出文件中。
+ * 同时提交的文件数不超过并发数，单个文件失败不影响其他文件。
+ */
+public class BatchConverter {
+    // 合并模式下已解析但尚未写出的文件数相对并发数的倍数
+    private static final int MERGE_WINDOW_FACTOR = 2;
+    
+    private final TaskController controller;
+    private final ExecutorService executor;
+    private final int jobs;
+    
+    /**
+     * 创建批量转换器
+     * 
+     * @param controller 用于解析和导出单个文件的任务控制器
+     * @param executor 执行转换的线程池，由调用方负责关闭
+     * @param jobs 同时转换的最大文件数
+     */
+    public BatchConverter(TaskController controller, ExecutorService executor, int jobs) {
+        if (jobs < 1) {
+            throw new IllegalArgumentException("并发数必须大于0");
+        }
+        this.controller = controller;
+        this.executor = executor;
+        this.jobs = jobs;
+    }
+    
+    /**
+     * 创建批量转换使用的线程池
+     * 运行时支持虚拟线程时每个文件使用一个虚拟线程，否则使用固定大小的线程池。
+     * 
+     * @param jobs 同时转换的最大文件数
+     * @return 线程池
+     */
+    public static ExecutorService newExecutor(int jobs) {
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        if (virtualExecutor != null) {
+            return virtualExecutor;
+        }
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(jobs, runnable -> {
+            Thread thread = new Thread(runnable, "mdtotodos-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * 判断当前运行时是否支持虚拟线程
+     * 
+     * @return 如果支持则返回true
+     */
+    public static boolean isVirtualThreadAvailable() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+    
+    /**
+     * 通过反射创建虚拟线程执行器，以便在Java 8目标下编译
+     * 
+     * @return 执行器，运行时不支持虚拟线程时返回null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 将每个输入文件转换为一个输出文件
+     * 输出文件与输入文件同名，扩展名替换为导出格式的扩展名。
+     * 
+     * @param inputs 输入文件
+     * @param platform 导出平台（CSV或JSON）
+     * @param outputDir 输出目录，按输入的相对路径存放；为null时输出到输入文件所在目录
+     * @return 批量转换结果
+     * @throws IOException 如果转换被中断
+     * @throws IllegalArgumentException 如果多个输入对应同一个输出文件
+     */
+    public BatchResult convertEach(List<BatchInput> inputs, ExportPlatform platform, Path outputDir) throws IOException {
+        Map<BatchInput, Path> outputs = new LinkedHashMap<>();
+        Set<Path> seen = new HashSet<>();
+        for (BatchInput input : inputs) {
+            Path output = outputPath(input, platform, outputDir);
+            if (!seen.add(output.toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("多个输入文件对应同一个输出文件: " + output);
+            }
+            outputs.put(input, output);
+        }
+        
+        BatchResult result = new BatchResult();
+        Deque<Pending> window = new ArrayDeque<>();
+        try {
+            for (Map.Entry<BatchInput, Path> entry : outputs.entrySet()) {
+                if (window.size() >= jobs) {
+                    complete(window.poll(), result);
+                }
+                BatchInput input = entry.getKey();
+                Path output = entry.getValue();
+                window.add(new Pending(input, executor.submit(() -> {
+                    Path parent = output.toAbsolutePath().getParent();
+                    if (parent != null) {
+                        Files.createDirectories(parent);
+                    }
+                    long bytes = Files.size(input.getFile());
+                    int count = controller.convertTasks(input.getFile().toFile(), platform, output.toFile());
+                    return new FileOutcome(null, count, bytes);
+                })));
+            }
+            while (!window.isEmpty()) {
+                complete(window.poll(), result);
+            }
+        } finally {
+            cancelAll(window);
+        }
+        result.finish();
+        return result;
+    }
+    
+    /**
+     * 将所有输入文件中的任务按输入顺序合并导出到一个文件
+     * 文件并发解析，解析结果按输入顺序依次写出。
+     * 
+     * @param inputs 输入文件
+     * @param platform 导出平台（CSV或JSON）
+     * @param outputFile 输出文件
+     * @return 批量转换结果
+     * @throws IOException 如果写入输出文件出错或转换被中断
+     */
+    public BatchResult convertMerged(List<BatchInput> inputs, ExportPlatform platform, File outputFile) throws IOException {
+        BatchResult result = new BatchResult();
+        Deque<Pending> window = new ArrayDeque<>();
+        try (TaskSink sink = controller.createFileSink(platform, outputFile)) {
+            sink.open();
+            for (BatchInput input : inputs) {
+                if (window.size() >= jobs * MERGE_WINDOW_FACTOR) {
+                    write(complete(window.poll(), result), sink);
+                }
+                window.add(new Pending(input, executor.submit(() -> {
+                    long bytes = Files.size(input.getFile());
+                    List<Task> tasks = controller.readTasks(input.getFile().toFile());
+                    return new FileOutcome(tasks, tasks.size(), bytes);
+                })));
+            }
+            while (!window.isEmpty()) {
+                write(complete(window.poll(), result), sink);
+            }
+        } finally {
+            cancelAll(window);
+        }
+        result.finish();
+        return result;
+    }
+    
+    /**
+     * 等待一个文件转换完成并记录结果
+     * 
+     * @return 转换结果，失败时返回null
+     */
+    private FileOutcome complete(Pending pending, BatchResult result) throws IOException {
+        try {
+            FileOutcome outcome = pending.future.get();
+            result.recordSuccess(outcome);
+            return outcome;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+            result.recordFailure(pending.input.getFile(), message);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量转换被中断");
+        }
+    }
+    
+    private static void write(FileOutcome outcome, TaskSink sink) throws IOException {
+        if (outcome == null) {
+            return;
+        }
+        for (Task task : outcome.tasks) {
+            sink.accept(task);
+        }
+    }
+    
+    private static void cancelAll(Deque<Pending> window) {
+        for (Pending pending : window) {
+            pending.future.cancel(true);
+        }
+        window.clear();
+    }
+    
+    /**
+     * 计算输入文件对应的输出文件路径
+     */
+    private static Path outputPath(BatchInput input, ExportPlatform platform, Path outputDir) {
+        String name = input.getFile().getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String outputName = (dot > 0 ? name.substring(0, dot) : name)
+                + (platform == ExportPlatform.CSV ? ".csv" : ".json");
+        if (outputDir == null) {
+            return input.getFile().resolveSibling(outputName);
+        }
+        return outputDir.resolve(input.getRelativePath()).resolveSibling(outputName);
+    }
+    
+    /**
+     * 已提交的文件转换
+     */
+    private static final class Pending {
+        final BatchInput input;
+        final Future<FileOutcome> future;
+        
+        Pending(BatchInput input, Future<FileOutcome> future) {
+            this.input = input;
+            this.future = future;
+        }
+    }
+    
+    /**
+     * 单个文件的转换结果
+     */
+    private static final class FileOutcome {
+        final List<Task> tasks;
+        final int taskCount;
+        final long bytes;
+        
+        FileOutcome(List<Task> tasks, int taskCount, long bytes) {
+            this.tasks = tasks;
+            this.taskCount = taskCount;
+            this.bytes = bytes;
+        }
+    }
+    
+    /**
+     * 批量转换结果，包括处理的文件数、任务数、字节数、失败文件和耗时
+     */
+    public static final class BatchResult {
+        private final long startNanos = System.nanoTime();
+        private final Map<Path, String> failures = new LinkedHashMap<>();
+        private int fileCount;
+        private long taskCount;
+        private long byteCount;
+        private long elapsedNanos;
+        
+        void recordSuccess(FileOutcome outcome) {
+            fileCount++;
+            taskCount += outcome.taskCount;
+            byteCount += outcome.bytes;
+        }
+        
+        void recordFailure(Path file, String message) {
+            failures.put(file, message);
+        }
+        
+        void finish() {
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+        
+        /**
+         * @return 成功转换的文件数
+         */
+        public int getFileCount() {
+            return fileCount;
+        }
+        
+        /**
+         * @return 转换失败的文件及失败原因
+         */
+        public Map<Path, String> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+        
+        /**
+         * @return 导出的任务总数
+         */
+        public long getTaskCount() {
+            return taskCount;
+        }
+        
+        /**
+         * @return 成功转换的输入文件总字节数
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+        
+        /**
+         * @return 总耗时（纳秒）
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
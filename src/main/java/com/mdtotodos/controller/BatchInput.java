@@ -0,0 +1,236 @@
+package com.mdtotodos.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量模式的一个输入文件
+ * 输入可以是单个文件、目录（递归查找其中的Markdown文件）、通配符模式（如 notes/*.md）
+ * 或以 @ 开头的清单文件（每行一个上述输入，空行和 # 开头的行被忽略）。
+ */
+public final class BatchInput {
+    private final Path file;
+    private final Path relativePath;
+    
+    /**
+     * 创建输入文件
+     * 
+     * @param file 输入文件
+     * @param relativePath 相对于所在输入根目录的路径，用于生成输出文件路径
+     */
+    BatchInput(Path file, Path relativePath) {
+        this.file = file;
+        this.relativePath = relativePath;
+    }
+    
+    /**
+     * 获取输入文件
+     * 
+     * @return 输入文件路径
+     */
+    public Path getFile() {
+        return file;
+    }
+    
+    /**
+     * 获取相对于所在输入根目录的路径
+     * 
+     * @return 相对路径，单个文件时为文件名
+     */
+    public Path getRelativePath() {
+        return relativePath;
+    }
+    
+    /**
+     * 判断参数是否需要按批量模式处理，即目录、通配符模式或清单文件
+     * 
+     * @param spec 输入参数
+     * @return 如果需要按批量模式处理则返回true
+     */
+    public static boolean isBatchSpec(String spec) {
+        return spec.startsWith("@") || isGlob(spec) || Files.isDirectory(Paths.get(spec));
+    }
+    
+    /**
+     * 将输入参数展开为输入文件列表
+     * 每个参数展开的文件按路径排序，重复的文件只保留第一次出现的。
+     * 
+     * @param specs 输入参数
+     * @return 输入文件列表
+     * @throws IOException 如果参数指向的文件不存在或遍历目录出错
+     */
+    public static List<BatchInput> resolve(List<String> specs) throws IOException {
+        Map<Path, BatchInput> inputs = new LinkedHashMap<>();
+        for (String spec : specs) {
+            if (spec.startsWith("@")) {
+                for (String line : readManifest(Paths.get(spec.substring(1)))) {
+                    addAll(inputs, resolveSpec(line));
+                }
+            } else {
+                addAll(inputs, resolveSpec(spec));
+            }
+        }
+        return new ArrayList<>(inputs.values());
+    }
+    
+    /**
+     * 获取输入参数需要监视的文件和目录
+     * 文件参数监视该文件，目录参数监视该目录，通配符模式监视其不含通配符的前缀目录，
+     * 清单文件按其中每行的参数处理。
+     * 
+     * @param specs 输入参数
+     * @return 需要监视的文件和目录
+     * @throws IOException 如果读取清单文件出错
+     */
+    public static List<Path> watchRoots(List<String> specs) throws IOException {
+        List<Path> roots = new ArrayList<>();
+        for (String spec : specs) {
+            if (spec.startsWith("@")) {
+                roots.addAll(watchRoots(readManifest(Paths.get(spec.substring(1)))));
+            } else if (isGlob(spec)) {
+                roots.add(globBase(spec.replace('\\', '/')));
+            } else {
+                roots.add(Paths.get(spec));
+            }
+        }
+        return roots;
+    }
+    
+    /**
+     * 展开单个文件、目录或通配符模式
+     */
+    private static List<BatchInput> resolveSpec(String spec) throws IOException {
+        if (isGlob(spec)) {
+            return resolveGlob(spec);
+        }
+        
+        Path path = Paths.get(spec);
+        if (Files.isDirectory(path)) {
+            return walk(path, Integer.MAX_VALUE, null);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("找不到文件: " + spec);
+        }
+        List<BatchInput> single = new ArrayList<>(1);
+        single.add(new BatchInput(path, path.getFileName()));
+        return single;
+    }
+    
+    /**
+     * 展开通配符模式：从模式中不含通配符的前缀目录开始遍历，用剩余部分匹配相对路径
+     */
+    private static List<BatchInput> resolveGlob(String spec) throws IOException {
+        String normalized = spec.replace('\\', '/');
+        Path base = globBase(normalized);
+        String pattern = normalized.substring(globBaseEnd(normalized) + 1);
+        
+        if (!Files.isDirectory(base)) {
+            throw new IOException("找不到目录: " + base);
+        }
+        
+        // 模式中没有 ** 时只需遍历到模式的目录层数
+        int maxDepth = Integer.MAX_VALUE;
+        if (!pattern.contains("**")) {
+            maxDepth = 1;
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) == '/') {
+                    maxDepth++;
+                }
+            }
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return walk(base, maxDepth, matcher);
+    }
+    
+    /**
+     * 获取通配符模式中不含通配符的前缀目录
+     */
+    private static Path globBase(String normalized) {
+        int baseEnd = globBaseEnd(normalized);
+        return baseEnd < 0 ? Paths.get(".")
+                : Paths.get(baseEnd == 0 ? "/" : normalized.substring(0, baseEnd));
+    }
+    
+    /**
+     * 获取通配符模式中前缀目录之后的分隔符位置，没有前缀目录时返回-1
+     */
+    private static int globBaseEnd(String normalized) {
+        int firstGlob = 0;
+        while (firstGlob < normalized.length() && "*?[{".indexOf(normalized.charAt(firstGlob)) < 0) {
+            firstGlob++;
+        }
+        return normalized.lastIndexOf('/', firstGlob);
+    }
+    
+    /**
+     * 遍历目录，查找匹配的文件
+     * 
+     * @param root 根目录
+     * @param maxDepth 最大遍历深度
+     * @param matcher 相对路径匹配器，为null时查找所有Markdown文件
+     */
+    private static List<BatchInput> walk(Path root, int maxDepth, PathMatcher matcher) throws IOException {
+        try (Stream<Path> paths = Files.walk(root, maxDepth)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .map(path -> new BatchInput(path, root.relativize(path)))
+                    .filter(input -> matcher != null
+                            ? matcher.matches(input.relativePath)
+                            : isMarkdownFile(input.file))
+                    .sorted((a, b) -> a.relativePath.compareTo(b.relativePath))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * 读取清单文件中的输入参数
+     */
+    private static List<String> readManifest(Path manifest) throws IOException {
+        if (!Files.isRegularFile(manifest)) {
+            throw new IOException("找不到清单文件: " + manifest);
+        }
+        List<String> specs = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            String spec = line.trim();
+            if (!spec.isEmpty() && !spec.startsWith("#")) {
+                specs.add(spec);
+            }
+        }
+        return specs;
+    }
+    
+    private static void addAll(Map<Path, BatchInput> inputs, List<BatchInput> resolved) {
+        for (BatchInput input : resolved) {
+            inputs.putIfAbsent(input.file.toAbsolutePath().normalize(), input);
+        }
+    }
+    
+    private static boolean isGlob(String spec) {
+        for (int i = 0; i < spec.length(); i++) {
+            if ("*?[{".indexOf(spec.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isMarkdownFile(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".md") || name.endsWith(".markdown");
+    }
+}
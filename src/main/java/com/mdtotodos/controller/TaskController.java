@@ -1,21 +1,92 @@
 package com.mdtotodos.controller;
 
+import com.mdtotodos.model.BlockIndex;
+import com.mdtotodos.model.GoogleTasksExporter;
 import com.mdtotodos.model.MarkdownParser;
+import com.mdtotodos.model.MicrosoftToDoExporter;
+import com.mdtotodos.model.ParseCache;
+import com.mdtotodos.model.ParseFileEvent;
+import com.mdtotodos.model.RemoteExportResult;
 import com.mdtotodos.model.Task;
+import com.mdtotodos.model.TaskFilter;
+import com.mdtotodos.model.TaskEvents;
+import com.mdtotodos.model.TaskMetrics;
+import com.mdtotodos.model.TaskSink;
+import com.mdtotodos.model.TaskSnapshot;
+import com.mdtotodos.model.TaskStore;
+import com.mdtotodos.model.TaskTable;
 import com.mdtotodos.model.TaskExporter;
 import com.mdtotodos.model.TaskExporter.ExportPlatform;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 任务控制器，负责协调模型和视图之间的交互
  */
 public class TaskController {
+    /** 带进度加载时每批报告的任务数 */
+    public static final int PROGRESS_BATCH_SIZE = 1000;
+    
+    /**
+     * 长时间加载或导出的进度监听器
+     * 所有方法都在执行加载或导出的线程中调用。
+     */
+    public interface ProgressListener {
+        /**
+         * 报告进度，加载时按读取的字节数，导出时按写出的任务数
+         * 
+         * @param done 已完成的数量
+         * @param total 总数量
+         */
+        void progress(long done, long total);
+        
+        /**
+         * 加载时每解析出一批任务调用一次，任务按文件中的顺序报告
+         * 
+         * @param batch 新解析出的任务，调用方可以保留该列表
+         */
+        default void tasksLoaded(List<Task> batch) {
+        }
+        
+        /**
+         * 是否已请求取消，加载和导出过程中每个任务检查一次
+         * 
+         * @return 如果应停止返回true
+         */
+        boolean isCancelled();
+    }
+    
     private final MarkdownParser parser;
     private final TaskExporter exporter;
     private List<Task> currentTasks;
+    private TaskTable currentTable;
+    private File currentSource;
+    private int parseThreads = 1;
+    private boolean pipelined;
+    private ParseCache parseCache;
+    private boolean incremental;
+    private boolean compact;
+    private TaskMetrics metrics;
+    private RemoteExportResult lastRemoteResult;
+    private final Map<File, BlockIndex> blockIndexes = new ConcurrentHashMap<>();
     
     /**
      * 创建一个新的任务控制器
@@ -27,8 +98,9 @@ public class TaskController {
     
     /**
      * 加载并解析Markdown文件中的任务
+     * 扩展名为 .mdtb 的文件作为任务快照内存映射加载，不需要解析。
      * 
-     * @param file Markdown文件
+     * @param file Markdown文件或任务快照
      * @return 成功解析的任务数量
      * @throws IOException 如果读取文件出错
      */
@@ -37,10 +109,344 @@ public class TaskController {
             throw new IOException("文件不存在或无效");
         }
         
-        currentTasks = parser.parseTasks(file);
+        long start = System.nanoTime();
+        ParseFileEvent event = beginEvent();
+        if (TaskSnapshot.isSnapshotFile(file)) {
+            currentTable = openSnapshot(file);
+            currentTasks = currentTable.asList();
+        } else if (usesTaskStore()) {
+            currentTable = parser.parseTaskStore(file, parseThreads);
+            currentTasks = currentTable.asList();
+        } else {
+            currentTable = null;
+            currentTasks = parse(file);
+        }
+        currentSource = file;
+        record(TaskMetrics.Phase.LOAD, start);
+        finishEvent(event, file, usesTaskStore() ? "compact" : parseMode(file), currentTasks.size());
         return currentTasks.size();
     }
     
+    /**
+     * 加载并解析文件中的任务，同时报告进度，可以取消
+     * Markdown文件按行流式解析，按读取的字节数报告进度，每解析出 {@value #PROGRESS_BATCH_SIZE} 个任务报告一批；
+     * 任务快照以及使用缓存或增量解析时整体加载，再分批报告。此方式不使用多线程解析和列式任务存储。
+     * 取消时当前加载的任务列表保持不变。
+     * 
+     * @param file Markdown文件或任务快照
+     * @param listener 进度监听器
+     * @return 成功解析的任务数量
+     * @throws IOException 如果读取文件出错
+     * @throws CancellationException 如果加载被取消
+     */
+    public int loadTasks(File file, ProgressListener listener) throws IOException {
+        if (file == null || !file.exists()) {
+            throw new IOException("文件不存在或无效");
+        }
+        
+        long start = System.nanoTime();
+        ParseFileEvent event = beginEvent();
+        List<Task> tasks;
+        String mode;
+        if (TaskSnapshot.isSnapshotFile(file) || usesParseCache() || incremental) {
+            tasks = parse(file);
+            mode = parseMode(file);
+            for (int from = 0; from < tasks.size(); from += PROGRESS_BATCH_SIZE) {
+                checkCancelled(listener);
+                int to = Math.min(tasks.size(), from + PROGRESS_BATCH_SIZE);
+                listener.tasksLoaded(new ArrayList<>(tasks.subList(from, to)));
+            }
+            listener.progress(file.length(), file.length());
+        } else {
+            tasks = new ArrayList<>();
+            mode = "stream";
+            long total = file.length();
+            List<Task> batch = new ArrayList<>(PROGRESS_BATCH_SIZE);
+            try (Stream<Task> stream = parser.streamTasks(file, position -> listener.progress(position, total))) {
+                Iterator<Task> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    checkCancelled(listener);
+                    Task task = iterator.next();
+                    tasks.add(task);
+                    batch.add(task);
+                    if (batch.size() == PROGRESS_BATCH_SIZE) {
+                        listener.tasksLoaded(batch);
+                        batch = new ArrayList<>(PROGRESS_BATCH_SIZE);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!batch.isEmpty()) {
+                listener.tasksLoaded(batch);
+            }
+        }
+        
+        currentTable = null;
+        currentTasks = tasks;
+        currentSource = file;
+        record(TaskMetrics.Phase.LOAD, start);
+        finishEvent(event, file, mode, tasks.size());
+        return tasks.size();
+    }
+    
+    /**
+     * 解析Markdown文件中的任务，不修改当前加载的任务列表
+     * 可在多个线程中同时调用。
+     * 
+     * @param file Markdown文件
+     * @return 任务列表
+     * @throws IOException 如果读取文件出错
+     */
+    public List<Task> readTasks(File file) throws IOException {
+        if (file == null || !file.exists()) {
+            throw new IOException("文件不存在或无效");
+        }
+        
+        long start = System.nanoTime();
+        ParseFileEvent event = beginEvent();
+        List<Task> tasks = parse(file);
+        record(TaskMetrics.Phase.LOAD, start);
+        finishEvent(event, file, parseMode(file), tasks.size());
+        return tasks;
+    }
+    
+    /**
+     * 设置加载任务时使用的解析线程数
+     * 
+     * @param parseThreads 线程数，1表示单线程解析
+     */
+    public void setParseThreads(int parseThreads) {
+        if (parseThreads < 1) {
+            throw new IllegalArgumentException("线程数必须大于0");
+        }
+        this.parseThreads = parseThreads;
+    }
+    
+    /**
+     * 获取加载任务时使用的解析线程数
+     * 
+     * @return 线程数
+     */
+    public int getParseThreads() {
+        return parseThreads;
+    }
+    
+    /**
+     * 设置转换文件时是否使用流水线模式
+     * 流水线模式下解析和写出在不同线程中同时进行，通过有界队列传递任务批次。
+     * 
+     * @param pipelined 是否使用流水线模式
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+    
+    /**
+     * 转换文件时是否使用流水线模式
+     * 
+     * @return 如果使用流水线模式返回true
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+    
+    /**
+     * 设置解析结果缓存
+     * 设置后加载任务时先检查缓存，文件未变化时直接使用上次的解析结果。
+     * 
+     * @param parseCache 解析结果缓存，为null时不使用缓存
+     */
+    public void setParseCache(ParseCache parseCache) {
+        this.parseCache = parseCache;
+    }
+    
+    /**
+     * 获取解析结果缓存
+     * 
+     * @return 解析结果缓存，未设置时返回null
+     */
+    public ParseCache getParseCache() {
+        return parseCache;
+    }
+    
+    /**
+     * 设置是否增量解析
+     * 增量解析时为每个解析过的文件在内存中保留分块索引，再次加载同一文件时只重新解析变化的块。
+     * 适用于监视模式下反复加载的大文件；关闭时释放所有分块索引。
+     * 
+     * @param incremental 是否增量解析
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        if (!incremental) {
+            blockIndexes.clear();
+        }
+    }
+    
+    /**
+     * 是否增量解析
+     * 
+     * @return 如果增量解析返回true
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+    
+    /**
+     * 设置是否使用紧凑的列式任务存储
+     * 启用后加载和转换文件时任务保存在 {@link TaskStore} 中而不是任务对象列表中，
+     * 大文件的内存占用明显降低；设置了解析结果缓存或增量解析时不使用列式存储。
+     * 
+     * @param compact 是否使用列式任务存储
+     */
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+    
+    /**
+     * 是否使用紧凑的列式任务存储
+     * 
+     * @return 如果使用列式任务存储返回true
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+    
+    /**
+     * 设置记录解析和导出统计信息的对象
+     * 设置后解析器和导出器记录行数、字节数和各阶段耗时，控制器记录加载、导出和转换的总耗时。
+     * 
+     * @param metrics 统计信息，为null时不记录
+     */
+    public void setMetrics(TaskMetrics metrics) {
+        this.metrics = metrics;
+        parser.setMetrics(metrics);
+        exporter.setMetrics(metrics);
+    }
+    
+    /**
+     * 获取记录解析和导出统计信息的对象
+     * 
+     * @return 统计信息，没有设置时返回null
+     */
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * 设置导出到Microsoft To Do时使用的导出器
+     * 
+     * @param microsoftToDo 导出器，为null时从环境变量读取访问令牌创建
+     */
+    public void setMicrosoftToDo(MicrosoftToDoExporter microsoftToDo) {
+        exporter.setMicrosoftToDo(microsoftToDo);
+    }
+    
+    /**
+     * 设置导出到Google Tasks时使用的导出器
+     * 
+     * @param googleTasks 导出器，为null时从环境变量读取访问令牌创建
+     */
+    public void setGoogleTasks(GoogleTasksExporter googleTasks) {
+        exporter.setGoogleTasks(googleTasks);
+    }
+    
+    /**
+     * 获取最近一次导出到远程平台的结果
+     * 
+     * @return 导出结果，还没有导出到远程平台时返回null
+     */
+    public RemoteExportResult getLastRemoteResult() {
+        return lastRemoteResult;
+    }
+    
+    /**
+     * 获取文件最近一次增量解析的分块索引
+     * 
+     * @param file Markdown文件
+     * @return 分块索引，未增量解析过该文件时返回null
+     */
+    public BlockIndex getBlockIndex(File file) {
+        return blockIndexes.get(file.getAbsoluteFile());
+    }
+    
+    /**
+     * 设置读取Markdown文件时使用的字符集
+     * 
+     * @param charset 字符集，文件带有BOM时以BOM为准
+     */
+    public void setCharset(Charset charset) {
+        parser.setCharset(charset);
+        blockIndexes.clear();
+    }
+    
+    /**
+     * 获取读取Markdown文件时使用的字符集
+     * 
+     * @return 字符集
+     */
+    public Charset getCharset() {
+        return parser.getCharset();
+    }
+    
+    /**
+     * 设置加载任务时的过滤条件
+     * 过滤条件在解析时检查，不符合条件的任务不会被创建；任务快照在加载后按条件筛选。
+     * 设置了过滤条件时不使用解析结果缓存，缓存中保存的是完整的解析结果。
+     * 
+     * @param filter 过滤条件，为null时不过滤
+     */
+    public void setFilter(TaskFilter filter) {
+        parser.setFilter(filter);
+        blockIndexes.clear();
+    }
+    
+    /**
+     * 获取加载任务时的过滤条件
+     * 
+     * @return 过滤条件，没有设置时返回null
+     */
+    public TaskFilter getFilter() {
+        return parser.getFilter();
+    }
+    
+    /**
+     * 以流的方式逐个处理Markdown文件中的任务，不保存完整的任务列表
+     * 适用于超大文件，内存占用与文件大小无关；不会修改当前加载的任务列表。
+     * 
+     * @param file Markdown文件
+     * @param action 对每个解析出的任务执行的操作
+     * @return 处理的任务数量
+     * @throws IOException 如果读取文件出错
+     */
+    public int forEachTask(File file, Consumer<? super Task> action) throws IOException {
+        if (file == null || !file.exists()) {
+            throw new IOException("文件不存在或无效");
+        }
+        
+        ParseFileEvent event = beginEvent();
+        if (TaskSnapshot.isSnapshotFile(file)) {
+            List<Task> tasks = openSnapshot(file).asList();
+            tasks.forEach(action);
+            finishEvent(event, file, "snapshot", tasks.size());
+            return tasks.size();
+        }
+        
+        int count = 0;
+        try (Stream<Task> tasks = parser.streamTasks(file)) {
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finishEvent(event, file, "stream", count);
+        return count;
+    }
+    
     /**
      * 获取当前加载的任务列表
      * 
@@ -50,8 +456,34 @@ public class TaskController {
         return currentTasks;
     }
     
+    /**
+     * 获取当前加载的任务表
+     * 使用列式任务存储或任务快照加载时，可以直接按序号读取字段而不创建任务对象。
+     * 
+     * @return 任务表，以任务列表加载或尚未加载时返回null
+     */
+    public TaskTable getCurrentTable() {
+        return currentTable;
+    }
+    
+    /**
+     * 将当前加载的任务保存为任务快照
+     * 之后可以用快照代替Markdown文件作为输入，重新导出时不需要再次解析。
+     * 
+     * @param snapshotFile 快照文件，通常以 .mdtb 为扩展名
+     * @throws IOException 如果写入文件出错
+     */
+    public void saveSnapshot(File snapshotFile) throws IOException {
+        if (currentTasks == null) {
+            throw new IllegalStateException("没有可保存的任务");
+        }
+        
+        TaskSnapshot.write(currentTable != null ? currentTable : TaskStore.copyOf(currentTasks), snapshotFile);
+    }
+    
     /**
      * 导出任务到指定平台
+     * 导出到远程平台时以最近加载的文件作为任务的来源，导出器设置了同步状态日志时只发送该文件的变化。
      * 
      * @param platform 导出平台类型
      * @param outputFile 输出文件（仅用于CSV和JSON导出）
@@ -63,38 +495,396 @@ public class TaskController {
             throw new IllegalStateException("没有可导出的任务");
         }
         
+        long start = System.nanoTime();
+        RemoteExportResult result = export(platform, outputFile);
+        if (result != null) {
+            lastRemoteResult = result;
+        }
+        record(TaskMetrics.Phase.EXPORT, start);
+    }
+    
+    /**
+     * 将当前加载的任务同时导出到多个平台
+     * 任务只解析一次，各平台在各自的线程中并发读取同一个任务列表（只读，不复制），总耗时接近最慢的平台。
+     * 一个平台失败不影响其他平台，失败原因记录在该平台的结果中。
+     * 
+     * @param targets 导出平台及其输出文件（非文件导出为null），结果按该顺序返回
+     * @return 每个平台的导出结果
+     * @throws IOException 如果等待导出时被中断
+     * @throws IllegalArgumentException 如果多个平台输出到同一个文件
+     */
+    public List<TargetResult> exportTasks(Map<ExportPlatform, File> targets) throws IOException {
+        if (currentTasks == null || currentTasks.isEmpty()) {
+            throw new IllegalStateException("没有可导出的任务");
+        }
+        Set<File> seen = new HashSet<>();
+        for (File output : targets.values()) {
+            if (output != null && !seen.add(output.getAbsoluteFile().toPath().normalize().toFile())) {
+                throw new IllegalArgumentException("多个导出平台对应同一个输出文件: " + output);
+            }
+        }
+        
+        long start = System.nanoTime();
+        List<Future<TargetResult>> futures = new ArrayList<>(targets.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, targets.size()), runnable -> {
+            Thread thread = new Thread(runnable, "mdtotodos-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Map.Entry<ExportPlatform, File> target : targets.entrySet()) {
+                futures.add(executor.submit(() -> exportTarget(target.getKey(), target.getValue())));
+            }
+            List<TargetResult> results = new ArrayList<>(futures.size());
+            for (Future<TargetResult> future : futures) {
+                results.add(future.get());
+            }
+            record(TaskMetrics.Phase.EXPORT, start);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("导出被中断");
+        } catch (ExecutionException e) {
+            // exportTarget捕获了导出中的异常，只有Error会到达这里
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * 导出到一个平台并记录耗时和失败原因
+     */
+    private TargetResult exportTarget(ExportPlatform platform, File outputFile) {
+        long start = System.nanoTime();
+        try {
+            RemoteExportResult remote = export(platform, outputFile);
+            return new TargetResult(platform, outputFile, remote, null, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.toString();
+            return new TargetResult(platform, outputFile, null, message, System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 将当前加载的任务导出到一个平台，不修改控制器的状态，可在多个线程中同时调用
+     * 
+     * @return 远程导出的结果，导出到文件或Apple提醒事项时返回null
+     */
+    private RemoteExportResult export(ExportPlatform platform, File outputFile) throws IOException {
         switch (platform) {
             case CSV:
-                if (outputFile == null) {
-                    throw new IllegalArgumentException("导出CSV时必须指定输出文件");
-                }
-                exporter.exportToCSV(currentTasks, outputFile);
-                break;
-                
             case JSON:
-                if (outputFile == null) {
-                    throw new IllegalArgumentException("导出JSON时必须指定输出文件");
+                try (TaskSink sink = createFileSink(platform, outputFile)) {
+                    if (currentTable != null) {
+                        exporter.export(currentTable, sink);
+                    } else {
+                        exporter.export(currentTasks, sink);
+                    }
                 }
-                exporter.exportToJSON(currentTasks, outputFile);
-                break;
-                
+                return null;
+            
             case APPLE_REMINDERS:
                 exporter.exportToAppleReminders(currentTasks);
-                break;
-                
+                return null;
+            
             case MICROSOFT_TODO:
-                exporter.exportToMicrosoftToDo(currentTasks);
-                break;
-                
+                return exporter.exportToMicrosoftToDo(currentTasks, currentSource);
+            
             case GOOGLE_TASKS:
-                exporter.exportToGoogleTasks(currentTasks);
-                break;
-                
+                return exporter.exportToGoogleTasks(currentTasks, currentSource);
+            
             default:
                 throw new UnsupportedOperationException("不支持的导出平台");
         }
     }
     
+    /**
+     * 导出任务到指定平台，同时报告进度，可以取消
+     * CSV和JSON导出逐个写出任务并按写出的任务数报告进度，取消时删除未写完的输出文件；
+     * 其他平台按 {@link #exportTasks(ExportPlatform, File)} 导出，只在开始和结束时报告进度。
+     * 
+     * @param platform 导出平台类型
+     * @param outputFile 输出文件（仅用于CSV和JSON导出）
+     * @param listener 进度监听器
+     * @throws IOException 如果导出过程出错
+     * @throws UnsupportedOperationException 如果选择的平台功能尚未实现
+     * @throws CancellationException 如果导出被取消
+     */
+    public void exportTasks(ExportPlatform platform, File outputFile, ProgressListener listener) throws IOException {
+        if (currentTasks == null || currentTasks.isEmpty()) {
+            throw new IllegalStateException("没有可导出的任务");
+        }
+        
+        List<Task> tasks = currentTasks;
+        int total = tasks.size();
+        if (platform != ExportPlatform.CSV && platform != ExportPlatform.JSON) {
+            checkCancelled(listener);
+            listener.progress(0, total);
+            exportTasks(platform, outputFile);
+            listener.progress(total, total);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        // 创建接收器时才创建或清空输出文件，创建失败（如文件只读）时原有文件保持不变
+        boolean created = false;
+        boolean completed = false;
+        try {
+            try (TaskSink sink = createFileSink(platform, outputFile)) {
+                created = true;
+                sink.open();
+                for (int i = 0; i < total; i++) {
+                    checkCancelled(listener);
+                    sink.accept(tasks.get(i));
+                    if ((i + 1) % PROGRESS_BATCH_SIZE == 0) {
+                        listener.progress(i + 1, total);
+                    }
+                }
+            }
+            completed = true;
+        } finally {
+            if (created && !completed && outputFile != null) {
+                // 取消或写出失败时不保留不完整的导出文件
+                outputFile.delete();
+            }
+        }
+        listener.progress(total, total);
+        record(TaskMetrics.Phase.EXPORT, start);
+    }
+    
+    /**
+     * 以流的方式将Markdown文件直接转换为CSV或JSON文件
+     * 每个任务解析出来后立即写出，不保存完整的任务列表，内存占用与文件大小无关；
+     * 启用流水线模式时解析和写出在不同线程中重叠进行。设置了解析结果缓存或增量解析时改为整体加载任务列表，
+     * 文件未变化的部分不再解析；使用列式任务存储时整体解析到存储中后直接写出。不会修改当前加载的任务列表。
+     * 
+     * @param inputFile Markdown文件
+     * @param platform 导出平台（CSV或JSON）
+     * @param outputFile 输出文件
+     * @return 导出的任务数量
+     * @throws IOException 如果读取或写入文件出错
+     * @throws UnsupportedOperationException 如果平台不是基于文件的导出
+     */
+    public int convertTasks(File inputFile, ExportPlatform platform, File outputFile) throws IOException {
+        if (inputFile == null || !inputFile.exists()) {
+            throw new IOException("文件不存在或无效");
+        }
+        
+        long start = System.nanoTime();
+        ParseFileEvent event = beginEvent();
+        int count = convert(inputFile, platform, outputFile);
+        record(TaskMetrics.Phase.CONVERT, start);
+        finishEvent(event, inputFile, convertMode(inputFile), count);
+        return count;
+    }
+    
+    /**
+     * 按当前设置选择转换方式
+     * 
+     * @param inputFile Markdown文件或任务快照
+     * @param platform 导出平台（CSV或JSON）
+     * @param outputFile 输出文件
+     * @return 导出的任务数量
+     * @throws IOException 如果读取或写入文件出错
+     */
+    private int convert(File inputFile, ExportPlatform platform, File outputFile) throws IOException {
+        if (TaskSnapshot.isSnapshotFile(inputFile)) {
+            TaskTable snapshot = openSnapshot(inputFile);
+            try (TaskSink sink = createFileSink(platform, outputFile)) {
+                exporter.export(snapshot, sink);
+            }
+            return snapshot.size();
+        }
+        
+        if (usesParseCache() || incremental) {
+            // 使用缓存或增量解析时整体加载任务列表
+            List<Task> tasks = parse(inputFile);
+            try (TaskSink sink = createFileSink(platform, outputFile)) {
+                exporter.export(tasks, sink);
+            }
+            return tasks.size();
+        }
+        
+        if (usesTaskStore()) {
+            TaskStore store = parser.parseTaskStore(inputFile, parseThreads);
+            try (TaskSink sink = createFileSink(platform, outputFile)) {
+                exporter.export(store, sink);
+            }
+            return store.size();
+        }
+        
+        if (pipelined) {
+            try (TaskSink sink = createFileSink(platform, outputFile)) {
+                return new TaskPipeline().run(parser.streamTasks(inputFile), sink);
+            }
+        }
+        
+        int count = 0;
+        try (TaskSink sink = createFileSink(platform, outputFile);
+             Stream<Task> tasks = parser.streamTasks(inputFile)) {
+            sink.open();
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                count++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count;
+    }
+    
+    /**
+     * 解析文件，增量解析时复用上次的分块索引，设置了缓存时优先使用缓存的结果，任务快照直接映射加载
+     * 
+     * @param file Markdown文件
+     * @return 任务列表
+     * @throws IOException 如果读取文件出错
+     */
+    private List<Task> parse(File file) throws IOException {
+        if (TaskSnapshot.isSnapshotFile(file)) {
+            return openSnapshot(file).asList();
+        }
+        if (incremental) {
+            File key = file.getAbsoluteFile();
+            BlockIndex previous = blockIndexes.get(key);
+            BlockIndex index = previous != null ? previous.update() : BlockIndex.build(parser, key);
+            blockIndexes.put(key, index);
+            return index.getTasks();
+        }
+        if (!usesParseCache()) {
+            return compact ? parser.parseTaskStore(file, parseThreads).asList() : parser.parseTasks(file, parseThreads);
+        }
+        return parseCache.getOrLoad(file, parser.getCharset(), f -> parser.parseTasks(f, parseThreads));
+    }
+    
+    /**
+     * 记录从start开始到现在的阶段耗时，没有设置统计信息时忽略
+     */
+    private void record(TaskMetrics.Phase phase, long start) {
+        if (metrics != null) {
+            metrics.record(phase, System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 已请求取消时抛出异常
+     * 
+     * @throws CancellationException 如果已请求取消
+     */
+    private static void checkCancelled(ProgressListener listener) {
+        if (listener.isCancelled()) {
+            throw new CancellationException("已取消");
+        }
+    }
+    
+    /**
+     * 开始记录解析文件的JFR事件
+     * 
+     * @return 事件，运行环境不支持JFR时返回null
+     */
+    private static ParseFileEvent beginEvent() {
+        if (!TaskEvents.isAvailable()) {
+            return null;
+        }
+        ParseFileEvent event = new ParseFileEvent();
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * 结束解析文件的JFR事件，没有录制在进行时不会提交
+     * 
+     * @param event {@link #beginEvent()} 返回的事件，可以为null
+     * @param file 解析的文件
+     * @param mode 加载方式
+     * @param taskCount 得到的任务数
+     */
+    private void finishEvent(ParseFileEvent event, File file, String mode, int taskCount) {
+        if (event != null) {
+            event.finish(file, mode, taskCount, parseThreads);
+        }
+    }
+    
+    /**
+     * 描述 {@link #parse(File)} 采用的加载方式，与其中的判断顺序一致
+     */
+    private String parseMode(File file) {
+        if (TaskSnapshot.isSnapshotFile(file)) {
+            return "snapshot";
+        }
+        if (incremental) {
+            return "incremental";
+        }
+        if (usesParseCache()) {
+            return "cache";
+        }
+        return compact ? "compact" : "list";
+    }
+    
+    /**
+     * 描述 {@link #convert(File, ExportPlatform, File)} 采用的转换方式，与其中的判断顺序一致
+     */
+    private String convertMode(File file) {
+        if (TaskSnapshot.isSnapshotFile(file) || usesParseCache() || incremental || compact) {
+            return parseMode(file);
+        }
+        return pipelined ? "pipeline" : "stream";
+    }
+    
+    /**
+     * 加载和转换文件时是否直接解析到列式任务存储
+     */
+    private boolean usesTaskStore() {
+        return compact && !usesParseCache() && !incremental;
+    }
+    
+    /**
+     * 是否使用解析结果缓存，设置了过滤条件时不使用
+     */
+    private boolean usesParseCache() {
+        return parseCache != null && parser.getFilter() == null;
+    }
+    
+    /**
+     * 打开任务快照，设置了过滤条件时只保留符合条件的任务
+     * 
+     * @param file 快照文件
+     * @return 任务表
+     * @throws IOException 如果读取文件出错
+     */
+    private TaskTable openSnapshot(File file) throws IOException {
+        TaskSnapshot snapshot = TaskSnapshot.open(file);
+        TaskFilter filter = parser.getFilter();
+        if (filter == null) {
+            return snapshot;
+        }
+        
+        TaskStore filtered = new TaskStore();
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (filter.matchesDueDate(snapshot.getDueDate(i)) && filter.matchesTitle(snapshot.getTitle(i))) {
+                filtered.add(snapshot.getTitle(i), snapshot.getDescription(i), snapshot.getDueDate(i));
+            }
+        }
+        return filtered;
+    }
+    
+    /**
+     * 为CSV或JSON导出创建任务接收器
+     * 
+     * @param platform 导出平台
+     * @param outputFile 输出文件
+     * @return 尚未打开的任务接收器
+     * @throws IOException 如果创建文件出错
+     */
+    TaskSink createFileSink(ExportPlatform platform, File outputFile) throws IOException {
+        if (outputFile == null) {
+            throw new IllegalArgumentException("导出" + platform + "时必须指定输出文件");
+        }
+        return exporter.createSink(platform, outputFile);
+    }
+    
     /**
      * 检查当前系统是否支持特定的导出平台
      * 
@@ -110,4 +900,66 @@ public class TaskController {
         // CSV和JSON在所有平台上都支持
         return platform == ExportPlatform.CSV || platform == ExportPlatform.JSON;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 同时导出到多个平台时一个平台的结果
+     */
+    public static final class TargetResult {
+        private final ExportPlatform platform;
+        private final File output;
+        private final RemoteExportResult remoteResult;
+        private final String error;
+        private final long elapsedNanos;
+        
+        TargetResult(ExportPlatform platform, File output, RemoteExportResult remoteResult, String error,
+                     long elapsedNanos) {
+            this.platform = platform;
+            this.output = output;
+            this.remoteResult = remoteResult;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        /**
+         * @return 导出平台
+         */
+        public ExportPlatform getPlatform() {
+            return platform;
+        }
+        
+        /**
+         * @return 输出文件，非文件导出时为null
+         */
+        public File getOutput() {
+            return output;
+        }
+        
+        /**
+         * @return 远程导出的结果，导出到文件、Apple提醒事项或失败时为null
+         */
+        public RemoteExportResult getRemoteResult() {
+            return remoteResult;
+        }
+        
+        /**
+         * @return 失败原因，成功时为null
+         */
+        public String getError() {
+            return error;
+        }
+        
+        /**
+         * @return 是否导出成功
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+        
+        /**
+         * @return 该平台的导出耗时（纳秒）
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.mdtotodos.controller;
+
+import com.mdtotodos.model.Task;
+import com.mdtotodos.model.TaskSink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * 解析与导出流水线
+ * 解析阶段在独立线程中读取任务并按批放入有界队列，导出阶段在调用线程中从队列取出任务写入接收器。
+ * 队列满时解析阶段阻塞等待，使读文件和写文件可以同时进行而内存占用保持有界。
+ */
+class TaskPipeline {
+    // 每批任务数量
+    static final int DEFAULT_BATCH_SIZE = 1024;
+    
+    // 队列中最多缓存的批次数
+    static final int DEFAULT_QUEUE_CAPACITY = 16;
+    
+    // 解析阶段结束的标记
+    private static final List<Task> END_OF_TASKS = new ArrayList<>(0);
+    
+    private final int batchSize;
+    private final BlockingQueue<List<Task>> queue;
+    private final AtomicReference<Throwable> parseFailure = new AtomicReference<>();
+    private volatile boolean cancelled;
+    
+    /**
+     * 创建使用默认批次大小和队列容量的流水线
+     */
+    TaskPipeline() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+    
+    /**
+     * 创建流水线
+     * 
+     * @param batchSize 每批任务数量
+     * @param queueCapacity 队列中最多缓存的批次数
+     */
+    TaskPipeline(int batchSize, int queueCapacity) {
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+    
+    /**
+     * 运行流水线，直到所有任务都写入接收器
+     * 任务流在解析线程中消费并关闭；接收器在调用线程中打开和写入，但不会被关闭。
+     * 
+     * @param tasks 任务流，读取出错时抛出 {@link UncheckedIOException}
+     * @param sink 任务接收器
+     * @return 写入的任务数量
+     * @throws IOException 如果解析或写入出错
+     */
+    int run(Stream<Task> tasks, TaskSink sink) throws IOException {
+        Thread parserThread = new Thread(() -> parse(tasks), "mdtotodos-parser");
+        parserThread.setDaemon(true);
+        parserThread.start();
+        
+        int count = 0;
+        try {
+            sink.open();
+            List<Task> batch;
+            while ((batch = queue.take()) != END_OF_TASKS) {
+                for (Task task : batch) {
+                    sink.accept(task);
+                }
+                count += batch.size();
+            }
+            parserThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("导出被中断");
+        } finally {
+            if (parserThread.isAlive()) {
+                // 导出阶段失败，通知解析线程停止并释放队列空间
+                cancelled = true;
+                queue.clear();
+            }
+        }
+        
+        Throwable failure = parseFailure.get();
+        if (failure instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) failure).getCause();
+        }
+        if (failure != null) {
+            throw new IOException("解析失败: " + failure.getMessage(), failure);
+        }
+        return count;
+    }
+    
+    /**
+     * 解析阶段：读取任务并按批放入队列
+     * 
+     * @param tasks 任务流
+     */
+    private void parse(Stream<Task> tasks) {
+        try (Stream<Task> source = tasks) {
+            Iterator<Task> iterator = source.iterator();
+            List<Task> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext() && !cancelled) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize) {
+                    if (!put(batch)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(batch);
+            }
+        } catch (Throwable e) {
+            parseFailure.set(e);
+        } finally {
+            put(END_OF_TASKS);
+        }
+    }
+    
+    /**
+     * 将一批任务放入队列，队列满时等待
+     * 
+     * @param batch 任务批次
+     * @return 如果放入成功返回true，流水线已取消时返回false
+     */
+    private boolean put(List<Task> batch) {
+        try {
+            while (!cancelled) {
+                if (queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,279 @@
+package com.mdtotodos.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 文件监视器，基于 {@link WatchService} 监视Markdown文件和目录的变化
+ * 监视的文件被创建或修改、监视的目录（包括新建的子目录）中有文件被创建或修改时记录该文件，
+ * 在连续变化停止一段时间（防抖间隔）后将这段时间内变化的文件一次性通知监听器。
+ * 监听器在监视线程中调用，同一时间只有一次调用；监听器抛出的异常交给错误回调，监视继续进行。
+ */
+public class TaskWatcher implements Closeable {
+    /** 默认防抖间隔（毫秒） */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+    
+    /**
+     * 文件变化监听器
+     */
+    public interface ChangeListener {
+        /**
+         * 一批文件发生了变化
+         * 
+         * @param files 变化的文件，按路径排序，只包含仍然存在的普通文件
+         */
+        void filesChanged(List<Path> files);
+    }
+    
+    /**
+     * 文件变化监听器出错时的回调
+     */
+    public interface ErrorListener {
+        /**
+         * 文件变化监听器抛出了异常，监视继续进行
+         * 
+         * @param files 这次通知的文件
+         * @param error 监听器抛出的异常
+         */
+        void changeFailed(List<Path> files, RuntimeException error);
+    }
+    
+    private final WatchService watchService;
+    private final long debounceNanos;
+    private final ChangeListener listener;
+    private final ErrorListener errorListener;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Set<Path> watchedFiles = new HashSet<>();
+    private final Set<Path> watchedTrees = new HashSet<>();
+    private final Set<Path> pending = new TreeSet<>();
+    private Thread thread;
+    
+    /**
+     * 创建文件监视器并注册监视的文件和目录
+     * 
+     * @param roots 监视的文件或目录，目录会递归监视
+     * @param debounceMillis 防抖间隔（毫秒）
+     * @param listener 文件变化监听器
+     * @param errorListener 文件变化监听器出错时的回调，同样在监视线程中调用
+     * @throws IOException 如果注册监视出错
+     */
+    public TaskWatcher(Collection<Path> roots, long debounceMillis, ChangeListener listener,
+                       ErrorListener errorListener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.listener = listener;
+        this.errorListener = errorListener;
+        try {
+            for (Path root : roots) {
+                Path path = root.toAbsolutePath().normalize();
+                if (Files.isDirectory(path)) {
+                    watchedTrees.add(path);
+                    registerTree(path);
+                } else {
+                    watchedFiles.add(path);
+                    register(path.getParent());
+                }
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * 在后台线程中开始监视
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("监视器已启动");
+        }
+        thread = new Thread(this::run, "mdtotodos-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 等待监视结束，即监视器被关闭
+     * 
+     * @throws InterruptedException 如果等待被中断
+     */
+    public void join() throws InterruptedException {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+        }
+        if (current != null) {
+            current.join();
+        }
+    }
+    
+    /**
+     * 停止监视，尚未通知的变化会被丢弃
+     * 
+     * @throws IOException 如果关闭监视服务出错
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+    
+    /**
+     * 监视循环：有待通知的变化时最多等待到防抖截止时间，期间每收到新事件就推迟截止时间
+     */
+    private void run() {
+        long deadline = 0;
+        try {
+            while (true) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    key = remaining > 0 ? watchService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                }
+                
+                if (key == null) {
+                    notifyListener();
+                    continue;
+                }
+                
+                if (processEvents(key)) {
+                    deadline = System.nanoTime() + debounceNanos;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // 监视器已关闭
+        }
+    }
+    
+    /**
+     * 处理一个目录的事件，记录变化的文件
+     * 
+     * @return 如果有监视范围内的事件返回true
+     */
+    private boolean processEvents(WatchKey key) {
+        Path directory = directories.get(key);
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失，重新检查所有监视的文件
+                addAllWatched();
+                changed = true;
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+            
+            Path path = directory.resolve((Path) event.context());
+            if (Files.isDirectory(path)) {
+                if (isInTree(path)) {
+                    // 新建的子目录，注册监视并记录其中已有的文件
+                    try {
+                        registerTree(path);
+                        addFiles(path);
+                        changed = true;
+                    } catch (IOException ignored) {
+                        // 目录在处理前已被删除
+                    }
+                }
+            } else if (watchedFiles.contains(path) || isInTree(path)) {
+                pending.add(path);
+                changed = true;
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return changed;
+    }
+    
+    /**
+     * 将待通知的变化交给监听器
+     */
+    private void notifyListener() {
+        List<Path> files = new ArrayList<>(pending.size());
+        for (Path path : pending) {
+            if (Files.isRegularFile(path)) {
+                files.add(path);
+            }
+        }
+        pending.clear();
+        if (files.isEmpty()) {
+            return;
+        }
+        
+        List<Path> changed = Collections.unmodifiableList(files);
+        try {
+            listener.filesChanged(changed);
+        } catch (RuntimeException e) {
+            // 监听器出错不应停止监视，交给调用者报告
+            errorListener.changeFailed(changed, e);
+        }
+    }
+    
+    private void addAllWatched() {
+        pending.addAll(watchedFiles);
+        for (Path tree : watchedTrees) {
+            try {
+                addFiles(tree);
+            } catch (IOException ignored) {
+                // 目录已被删除
+            }
+        }
+    }
+    
+    private void addFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.filter(Files::isRegularFile).forEach(pending::add);
+        }
+    }
+    
+    private boolean isInTree(Path path) {
+        for (Path tree : watchedTrees) {
+            if (path.startsWith(tree)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+    
+    private void register(Path directory) throws IOException {
+        WatchKey key = directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        directories.put(key, directory);
+    }
+}
@@ -0,0 +1,105 @@
+package com.mdtotodos.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 远程导出时在途请求数的自适应上限
+ * 按加性增、乘性减调整：每个请求成功后上限增加 1/上限（约每轮增加1），
+ * 被服务器限流时上限减半，并在Retry-After指定的时间内暂停发出新请求。
+ * 同一暂停期间内的多次限流只减半一次，避免同时返回的多个限流响应把上限压到1。
+ */
+final class AdaptiveLimit {
+    private final int max;
+    private double limit;
+    private int inFlight;
+    private long pausedUntil;
+    private int throttleCount;
+    
+    /**
+     * 创建上限
+     * 
+     * @param initial 初始上限
+     * @param max 最大上限
+     */
+    AdaptiveLimit(int initial, int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("并发数必须大于0");
+        }
+        this.max = max;
+        this.limit = Math.max(1, Math.min(initial, max));
+        this.pausedUntil = System.nanoTime();
+    }
+    
+    /**
+     * 等待直到可以发出一个新请求
+     * 
+     * @throws InterruptedException 如果等待时被中断
+     */
+    synchronized void acquire() throws InterruptedException {
+        while (true) {
+            long wait = pausedUntil - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, wait);
+            } else if (inFlight >= (int) limit) {
+                wait();
+            } else {
+                inFlight++;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 请求成功完成，增加上限
+     */
+    synchronized void succeeded() {
+        inFlight--;
+        limit = Math.min(max, limit + 1 / limit);
+        notifyAll();
+    }
+    
+    /**
+     * 请求被限流，减小上限并暂停
+     * 
+     * @param retryAfterMillis 服务器要求的等待时间（毫秒）
+     */
+    synchronized void throttled(long retryAfterMillis) {
+        inFlight--;
+        throttleCount++;
+        long now = System.nanoTime();
+        if (now - pausedUntil >= 0) {
+            limit = Math.max(1, limit / 2);
+        }
+        long until = now + TimeUnit.MILLISECONDS.toNanos(Math.max(0, retryAfterMillis));
+        if (until - pausedUntil > 0) {
+            pausedUntil = until;
+        }
+        notifyAll();
+    }
+    
+    /**
+     * 请求结束但不影响上限，如网络错误或未实际发出的请求
+     */
+    synchronized void released() {
+        inFlight--;
+        notifyAll();
+    }
+    
+    /**
+     * 获取当前上限
+     * 
+     * @return 在途请求数上限
+     */
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+    
+    /**
+     * 获取被限流的次数
+     * 
+     * @return 限流次数
+     */
+    synchronized int getThrottleCount() {
+        return throttleCount;
+    }
+}
@@ -0,0 +1,336 @@
+package com.mdtotodos.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 文件的分块索引，用于大文件小改动后的增量重新解析
+ * 文件按内容切分为若干块，每块只包含完整的行，并记录块的长度、哈希值和解析出的任务。
+ * 切分点只取决于行的内容：哈希值满足条件的标题行之前、或哈希值满足条件的行之后（块达到最小长度时）。
+ * 标题密集的文件中也只有少数标题是切分候选，候选之间的距离通常超过最小长度，
+ * 因此文件中间插入或删除内容后切分点很快与原来重新对齐，只有附近的块改变，其余块的切分和哈希保持不变。
+ * 重新加载时仍需顺序读取并计算整个文件的哈希，但只有哈希变化的块会被重新解析，
+ * 解析开销与改动大小而不是文件大小成正比。
+ */
+public final class BlockIndex {
+    // 块的最小和最大字节数，最大值只在有换行符时生效
+    static final int MIN_BLOCK_SIZE = 16 << 10;
+    static final int MAX_BLOCK_SIZE = 1 << 20;
+    
+    // 行哈希的低位全为0时在该行之后切分，平均每1024行切分一次
+    private static final long CUT_MASK = (1 << 10) - 1;
+    
+    // 标题行的哈希满足该条件时在标题行之前切分，平均每32个标题切分一次
+    private static final long HEADING_CUT_MASK = (1 << 5) - 1;
+    
+    // 读取文件计算哈希时的缓冲区大小
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private final MarkdownParser parser;
+    private final File file;
+    private final List<Block> blocks;
+    private final int taskCount;
+    private final int reparsedBlocks;
+    
+    private BlockIndex(MarkdownParser parser, File file, List<Block> blocks, int reparsedBlocks) {
+        this.parser = parser;
+        this.file = file;
+        this.blocks = blocks;
+        this.reparsedBlocks = reparsedBlocks;
+        int count = 0;
+        for (Block block : blocks) {
+            count += block.tasks.size();
+        }
+        this.taskCount = count;
+    }
+    
+    /**
+     * 完整解析文件并建立分块索引
+     * 不能按字节扫描的字符集（如UTF-16）整个文件作为一个块。
+     * 
+     * @param parser 解析器
+     * @param file Markdown文件
+     * @return 分块索引
+     * @throws IOException 如果读取文件出错
+     */
+    public static BlockIndex build(MarkdownParser parser, File file) throws IOException {
+        return load(parser, file, Collections.<Long, Block>emptyMap());
+    }
+    
+    /**
+     * 重新读取文件，只重新解析哈希变化的块，其余块沿用本索引中的任务
+     * 解析器的字符集变化时所有块都会重新解析。
+     * 
+     * @return 新的分块索引，本索引保持不变
+     * @throws IOException 如果读取文件出错
+     */
+    public BlockIndex update() throws IOException {
+        Map<Long, Block> previous = new HashMap<>(blocks.size() * 2);
+        for (Block block : blocks) {
+            previous.put(block.hash, block);
+        }
+        return load(parser, file, previous);
+    }
+    
+    /**
+     * @return 索引对应的文件
+     */
+    public File getFile() {
+        return file;
+    }
+    
+    /**
+     * 获取所有任务，顺序与文件中一致
+     * 返回的列表是各块任务列表的只读视图，不会复制任务。
+     * 
+     * @return 任务列表
+     */
+    public List<Task> getTasks() {
+        return new TaskListView(blocks, taskCount);
+    }
+    
+    /**
+     * @return 块的数量
+     */
+    public int getBlockCount() {
+        return blocks.size();
+    }
+    
+    /**
+     * @return 建立本索引时重新解析的块数量
+     */
+    public int getReparsedBlockCount() {
+        return reparsedBlocks;
+    }
+    
+    /**
+     * 读取文件并切分，复用哈希相同的块，解析其余的块
+     */
+    private static BlockIndex load(MarkdownParser parser, File file, Map<Long, Block> previous) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MarkdownParser.Encoding encoding = parser.detectEncoding(channel);
+            long size = channel.size();
+            List<Block> blocks = new ArrayList<>();
+            int reparsed = 0;
+            
+            if (!ByteLine.supports(encoding.charset)) {
+                blocks.add(new Block(encoding.offset, size, 0, parser.parseTasks(file)));
+                return new BlockIndex(parser, file, blocks, 1);
+            }
+            
+            // 哈希中包含字符集，字符集变化时不会复用旧的块
+            long seed = FNV_OFFSET ^ encoding.charset.name().hashCode();
+            for (long[] range : split(channel, encoding.offset, size, seed)) {
+                long start = range[0];
+                long end = range[1];
+                long hash = range[2];
+                Block old = previous.get(hash);
+                if (old != null && old.end - old.start == end - start) {
+                    blocks.add(new Block(start, end, hash, old.tasks));
+                } else {
+                    blocks.add(new Block(start, end, hash, parseBlock(parser, file, channel, start, end, encoding)));
+                    reparsed++;
+                }
+            }
+            return new BlockIndex(parser, file, blocks, reparsed);
+        }
+    }
+    
+    /**
+     * 顺序读取文件，计算块边界和每块的哈希值
+     * 
+     * @return 每块的起始位置、结束位置和哈希值
+     */
+    private static List<long[]> split(FileChannel channel, long start, long size, long seed) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        
+        long blockStart = start;
+        long blockHash = seed;
+        long lineHash = FNV_OFFSET;
+        boolean lineStart = true;
+        // 当前行为标题行时的起始位置，否则为-1
+        long headingStart = -1;
+        long position = start;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                long offset = position + i;
+                if (lineStart) {
+                    lineStart = false;
+                    headingStart = b == '#' ? offset : -1;
+                }
+                lineHash = (lineHash ^ b) * FNV_PRIME;
+                if (b == '\n') {
+                    if (headingStart >= 0 && headingStart - blockStart >= MIN_BLOCK_SIZE
+                            && (mix(lineHash) & HEADING_CUT_MASK) == 0) {
+                        // 在标题行之前切分，使标题所在的章节从新块开始；是否切分由标题行自身的哈希决定，
+                        // 标题密集时也不会在最小长度后的每个标题处切分，否则切分点会沿着修改后的位置整体移动
+                        ranges.add(new long[] {blockStart, headingStart, blockHash});
+                        blockStart = headingStart;
+                        blockHash = seed;
+                    }
+                    blockHash = (blockHash ^ lineHash) * FNV_PRIME;
+                    long blockLength = offset + 1 - blockStart;
+                    if (blockLength >= MAX_BLOCK_SIZE
+                            || (blockLength >= MIN_BLOCK_SIZE && (mix(lineHash) & CUT_MASK) == 0)) {
+                        ranges.add(new long[] {blockStart, offset + 1, blockHash});
+                        blockStart = offset + 1;
+                        blockHash = seed;
+                    }
+                    lineHash = FNV_OFFSET;
+                    lineStart = true;
+                }
+            }
+            position += read;
+        }
+        
+        if (blockStart < size || ranges.isEmpty()) {
+            // 最后一行没有换行符时同样计入哈希
+            blockHash = (blockHash ^ lineHash) * FNV_PRIME;
+            ranges.add(new long[] {blockStart, size, blockHash});
+        }
+        return ranges;
+    }
+    
+    /**
+     * 解析一个块中的任务，支持JFR时记录分块解析事件
+     */
+    private static List<Task> parseBlock(MarkdownParser parser, File file, FileChannel channel, long start, long end,
+                                         MarkdownParser.Encoding encoding) throws IOException {
+        ChunkParsedEvent event = null;
+        if (TaskEvents.isAvailable()) {
+            event = new ChunkParsedEvent();
+            event.begin();
+        }
+        List<Task> tasks = new ArrayList<>();
+        try {
+            new MappedTaskIterator<>(parser, channel, start, end, encoding.charset, MarkdownParser.TASKS)
+                    .forEachRemaining(tasks::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (event != null) {
+            event.finish(file, start, end, tasks.size());
+        }
+        return tasks;
+    }
+    
+    /**
+     * 打散哈希值的低位，FNV的低位分布不够均匀
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+    
+    /**
+     * 文件中的一块
+     */
+    private static final class Block {
+        final long start;
+        final long end;
+        final long hash;
+        final List<Task> tasks;
+        
+        Block(long start, long end, long hash, List<Task> tasks) {
+            this.start = start;
+            this.end = end;
+            this.hash = hash;
+            this.tasks = tasks;
+        }
+    }
+    
+    /**
+     * 将各块的任务列表拼接为一个只读列表，按下标访问时二分查找所在的块
+     */
+    private static final class TaskListView extends AbstractList<Task> {
+        private final List<Block> blocks;
+        private final int[] firstIndex;
+        private final int size;
+        
+        TaskListView(List<Block> blocks, int size) {
+            this.blocks = blocks;
+            this.size = size;
+            this.firstIndex = new int[blocks.size()];
+            int index = 0;
+            for (int i = 0; i < blocks.size(); i++) {
+                firstIndex[i] = index;
+                index += blocks.get(i).tasks.size();
+            }
+        }
+        
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int low = 0;
+            int high = firstIndex.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (firstIndex[mid] <= index) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return blocks.get(low).tasks.get(index - firstIndex[low]);
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+        
+        /**
+         * 顺序遍历各块，不需要按下标查找
+         */
+        @Override
+        public Iterator<Task> iterator() {
+            return new Iterator<Task>() {
+                private int block;
+                private int offset;
+                
+                @Override
+                public boolean hasNext() {
+                    while (block < blocks.size() && offset >= blocks.get(block).tasks.size()) {
+                        block++;
+                        offset = 0;
+                    }
+                    return block < blocks.size();
+                }
+                
+                @Override
+                public Task next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return blocks.get(block).tasks.get(offset++);
+                }
+            };
+        }
+    }
+}
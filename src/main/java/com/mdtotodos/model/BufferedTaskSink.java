@@ -0,0 +1,197 @@
+package com.mdtotodos.model;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * 基于可重用字节缓冲区的任务接收器基类
+ * 负责输出的打开、缓冲和关闭，子类只需按格式写出文档头、任务和文档尾。
+ * 字段在转义的同时直接编码到缓冲区，缓冲区满时整块写出到通道，写出每个任务时不创建中间字符串。
+ */
+abstract class BufferedTaskSink implements TaskSink {
+    // 输出缓冲区大小（字节数）
+    private static final int BUFFER_SIZE = 1 << 18;
+    
+    private final DueDateCodec dateCodec = new DueDateCodec();
+    
+    private final WritableByteChannel channel;
+    private final Charset charset;
+    private EncodedOutput output;
+    private int taskCount;
+    private boolean closed;
+    private TaskMetrics metrics;
+    private String path;
+    
+    /**
+     * 创建任务接收器
+     * 
+     * @param out 输出流，关闭接收器时一并关闭
+     * @param charset 输出字符集
+     */
+    protected BufferedTaskSink(OutputStream out, Charset charset) {
+        // 文件输出流直接使用其通道，避免再经过一次流的复制
+        this(out instanceof FileOutputStream ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out),
+                charset);
+    }
+    
+    /**
+     * 创建任务接收器
+     * 
+     * @param channel 输出通道，关闭接收器时一并关闭
+     * @param charset 输出字符集
+     */
+    protected BufferedTaskSink(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.charset = charset;
+    }
+    
+    @Override
+    public final void open() throws IOException {
+        if (output != null || closed) {
+            throw new IllegalStateException("任务接收器已经打开");
+        }
+        output = new EncodedOutput(channel, charset, BUFFER_SIZE);
+        writeHeader(output);
+    }
+    
+    @Override
+    public final void accept(Task task) throws IOException {
+        if (output == null || closed) {
+            throw new IllegalStateException("任务接收器未打开");
+        }
+        String dueDate = task.hasDueDate() ? dateCodec.format(task.getDueDate()) : null;
+        write(task.getTitle(), task.getDescription(), dueDate);
+    }
+    
+    /**
+     * 直接从任务表中逐个写出任务，不创建任务对象
+     */
+    @Override
+    public final void acceptAll(TaskTable tasks) throws IOException {
+        if (output == null || closed) {
+            throw new IllegalStateException("任务接收器未打开");
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            long epochSecond = tasks.getDueEpochSecond(i);
+            String dueDate = epochSecond != TaskTable.NO_DUE_DATE ? dateCodec.formatEpochSecond(epochSecond) : null;
+            write(tasks.getTitle(i), tasks.getDescription(i), dueDate);
+        }
+    }
+    
+    /**
+     * 写出一个任务，记录统计信息时按抽样间隔计时
+     */
+    private void write(String title, String description, String dueDate) throws IOException {
+        if (metrics != null && taskCount % TaskMetrics.SAMPLE_INTERVAL == 0) {
+            long start = System.nanoTime();
+            writeTask(output, title, description, dueDate, taskCount++);
+            metrics.record(TaskMetrics.Phase.SERIALIZE, System.nanoTime() - start);
+        } else {
+            writeTask(output, title, description, dueDate, taskCount++);
+        }
+    }
+    
+    @Override
+    public final void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        
+        if (output == null) {
+            channel.close();
+            return;
+        }
+        long start = System.nanoTime();
+        ExportFlushEvent event = null;
+        if (TaskEvents.isAvailable()) {
+            event = new ExportFlushEvent();
+            event.begin();
+        }
+        try {
+            writeFooter(output, taskCount);
+            output.finish();
+        } finally {
+            channel.close();
+            if (metrics != null) {
+                metrics.record(TaskMetrics.Phase.FLUSH, System.nanoTime() - start);
+                metrics.addWritten(output.getWritten(), taskCount);
+            }
+            if (event != null) {
+                event.finish(path, getFormatName(), output.getWritten(), taskCount);
+            }
+        }
+    }
+    
+    /**
+     * 设置记录导出统计信息的对象，必须在打开接收器之前设置
+     * 设置后记录写出的字节数和任务数、序列化耗时（抽样）以及关闭时刷新输出的耗时。
+     * 
+     * @param metrics 统计信息，为null时不记录
+     */
+    void setMetrics(TaskMetrics metrics) {
+        if (output != null) {
+            throw new IllegalStateException("任务接收器已经打开");
+        }
+        this.metrics = metrics;
+    }
+    
+    /**
+     * 设置输出文件的路径，只用于JFR事件中标识导出文件
+     * 
+     * @param path 文件路径
+     */
+    void setPath(String path) {
+        this.path = path;
+    }
+    
+    /**
+     * 获取已导出的任务数量
+     * 
+     * @return 任务数量
+     */
+    public int getTaskCount() {
+        return taskCount;
+    }
+    
+    /**
+     * 获取导出格式的名称
+     * 
+     * @return 格式名称，如CSV
+     */
+    protected abstract String getFormatName();
+    
+    /**
+     * 写出文档头
+     * 
+     * @param output 输出
+     * @throws IOException 如果写入出错
+     */
+    protected abstract void writeHeader(EncodedOutput output) throws IOException;
+    
+    /**
+     * 写出一个任务
+     * 
+     * @param output 输出
+     * @param title 任务标题
+     * @param description 任务描述，没有描述时为空字符串
+     * @param dueDate 按导出格式格式化的截止日期，没有截止日期时为null
+     * @param index 任务序号，从0开始
+     * @throws IOException 如果写入出错
+     */
+    protected abstract void writeTask(EncodedOutput output, String title, String description, String dueDate, int index)
+            throws IOException;
+    
+    /**
+     * 写出文档尾
+     * 
+     * @param output 输出
+     * @param taskCount 已写出的任务数量
+     * @throws IOException 如果写入出错
+     */
+    protected abstract void writeFooter(EncodedOutput output, int taskCount) throws IOException;
+}
@@ -0,0 +1,178 @@
+package com.mdtotodos.model;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字节行视图，让解析器直接在兼容ASCII编码的原始字节上扫描
+ * ASCII字节按原值访问，其他字节映射为不影响解析的占位字符（ISO-8859-1按原值映射），
+ * 只有最终进入任务的标题和描述片段才会被解码为字符串。
+ * 索引均为字节偏移，由于解析器关心的标记都是ASCII字符，字节偏移可直接用于切分。
+ */
+final class ByteLine implements CharSequence {
+    private static final char NON_ASCII = '\uFFFD';
+    
+    private final Charset charset;
+    private final boolean latin1;
+    private byte[] bytes;
+    private int offset;
+    private int length;
+    
+    /**
+     * 创建字节行视图
+     * 
+     * @param charset 字节所用的字符集，必须满足 {@link #supports(Charset)}
+     */
+    ByteLine(Charset charset) {
+        this.charset = charset;
+        this.latin1 = StandardCharsets.ISO_8859_1.equals(charset);
+    }
+    
+    /**
+     * 判断字符集是否可以在字节层面扫描
+     * 这些字符集中ASCII字节只表示ASCII字符，不会出现在多字节字符内部。
+     * 
+     * @param charset 字符集
+     * @return 如果可以在字节层面扫描则返回true
+     */
+    static boolean supports(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+    
+    /**
+     * 指向字节数组中的一行
+     * 
+     * @param bytes 字节数组
+     * @param offset 行起始位置
+     * @param length 行的字节数（不含行终止符）
+     */
+    void reset(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+    
+    /**
+     * 判断当前行是否包含UTF-8编码的Unicode行终止符（U+0085、U+2028、U+2029）
+     * 这些字符在字节视图中不可见，包含它们的行需要按字符串解析。
+     * 
+     * @return 如果包含则返回true
+     */
+    boolean containsUnicodeLineTerminator() {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            return false;
+        }
+        int end = offset + length;
+        for (int i = offset; i + 1 < end; i++) {
+            byte b = bytes[i];
+            if (b == (byte) 0xC2 && bytes[i + 1] == (byte) 0x85) {
+                return true;
+            }
+            if (b == (byte) 0xE2 && i + 2 < end && bytes[i + 1] == (byte) 0x80) {
+                byte last = bytes[i + 2];
+                if (last == (byte) 0xA8 || last == (byte) 0xA9) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 判断片段的原始字节是否就是其UTF-8编码
+     * UTF-8字节总是如此，其他字符集只有纯ASCII的片段才是。
+     * 
+     * @param start 起始位置
+     * @param end 结束位置（不含）
+     * @return 如果可以按原始字节复制为UTF-8则返回true
+     */
+    boolean isUtf8Compatible(int start, int end) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        for (int i = offset + start; i < offset + end; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 获取字节所用的字符集
+     * 
+     * @return 字符集
+     */
+    Charset charset() {
+        return charset;
+    }
+    
+    /**
+     * 在片段的原始字节中查找字节序列，英文字母不区分大小写
+     * 
+     * @param pattern 要查找的字节序列，其中的英文字母必须为小写
+     * @param start 起始位置
+     * @param end 结束位置（不含）
+     * @return 第一次出现的位置，没有找到时返回-1
+     */
+    int indexOfIgnoreAsciiCase(byte[] pattern, int start, int end) {
+        int last = offset + end - pattern.length;
+        for (int i = offset + start; i <= last; i++) {
+            int j = 0;
+            while (j < pattern.length && toLowerAscii(bytes[i + j]) == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i - offset;
+            }
+        }
+        return -1;
+    }
+    
+    private static byte toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+    
+    /**
+     * 复制片段的原始字节
+     * 
+     * @param start 起始位置
+     * @param end 结束位置（不含）
+     * @param dest 目标数组
+     * @param destPos 目标起始位置
+     */
+    void copyBytes(int start, int end, byte[] dest, int destPos) {
+        System.arraycopy(bytes, offset + start, dest, destPos, end - start);
+    }
+    
+    @Override
+    public int length() {
+        return length;
+    }
+    
+    @Override
+    public char charAt(int index) {
+        byte b = bytes[offset + index];
+        if (b >= 0) {
+            return (char) b;
+        }
+        return latin1 ? (char) (b & 0xFF) : NON_ASCII;
+    }
+    
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        ByteLine view = new ByteLine(charset);
+        view.reset(bytes, offset + start, end - start);
+        return view;
+    }
+    
+    /**
+     * 将整行解码为字符串
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, charset);
+    }
+}
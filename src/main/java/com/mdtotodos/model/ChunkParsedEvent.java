@@ -0,0 +1,54 @@
+package com.mdtotodos.model;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 解析文件中一个分块的JFR事件，用于并行解析的分块和增量解析重新解析的块
+ * 只能在 {@link TaskEvents#isAvailable()} 返回true时创建。
+ */
+@Name("com.mdtotodos.ChunkParsed")
+@Label("解析分块")
+@Description("解析文件中按换行符切分的一个分块")
+@Category(TaskEvents.CATEGORY)
+@StackTrace(false)
+final class ChunkParsedEvent extends Event {
+    @Label("文件")
+    String path;
+    
+    @Label("起始位置")
+    long offset;
+    
+    @Label("分块大小")
+    @DataAmount
+    long bytes;
+    
+    @Label("任务数")
+    int tasks;
+    
+    /**
+     * 结束计时，有录制在进行时填写字段并提交事件
+     * 
+     * @param file 分块所在的文件
+     * @param start 分块起始位置
+     * @param end 分块结束位置（不含）
+     * @param taskCount 分块中的任务数
+     */
+    void finish(File file, long start, long end, int taskCount) {
+        end();
+        if (shouldCommit()) {
+            this.path = file.getPath();
+            this.offset = start;
+            this.bytes = end - start;
+            this.tasks = taskCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mdtotodos.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * CSV格式的任务接收器
+ * 输出列为 title,description,due_date，所有字段都加引号，字段中的引号双写转义。
+ */
+public class CsvTaskSink extends BufferedTaskSink {
+    
+    /**
+     * 创建使用平台默认字符集的CSV接收器
+     * 
+     * @param out 输出流
+     */
+    public CsvTaskSink(OutputStream out) {
+        this(out, Charset.defaultCharset());
+    }
+    
+    /**
+     * 创建CSV接收器
+     * 
+     * @param out 输出流
+     * @param charset 输出字符集
+     */
+    public CsvTaskSink(OutputStream out, Charset charset) {
+        super(out, charset);
+    }
+    
+    /**
+     * 创建写入通道的CSV接收器
+     * 
+     * @param channel 输出通道
+     * @param charset 输出字符集
+     */
+    public CsvTaskSink(WritableByteChannel channel, Charset charset) {
+        super(channel, charset);
+    }
+    
+    @Override
+    protected String getFormatName() {
+        return "CSV";
+    }
+    
+    @Override
+    protected void writeHeader(EncodedOutput output) throws IOException {
+        output.write("title,description,due_date\n");
+    }
+    
+    @Override
+    protected void writeTask(EncodedOutput output, String title, String description, String dueDate, int index)
+            throws IOException {
+        // 标题（处理逗号）
+        writeQuoted(output, title);
+        output.write(',');
+        
+        // 描述（处理逗号）
+        writeQuoted(output, description);
+        output.write(',');
+        
+        // 截止日期
+        if (dueDate != null) {
+            writeQuoted(output, dueDate);
+        } else {
+            output.write("\"\"");
+        }
+        
+        output.write('\n');
+    }
+    
+    @Override
+    protected void writeFooter(EncodedOutput output, int taskCount) {
+        // CSV没有文档尾
+    }
+    
+    /**
+     * 写出加引号的字段，一次扫描中把引号双写
+     * 
+     * @param output 输出
+     * @param value 字段值
+     * @throws IOException 如果写入出错
+     */
+    private static void writeQuoted(EncodedOutput output, String value) throws IOException {
+        output.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                // 写出到引号为止，引号留在下一段的开头，从而写出两次
+                output.write(value, start, i + 1);
+                start = i;
+            }
+        }
+        output.write(value, start, value.length());
+        output.write('"');
+    }
+}
@@ -0,0 +1,289 @@
+package com.mdtotodos.model;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 截止日期编解码器
+ * 负责解析Markdown中的 YYYY/MM/DD-HHam/pm 格式，以及格式化导出用的 yyyy-MM-dd HH:mm:ss 格式。
+ * 实际文件中同一截止日期会反复出现，因此解析和格式化结果都保存在有界缓存中。
+ * 缓存为直接映射表，新条目覆盖同一槽位的旧条目；条目不可变，可在多线程间安全共享。
+ */
+public class DueDateCodec {
+    /** 导出格式 */
+    public static final String EXPORT_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    
+    /** 日期文本的最短和最长长度，如 2024/1/2-3pm 和 2024/11/22-10am */
+    public static final int MIN_LENGTH = 12;
+    public static final int MAX_LENGTH = 15;
+    
+    private static final DateTimeFormatter EXPORT_FORMATTER = DateTimeFormatter.ofPattern(EXPORT_PATTERN);
+    
+    /** 默认缓存槽位数 */
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    
+    private final ParsedEntry[] parseCache;
+    private final FormattedEntry[] formatCache;
+    private final EpochFormattedEntry[] epochFormatCache;
+    
+    /**
+     * 创建使用默认缓存大小的编解码器
+     */
+    public DueDateCodec() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+    
+    /**
+     * 创建编解码器
+     * 
+     * @param cacheSize 每个缓存的槽位数，会向上取整为2的幂
+     */
+    public DueDateCodec(int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("缓存大小必须为正数");
+        }
+        int size = Integer.highestOneBit(cacheSize - 1) << 1;
+        if (size <= 0) {
+            size = 1;
+        }
+        this.parseCache = new ParsedEntry[size];
+        this.formatCache = new FormattedEntry[size];
+        this.epochFormatCache = new EpochFormattedEntry[size];
+    }
+    
+    /**
+     * 尝试在指定位置匹配日期格式 YYYY/MM/DD-HHam/pm
+     * 
+     * @param text 文本
+     * @param start 起始位置
+     * @param end 可匹配范围的结束位置（不含）
+     * @return 日期结束位置（不含），不匹配时返回-1
+     */
+    public int match(CharSequence text, int start, int end) {
+        int pos = start;
+        for (int i = 0; i < 4; i++, pos++) {
+            if (pos >= end || !isDigit(text.charAt(pos))) {
+                return -1;
+            }
+        }
+        pos = expect(text, pos, end, '/');
+        pos = skipShortNumber(text, pos, end);
+        pos = expect(text, pos, end, '/');
+        pos = skipShortNumber(text, pos, end);
+        pos = expect(text, pos, end, '-');
+        pos = skipShortNumber(text, pos, end);
+        if (pos < 0 || pos + 2 > end || text.charAt(pos + 1) != 'm') {
+            return -1;
+        }
+        char marker = text.charAt(pos);
+        return marker == 'a' || marker == 'p' ? pos + 2 : -1;
+    }
+    
+    /**
+     * 解析日期字符串
+     * 
+     * @param dateStr 日期字符串，格式: YYYY/MM/DD-HHam/pm
+     * @return 解析出的日期时间，如果格式不符或日期无效则返回null
+     */
+    public LocalDateTime parse(String dateStr) {
+        if (dateStr == null || match(dateStr, 0, dateStr.length()) != dateStr.length()) {
+            return null;
+        }
+        return parse(dateStr, 0, dateStr.length());
+    }
+    
+    /**
+     * 解析已通过 {@link #match} 匹配的日期文本
+     * 
+     * @param text 文本
+     * @param start 日期起始位置
+     * @param end 日期结束位置（不含）
+     * @return 解析出的日期时间，如果日期无效则返回null
+     */
+    public LocalDateTime parse(CharSequence text, int start, int end) {
+        int monthEnd = skipShortNumber(text, start + 5, end);
+        int dayEnd = skipShortNumber(text, monthEnd + 1, end);
+        int hourEnd = skipShortNumber(text, dayEnd + 1, end);
+        
+        int year = toInt(text, start, start + 4);
+        int month = toInt(text, start + 5, monthEnd);
+        int day = toInt(text, monthEnd + 1, dayEnd);
+        int hour = toInt(text, dayEnd + 1, hourEnd);
+        boolean pm = text.charAt(end - 2) == 'p';
+        
+        // 处理12小时制
+        if (pm && hour < 12) {
+            hour += 12;
+        } else if (!pm && hour == 12) {
+            hour = 0;
+        }
+        
+        long key = ((long) year << 21) | (month << 14) | (day << 7) | hour;
+        int slot = slot(Long.hashCode(key), parseCache.length);
+        ParsedEntry entry = parseCache[slot];
+        if (entry != null && entry.key == key) {
+            return entry.value;
+        }
+        
+        LocalDateTime value;
+        try {
+            value = LocalDateTime.of(year, month, day, hour, 0);
+        } catch (DateTimeException e) {
+            // 日期超出范围，无效结果同样缓存
+            value = null;
+        }
+        parseCache[slot] = new ParsedEntry(key, value);
+        return value;
+    }
+    
+    /**
+     * 将日期时间格式化为导出格式 yyyy-MM-dd HH:mm:ss
+     * 
+     * @param dateTime 日期时间
+     * @return 格式化后的字符串
+     */
+    public String format(LocalDateTime dateTime) {
+        int slot = slot(dateTime.hashCode(), formatCache.length);
+        FormattedEntry entry = formatCache[slot];
+        if (entry != null && entry.key.equals(dateTime)) {
+            return entry.value;
+        }
+        
+        String value = formatUncached(dateTime);
+        formatCache[slot] = new FormattedEntry(dateTime, value);
+        return value;
+    }
+    
+    /**
+     * 将UTC纪元秒表示的日期时间格式化为导出格式 yyyy-MM-dd HH:mm:ss
+     * 缓存命中时不创建任何对象，供 {@link TaskTable} 导出使用。
+     * 
+     * @param epochSecond UTC纪元秒
+     * @return 格式化后的字符串
+     */
+    public String formatEpochSecond(long epochSecond) {
+        int slot = slot(Long.hashCode(epochSecond), epochFormatCache.length);
+        EpochFormattedEntry entry = epochFormatCache[slot];
+        if (entry != null && entry.key == epochSecond) {
+            return entry.value;
+        }
+        
+        String value = formatUncached(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+        epochFormatCache[slot] = new EpochFormattedEntry(epochSecond, value);
+        return value;
+    }
+    
+    /**
+     * 不经缓存直接格式化，四位年份以外的情况交给 {@link DateTimeFormatter}
+     */
+    private static String formatUncached(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            return dateTime.format(EXPORT_FORMATTER);
+        }
+        
+        char[] chars = new char[EXPORT_PATTERN.length()];
+        writeDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, dateTime.getMonthValue(), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, dateTime.getDayOfMonth(), 2);
+        chars[10] = ' ';
+        writeDigits(chars, 11, dateTime.getHour(), 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, dateTime.getMinute(), 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, dateTime.getSecond(), 2);
+        return new String(chars);
+    }
+    
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+    
+    private static int slot(int hash, int length) {
+        hash ^= hash >>> 16;
+        return (hash * 0x9E3779B9) >>> 16 & (length - 1);
+    }
+    
+    /**
+     * 匹配一个指定字符
+     * 
+     * @return 匹配后的位置，不匹配时返回-1
+     */
+    private static int expect(CharSequence text, int pos, int end, char expected) {
+        return pos >= 0 && pos < end && text.charAt(pos) == expected ? pos + 1 : -1;
+    }
+    
+    /**
+     * 匹配一到两位数字
+     * 
+     * @return 匹配后的位置，不匹配时返回-1
+     */
+    private static int skipShortNumber(CharSequence text, int pos, int end) {
+        if (pos < 0 || pos >= end || !isDigit(text.charAt(pos))) {
+            return -1;
+        }
+        pos++;
+        return pos < end && isDigit(text.charAt(pos)) ? pos + 1 : pos;
+    }
+    
+    /**
+     * 将一段ASCII数字转换为整数
+     */
+    private static int toInt(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    /**
+     * 解析缓存条目，value为null表示该日期无效
+     */
+    private static final class ParsedEntry {
+        final long key;
+        final LocalDateTime value;
+        
+        ParsedEntry(long key, LocalDateTime value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+    
+    /**
+     * 格式化缓存条目
+     */
+    private static final class FormattedEntry {
+        final LocalDateTime key;
+        final String value;
+        
+        FormattedEntry(LocalDateTime key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+    
+    /**
+     * 以纪元秒为键的格式化缓存条目
+     */
+    private static final class EpochFormattedEntry {
+        final long key;
+        final String value;
+        
+        EpochFormattedEntry(long key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
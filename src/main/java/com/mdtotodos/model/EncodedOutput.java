@@ -0,0 +1,208 @@
+package com.mdtotodos.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把文本编码到可重用的字节缓冲区，缓冲区满时整块写出到通道
+ * UTF-8逐字符直接编码到缓冲区的数组中，不创建中间的字符串或字节数组；
+ * 其他字符集使用可重用的编码器。不成对的代理字符和无法编码的字符与 OutputStreamWriter 一样替换为替代字节，
+ * 因此输出与按字符流写出时相同。
+ */
+final class EncodedOutput {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final boolean utf8;
+    // UTF-8以外的字符集才使用编码器
+    private final CharsetEncoder encoder;
+    private final CharBuffer single;
+    private int position;
+    private long written;
+    
+    /**
+     * 创建输出
+     * 
+     * @param channel 输出通道
+     * @param charset 输出字符集
+     * @param capacity 缓冲区大小（字节数）
+     */
+    EncodedOutput(WritableByteChannel channel, Charset charset, int capacity) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(capacity);
+        this.bytes = buffer.array();
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
+        if (utf8) {
+            this.encoder = null;
+            this.single = null;
+        } else {
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.single = CharBuffer.allocate(1);
+        }
+    }
+    
+    /**
+     * 写出一个ASCII字符
+     * 
+     * @param c 字符，必须小于0x80
+     * @throws IOException 如果写入出错
+     */
+    void write(char c) throws IOException {
+        if (!utf8) {
+            single.clear();
+            single.put(c);
+            single.flip();
+            encode(single);
+            return;
+        }
+        if (position == bytes.length) {
+            flushBuffer();
+        }
+        bytes[position++] = (byte) c;
+    }
+    
+    /**
+     * 写出文本
+     * 
+     * @param text 文本
+     * @throws IOException 如果写入出错
+     */
+    void write(String text) throws IOException {
+        write(text, 0, text.length());
+    }
+    
+    /**
+     * 写出文本的一部分
+     * 
+     * @param text 文本
+     * @param start 起始位置
+     * @param end 结束位置（不包含）
+     * @throws IOException 如果写入出错
+     */
+    void write(String text, int start, int end) throws IOException {
+        if (!utf8) {
+            if (start < end) {
+                encode(CharBuffer.wrap(text, start, end));
+            }
+            return;
+        }
+        byte[] out = bytes;
+        int pos = position;
+        for (int i = start; i < end; i++) {
+            // 每个字符最多编码为4个字节
+            if (out.length - pos < 4) {
+                position = pos;
+                flushBuffer();
+                pos = 0;
+            }
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | c >> 6);
+                out[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (!Character.isSurrogate(c)) {
+                out[pos++] = (byte) (0xE0 | c >> 12);
+                out[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                out[pos++] = (byte) (0xF0 | codePoint >> 18);
+                out[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                out[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                out[pos++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                // 不成对的代理字符
+                out[pos++] = '?';
+            }
+        }
+        position = pos;
+    }
+    
+    /**
+     * 用编码器编码，缓冲区满时写出后继续
+     */
+    private void encode(CharBuffer in) throws IOException {
+        while (true) {
+            buffer.limit(bytes.length);
+            buffer.position(position);
+            CoderResult result = encoder.encode(in, buffer, false);
+            position = buffer.position();
+            if (!result.isOverflow()) {
+                break;
+            }
+            flushBuffer();
+        }
+        if (in.hasRemaining()) {
+            // 末尾不成对的高代理字符，编码器等待后续输入而没有消耗它，字段之间不会有低代理字符
+            writeReplacement();
+        }
+    }
+    
+    private void writeReplacement() throws IOException {
+        byte[] replacement = encoder.replacement();
+        if (bytes.length - position < replacement.length) {
+            flushBuffer();
+        }
+        System.arraycopy(replacement, 0, bytes, position, replacement.length);
+        position += replacement.length;
+    }
+    
+    /**
+     * 结束编码并把缓冲区中的全部字节写出到通道
+     * 有状态的字符集在这里写出恢复初始状态的字节。
+     * 
+     * @throws IOException 如果写入出错
+     */
+    void finish() throws IOException {
+        if (encoder != null) {
+            CharBuffer empty = CharBuffer.allocate(0);
+            while (true) {
+                buffer.limit(bytes.length);
+                buffer.position(position);
+                CoderResult result = encoder.encode(empty, buffer, true);
+                if (!result.isOverflow()) {
+                    result = encoder.flush(buffer);
+                }
+                position = buffer.position();
+                if (!result.isOverflow()) {
+                    break;
+                }
+                flushBuffer();
+            }
+        }
+        flushBuffer();
+    }
+    
+    /**
+     * 把缓冲区中的字节整块写出到通道
+     */
+    private void flushBuffer() throws IOException {
+        buffer.limit(position);
+        buffer.position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        written += position;
+        position = 0;
+    }
+    
+    /**
+     * 获取已写出到通道的字节数
+     * 
+     * @return 字节数
+     */
+    long getWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,52 @@
+package com.mdtotodos.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 关闭导出文件时写出文档尾并刷新缓冲区的JFR事件
+ * 只能在 {@link TaskEvents#isAvailable()} 返回true时创建。
+ */
+@Name("com.mdtotodos.ExportFlush")
+@Label("刷新导出")
+@Description("写出文档尾、刷新缓冲区并关闭导出文件")
+@Category(TaskEvents.CATEGORY)
+@StackTrace(false)
+final class ExportFlushEvent extends Event {
+    @Label("文件")
+    String path;
+    
+    @Label("格式")
+    String format;
+    
+    @Label("写出字节数")
+    @DataAmount
+    long bytes;
+    
+    @Label("任务数")
+    int tasks;
+    
+    /**
+     * 结束计时，有录制在进行时填写字段并提交事件
+     * 
+     * @param path 导出文件路径，未知时为null
+     * @param format 导出格式
+     * @param byteCount 整个文件写出的字节数
+     * @param taskCount 写出的任务数
+     */
+    void finish(String path, String format, long byteCount, int taskCount) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.format = format;
+            this.bytes = byteCount;
+            this.tasks = taskCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.mdtotodos.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 远程导出的同步状态日志
+ * 记录每个已导出任务的标识、远程平台上的ID和内容哈希值，之后的导出据此只发送新增、修改和删除的任务。
+ * 任务以来源文件、标题和截止日期标识（相同的任务加上出现次数），只有描述变化时按修改处理，
+ * 标题或截止日期变化时按删除原任务并创建新任务处理。
+ * 每次创建、修改或删除被服务器确认后追加一行并立即写出，导出中断后以同一日志重新导出时只发送剩余的变化。
+ * 日志的第一行记录导出目标，避免把一个目标的日志用于另一个目标；进程崩溃时写了一半的最后一行在打开时被截掉，
+ * 被覆盖的旧记录过多时在打开时压缩。
+ */
+public final class ExportJournal implements Closeable {
+    private static final String HEADER = "md2Todos-journal ";
+    private static final int VERSION = 2;
+    
+    // 被覆盖的记录超过有效记录数加上该值时压缩日志
+    private static final int COMPACT_SLACK = 1024;
+    
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private final File file;
+    private final String target;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private Writer writer;
+    
+    /**
+     * 一个已导出任务的远程ID和内容哈希值
+     */
+    private static final class Entry {
+        final String remoteId;
+        final String hash;
+        
+        Entry(String remoteId, String hash) {
+            this.remoteId = remoteId;
+            this.hash = hash;
+        }
+    }
+    
+    private ExportJournal(File file, String target) {
+        this.file = file;
+        this.target = target;
+    }
+    
+    /**
+     * 打开同步状态日志，文件不存在时创建
+     * 
+     * @param file 日志文件
+     * @param target 导出目标，如平台名称和任务列表ID
+     * @return 同步状态日志
+     * @throws IOException 如果读写文件出错，或日志属于其他导出目标
+     */
+    public static ExportJournal open(File file, String target) throws IOException {
+        ExportJournal journal = new ExportJournal(file, target);
+        journal.load();
+        return journal;
+    }
+    
+    private void load() throws IOException {
+        boolean exists = file.isFile() && file.length() > 0;
+        int lines = 0;
+        if (exists) {
+            truncatePartialLine();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(file), StandardCharsets.UTF_8))) {
+                readHeader(reader.readLine());
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    int tab = line.indexOf('\t');
+                    int hashTab = tab > 0 ? line.indexOf('\t', tab + 1) : -1;
+                    if (hashTab > 0) {
+                        entries.put(line.substring(0, tab),
+                                new Entry(line.substring(tab + 1, hashTab), line.substring(hashTab + 1)));
+                    } else if (tab < 0 && !line.isEmpty()) {
+                        // 只有标识的一行表示任务已删除
+                        entries.remove(line);
+                    }
+                }
+            }
+        }
+        
+        if (!exists || lines > entries.size() + COMPACT_SLACK) {
+            rewrite();
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+    
+    private void readHeader(String header) throws IOException {
+        if (header == null || !header.startsWith(HEADER)) {
+            throw new IOException("不是同步状态日志文件: " + file.getPath());
+        }
+        int space = header.indexOf(' ', HEADER.length());
+        if (space < 0 || !header.substring(HEADER.length(), space).equals(String.valueOf(VERSION))) {
+            throw new IOException("同步状态日志 " + file.getPath() + " 的版本不受支持，请删除后重新导出");
+        }
+        String recorded = header.substring(space + 1);
+        if (!recorded.equals(target)) {
+            throw new IOException("同步状态日志 " + file.getPath() + " 属于其他导出目标: " + recorded);
+        }
+    }
+    
+    /**
+     * 只以有效记录重写日志，先写入临时文件再替换，中途崩溃时原日志保持完整
+     */
+    private void rewrite() throws IOException {
+        Path path = file.toPath().toAbsolutePath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temp),
+                StandardCharsets.UTF_8))) {
+            out.write(HEADER);
+            out.write(String.valueOf(VERSION));
+            out.write(' ');
+            out.write(target);
+            out.write('\n');
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writeEntry(out, entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * 截掉没有换行符结尾的最后一行，它是写到一半时中断留下的
+     */
+    private void truncatePartialLine() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long length = raf.length();
+            long end = length;
+            while (end > 0) {
+                raf.seek(end - 1);
+                if (raf.read() == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < length) {
+                raf.setLength(end);
+            }
+        }
+    }
+    
+    /**
+     * 规范化来源文件的路径，同一文件以不同的相对路径指定时得到相同的来源
+     * 
+     * @param file 来源文件，可以为null
+     * @return 绝对路径，没有来源文件时返回空字符串
+     */
+    public static String sourceOf(File file) {
+        return file != null ? file.getAbsoluteFile().toPath().normalize().toString() : "";
+    }
+    
+    /**
+     * 计算任务列表中每个任务的标识
+     * 标识由来源文件的哈希值、标题和截止日期的哈希值以及相同任务的出现次数组成，
+     * 因此调整任务顺序或修改描述不会改变标识。
+     * 
+     * @param source 任务的来源文件，见 {@link #sourceOf(File)}
+     * @param tasks 任务列表
+     * @return 与任务列表一一对应的标识
+     */
+    public static String[] keysOf(String source, List<Task> tasks) {
+        String prefix = sourcePrefix(source);
+        String[] keys = new String[tasks.size()];
+        Map<Long, Integer> occurrences = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            Task task = tasks.get(i);
+            long hash = hash(FNV_OFFSET, task.getTitle());
+            hash = (hash ^ 0xFFFF) * FNV_PRIME;
+            hash = hash(hash, task.hasDueDate() ? task.getDueDate().toString() : null);
+            int occurrence = occurrences.merge(hash, 1, Integer::sum);
+            keys[i] = prefix + String.format("%016x-%d", hash, occurrence);
+        }
+        return keys;
+    }
+    
+    /**
+     * 计算任务导出内容的哈希值，标题、描述或截止日期任一变化时不同
+     * 
+     * @param task 任务
+     * @return 十六进制的哈希值
+     */
+    public static String contentHash(Task task) {
+        long hash = FNV_OFFSET;
+        // 字段之间以非字符U+FFFF分隔，避免字段边界移动后哈希值相同
+        hash = hash(hash, task.getTitle());
+        hash = (hash ^ 0xFFFF) * FNV_PRIME;
+        hash = hash(hash, task.getDescription());
+        hash = (hash ^ 0xFFFF) * FNV_PRIME;
+        hash = hash(hash, task.hasDueDate() ? task.getDueDate().toString() : null);
+        return String.format("%016x", hash);
+    }
+    
+    private static String sourcePrefix(String source) {
+        return String.format("%016x:", hash(FNV_OFFSET, source));
+    }
+    
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+    
+    /**
+     * 任务是否已导出
+     * 
+     * @param key 任务标识
+     * @return 如果已导出返回true
+     */
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+    
+    /**
+     * 获取已导出任务在远程平台上的ID
+     * 
+     * @param key 任务标识
+     * @return 远程ID，服务器没有返回ID时为空字符串，未导出时返回null
+     */
+    public synchronized String getRemoteId(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.remoteId : null;
+    }
+    
+    /**
+     * 获取已导出任务导出时的内容哈希值
+     * 
+     * @param key 任务标识
+     * @return 内容哈希值，未导出时返回null
+     */
+    public synchronized String getContentHash(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.hash : null;
+    }
+    
+    /**
+     * 获取从某个来源文件导出的全部任务标识
+     * 
+     * @param source 来源文件，见 {@link #sourceOf(File)}
+     * @return 任务标识
+     */
+    public synchronized List<String> keysFrom(String source) {
+        String prefix = sourcePrefix(source);
+        List<String> keys = new ArrayList<>();
+        for (String key : entries.keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * 记录一个被确认创建或修改的任务，立即写出到文件
+     * 
+     * @param key 任务标识
+     * @param remoteId 远程平台上的任务ID
+     * @param hash 导出内容的哈希值，见 {@link #contentHash(Task)}
+     * @throws IOException 如果写入文件出错
+     */
+    public synchronized void record(String key, String remoteId, String hash) throws IOException {
+        checkOpen();
+        Entry entry = new Entry(remoteId != null ? remoteId.replace('\t', ' ').replace('\n', ' ') : "", hash);
+        writeEntry(writer, key, entry);
+        writer.flush();
+        entries.put(key, entry);
+    }
+    
+    /**
+     * 记录一个被确认删除的任务，立即写出到文件
+     * 
+     * @param key 任务标识
+     * @throws IOException 如果写入文件出错
+     */
+    public synchronized void remove(String key) throws IOException {
+        checkOpen();
+        writer.write(key);
+        writer.write('\n');
+        writer.flush();
+        entries.remove(key);
+    }
+    
+    private void checkOpen() throws IOException {
+        if (writer == null) {
+            throw new IOException("同步状态日志已关闭");
+        }
+    }
+    
+    private static void writeEntry(Writer out, String key, Entry entry) throws IOException {
+        out.write(key);
+        out.write('\t');
+        out.write(entry.remoteId);
+        out.write('\t');
+        out.write(entry.hash);
+        out.write('\n');
+    }
+    
+    /**
+     * @return 已导出的任务数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * @return 日志文件
+     */
+    public File getFile() {
+        return file;
+    }
+    
+    /**
+     * @return 导出目标
+     */
+    public String getTarget() {
+        return target;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.mdtotodos.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通过Google Tasks API将任务导出到Google Tasks
+ * Google Tasks没有批量创建接口，每个任务是一个插入请求，多个请求在线程池中同时发送，
+ * 在途请求数由 {@link AdaptiveLimit} 按服务器的限流响应自动调整，被限流的任务按Retry-After暂停后重新发送。
+ * 设置同步状态日志后只发送变化：新任务以插入请求创建，内容变化的任务以PATCH修改，从来源文件中移除的任务被删除，
+ * 每个被确认的操作立即记录到日志，中断后重新导出时只发送剩余的变化。
+ * API地址可以替换为本地的模拟服务器，用于测试。
+ */
+public final class GoogleTasksExporter {
+    /** Google Tasks API的默认地址 */
+    public static final String DEFAULT_API_URL = "https://tasks.googleapis.com/tasks/v1";
+    
+    /** 保存访问令牌的环境变量 */
+    public static final String TOKEN_ENV = "MDTOTODOS_GOOGLE_TOKEN";
+    
+    /** 覆盖API地址的环境变量 */
+    public static final String API_URL_ENV = "MDTOTODOS_GOOGLE_TASKS_URL";
+    
+    /**
+     * 默认的最大在途请求数
+     * 与JDK为同一主机保留的keep-alive连接数（http.maxConnections，默认5）一致，超出的连接用完即关闭。
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 5;
+    
+    // 表示默认任务列表的ID
+    private static final String DEFAULT_LIST = "@default";
+    
+    private final String apiUrl;
+    private final RestClient client;
+    private String list;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private File journalFile;
+    
+    /**
+     * 创建导出器
+     * 
+     * @param apiUrl Google Tasks API地址，如 {@value #DEFAULT_API_URL}
+     * @param accessToken 具有tasks权限的OAuth访问令牌
+     */
+    public GoogleTasksExporter(String apiUrl, String accessToken) {
+        this.apiUrl = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
+        this.client = new RestClient(accessToken);
+    }
+    
+    /**
+     * 以环境变量 {@value #TOKEN_ENV} 中的访问令牌创建导出器
+     * 设置了环境变量 {@value #API_URL_ENV} 时使用其中的API地址。
+     * 
+     * @return 导出器
+     * @throws UnsupportedOperationException 如果没有设置访问令牌
+     */
+    public static GoogleTasksExporter fromEnvironment() {
+        String token = System.getenv(TOKEN_ENV);
+        if (token == null || token.trim().isEmpty()) {
+            throw new UnsupportedOperationException("导出到Google Tasks需要访问令牌，请将具有tasks权限的"
+                    + "Google OAuth访问令牌设置到环境变量 " + TOKEN_ENV);
+        }
+        String url = System.getenv(API_URL_ENV);
+        return new GoogleTasksExporter(url != null && !url.isEmpty() ? url : DEFAULT_API_URL, token.trim());
+    }
+    
+    /**
+     * 设置导出到的任务列表
+     * 
+     * @param list 列表ID或标题，为null时导出到默认列表
+     */
+    public void setList(String list) {
+        this.list = list;
+    }
+    
+    /**
+     * 获取导出到的任务列表
+     * 
+     * @return 列表ID或标题，导出到默认列表时返回null
+     */
+    public String getList() {
+        return list;
+    }
+    
+    /**
+     * 设置最大在途请求数，实际并发数在1和该值之间自适应调整
+     * 
+     * @param maxConcurrency 最大在途请求数
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("并发数必须大于0");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+    
+    /**
+     * 获取最大在途请求数
+     * 
+     * @return 最大在途请求数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    /**
+     * 设置同步状态日志文件，记录已导出的任务，之后的导出只发送新增、修改和删除的任务，
+     * 中断后重新导出时也只发送剩余的变化
+     * 
+     * @param journalFile 日志文件，为null时每次导出创建全部任务
+     */
+    public void setJournalFile(File journalFile) {
+        this.journalFile = journalFile;
+    }
+    
+    /**
+     * 在任务列表中创建任务
+     * 
+     * @param tasks 任务列表
+     * @return 导出结果
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
+     * @see #export(List, String)
+     */
+    public RemoteExportResult export(List<Task> tasks) throws IOException {
+        return export(tasks, "");
+    }
+    
+    /**
+     * 将来自一个文件的任务导出到任务列表
+     * 单个任务失败不会中断导出，失败的任务数和第一个错误记录在结果中；认证失败或配额用尽时立即停止。
+     * 设置了同步状态日志时只发送与上次导出相比的变化，删除只涉及同一来源文件导出的任务。
+     * 
+     * @param tasks 任务列表
+     * @param source 任务的来源文件，见 {@link ExportJournal#sourceOf(File)}
+     * @return 导出结果
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
+     */
+    public RemoteExportResult export(List<Task> tasks, String source) throws IOException {
+        String listId = resolveListId();
+        String url = apiUrl + "/lists/" + RestClient.encode(listId) + "/tasks";
+        if (journalFile == null) {
+            return new Run(tasks, source, url, null).execute();
+        }
+        try (ExportJournal journal = ExportJournal.open(journalFile, "google " + listId)) {
+            return new Run(tasks, source, url, journal).execute();
+        }
+    }
+    
+    /**
+     * 查找任务列表的ID，没有指定列表时使用默认列表
+     * 
+     * @return 列表ID
+     * @throws IOException 如果找不到列表或请求失败
+     */
+    private String resolveListId() throws IOException {
+        if (list == null || list.equals(DEFAULT_LIST)) {
+            return DEFAULT_LIST;
+        }
+        String pageToken = null;
+        do {
+            String url = apiUrl + "/users/@me/lists?maxResults=100"
+                    + (pageToken != null ? "&pageToken=" + RestClient.encode(pageToken) : "");
+            RestClient.Response response = client.send("GET", url, null);
+            if (!response.isSuccess()) {
+                throw new IOException("无法获取Google Tasks列表: " + response.errorMessage());
+            }
+            Object json = Json.parse(response.body);
+            Object items = Json.get(json, "items");
+            if (items instanceof List) {
+                for (Object item : (List<?>) items) {
+                    String id = Json.getString(item, "id");
+                    if (list.equals(id) || list.equals(Json.getString(item, "title"))) {
+                        return id;
+                    }
+                }
+            }
+            pageToken = Json.getString(json, "nextPageToken");
+        } while (pageToken != null);
+        throw new IOException("找不到Google Tasks列表: " + list);
+    }
+    
+    /**
+     * 一次导出，每个批次是对一个任务的请求
+     */
+    private final class Run extends RemoteExport {
+        private final String url;
+        
+        Run(List<Task> tasks, String source, String url, ExportJournal journal) {
+            super("Google Tasks", tasks, source, maxConcurrency, 1, journal);
+            this.url = url;
+        }
+        
+        @Override
+        void send(List<Item> batch) {
+            List<Item> retry = new ArrayList<>(1);
+            String error = null;
+            Item item = batch.get(0);
+            try {
+                RestClient.Response response = request(item);
+                if (response.isSuccess()) {
+                    if (item.operation == Operation.CREATE) {
+                        created(item, remoteId(response.body));
+                    } else if (item.operation == Operation.UPDATE) {
+                        updated(item);
+                    } else {
+                        deleted(item);
+                    }
+                    limit.succeeded();
+                } else if (response.status == 404 && item.operation != Operation.CREATE) {
+                    // 任务已在Google Tasks中被删除：删除视为完成，修改改为重新创建
+                    limit.released();
+                    if (item.operation == Operation.DELETE) {
+                        deleted(item);
+                    } else {
+                        item.operation = Operation.CREATE;
+                        retry.add(item);
+                        error = response.errorMessage();
+                    }
+                } else if (response.isThrottled() || isRateLimited(response)) {
+                    limit.throttled(RestClient.retryAfterMillis(response.retryAfter));
+                    retry.add(item);
+                    error = response.errorMessage();
+                } else if (response.status == 401 || response.status == 403) {
+                    // 403中除了速率限制以外的原因（权限不足、每日配额用尽）重试也不会成功
+                    limit.released();
+                    fail(new IOException("Google Tasks拒绝请求: " + response.errorMessage()));
+                } else if (response.status >= 500) {
+                    limit.throttled(RestClient.DEFAULT_RETRY_AFTER_MILLIS);
+                    retry.add(item);
+                    error = response.errorMessage();
+                } else {
+                    limit.released();
+                    failed(item, response.errorMessage());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // 网络错误或响应不完整时同样退避后重试
+                limit.throttled(RestClient.DEFAULT_RETRY_AFTER_MILLIS);
+                retry.add(item);
+                error = e.getMessage();
+            } finally {
+                finish(retry, error);
+            }
+        }
+        
+        private RestClient.Response request(Item item) throws IOException {
+            switch (item.operation) {
+                case CREATE:
+                    return client.send("POST", url, toJson(tasks.get(item.index), false));
+                case UPDATE:
+                    return client.send("PATCH", url + "/" + RestClient.encode(item.remoteId),
+                            toJson(tasks.get(item.index), true));
+                default:
+                    return client.send("DELETE", url + "/" + RestClient.encode(item.remoteId), null);
+            }
+        }
+    }
+    
+    /**
+     * 读取插入响应中的任务ID，任务已创建，响应体无法解析时不重试而是返回null
+     */
+    private static String remoteId(String body) {
+        try {
+            return Json.getString(Json.parse(body), "id");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Google API以403和 rateLimitExceeded 或 userRateLimitExceeded 原因表示速率限制
+     */
+    private static boolean isRateLimited(RestClient.Response response) {
+        if (response.status != 403) {
+            return false;
+        }
+        try {
+            Object errors = Json.get(Json.parse(response.body), "error", "errors");
+            if (errors instanceof List) {
+                for (Object error : (List<?>) errors) {
+                    String reason = Json.getString(error, "reason");
+                    if ("rateLimitExceeded".equals(reason) || "userRateLimitExceeded".equals(reason)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (IllegalArgumentException ignored) {
+            // 响应体不是JSON
+        }
+        return false;
+    }
+    
+    /**
+     * 将任务写为Google Tasks任务的JSON
+     * Google Tasks只保存截止日期的日期部分，时间被忽略。修改时没有描述或截止日期的任务写出null以清除原有的值。
+     */
+    static String toJson(Task task, boolean update) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"title\":");
+        Json.appendString(sb, task.getTitle());
+        if (task.hasDescription()) {
+            sb.append(",\"notes\":");
+            Json.appendString(sb, task.getDescription());
+        } else if (update) {
+            sb.append(",\"notes\":null");
+        }
+        if (task.hasDueDate()) {
+            sb.append(",\"due\":\"").append(task.getDueDate().toLocalDate()).append("T00:00:00.000Z\"");
+        } else if (update) {
+            sb.append(",\"due\":null");
+        }
+        return sb.append('}').toString();
+    }
+}
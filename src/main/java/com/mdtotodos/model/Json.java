@@ -0,0 +1,298 @@
+package com.mdtotodos.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 与远程API交换数据用的最小JSON工具
+ * 解析结果为 {@link Map}、{@link List}、{@link String}、{@link Double}、{@link Long}、{@link Boolean} 或null，
+ * 只支持API响应需要的标准JSON，不支持注释等扩展语法。
+ */
+final class Json {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private final CharSequence text;
+    private int pos;
+    
+    private Json(CharSequence text) {
+        this.text = text;
+    }
+    
+    /**
+     * 解析JSON文本
+     * 
+     * @param text JSON文本
+     * @return 解析结果
+     * @throws IllegalArgumentException 如果不是合法的JSON
+     */
+    static Object parse(CharSequence text) {
+        Json json = new Json(text);
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.pos != text.length()) {
+            throw json.error("多余的内容");
+        }
+        return value;
+    }
+    
+    /**
+     * 将字符串加上引号并转义后追加到JSON文本中
+     * 所有控制字符都被转义，U+2028和U+2029也被转义，结果可以安全地嵌入JavaScript。
+     * 
+     * @param sb JSON文本
+     * @param value 字符串，为null时追加null
+     * @return sb
+     */
+    static StringBuilder appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        sb.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xF])
+                                .append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+    
+    /**
+     * 按路径读取嵌套对象中的字段
+     * 
+     * @param value 解析结果
+     * @param path 字段名，依次进入下一层对象
+     * @return 字段值，路径中任何一层不是对象或字段不存在时返回null
+     */
+    static Object get(Object value, String... path) {
+        for (String key : path) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map<?, ?>) value).get(key);
+        }
+        return value;
+    }
+    
+    /**
+     * 按路径读取字符串字段
+     * 
+     * @param value 解析结果
+     * @param path 字段路径
+     * @return 字符串，字段不存在或不是字符串时返回null
+     */
+    static String getString(Object value, String... path) {
+        Object field = get(value, path);
+        return field instanceof String ? (String) field : null;
+    }
+    
+    private Object readValue() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("意外的结尾");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+    
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("应为字段名");
+            }
+            String key = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("应为 ':'");
+            }
+            pos++;
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = peek();
+            pos++;
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("应为 ',' 或 '}'");
+            }
+        }
+    }
+    
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = peek();
+            pos++;
+            if (c == ']') {
+                return array;
+            }
+            if (c != ',') {
+                throw error("应为 ',' 或 ']'");
+            }
+        }
+    }
+    
+    private String readString() {
+        StringBuilder sb = new StringBuilder();
+        pos++;
+        while (true) {
+            if (pos >= text.length()) {
+                throw error("字符串没有结束");
+            }
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                throw error("字符串没有结束");
+            }
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(escaped);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("无效的Unicode转义");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.subSequence(pos, pos + 4).toString(), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("无效的Unicode转义");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("无效的转义字符");
+            }
+        }
+    }
+    
+    private Object readNumber() {
+        int start = pos;
+        boolean decimal = false;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(c >= '0' && c <= '9') && c != '-' && c != '+') {
+                break;
+            }
+            pos++;
+        }
+        String number = text.subSequence(start, pos).toString();
+        try {
+            return decimal ? (Object) Double.valueOf(number) : (Object) Long.valueOf(number);
+        } catch (NumberFormatException e) {
+            throw error("无效的数值");
+        }
+    }
+    
+    private void expect(String literal) {
+        if (pos + literal.length() > text.length()
+                || !text.subSequence(pos, pos + literal.length()).toString().equals(literal)) {
+            throw error("应为 " + literal);
+        }
+        pos += literal.length();
+    }
+    
+    private char peek() {
+        if (pos >= text.length()) {
+            throw error("意外的结尾");
+        }
+        return text.charAt(pos);
+    }
+    
+    private void skipWhitespace() {
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+    
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("无效的JSON（位置 " + pos + "）: " + message);
+    }
+}
@@ -0,0 +1,142 @@
+package com.mdtotodos.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * JSON格式的任务接收器
+ * 输出一个任务对象数组，没有截止日期的任务省略 due_date 字段。
+ */
+public class JsonTaskSink extends BufferedTaskSink {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    /**
+     * 创建使用平台默认字符集的JSON接收器
+     * 
+     * @param out 输出流
+     */
+    public JsonTaskSink(OutputStream out) {
+        this(out, Charset.defaultCharset());
+    }
+    
+    /**
+     * 创建JSON接收器
+     * 
+     * @param out 输出流
+     * @param charset 输出字符集
+     */
+    public JsonTaskSink(OutputStream out, Charset charset) {
+        super(out, charset);
+    }
+    
+    /**
+     * 创建写入通道的JSON接收器
+     * 
+     * @param channel 输出通道
+     * @param charset 输出字符集
+     */
+    public JsonTaskSink(WritableByteChannel channel, Charset charset) {
+        super(channel, charset);
+    }
+    
+    @Override
+    protected String getFormatName() {
+        return "JSON";
+    }
+    
+    @Override
+    protected void writeHeader(EncodedOutput output) throws IOException {
+        output.write("[\n");
+    }
+    
+    @Override
+    protected void writeTask(EncodedOutput output, String title, String description, String dueDate, int index)
+            throws IOException {
+        // 任务总数未知，因此在后续任务之前写出分隔的逗号
+        if (index > 0) {
+            output.write(",\n");
+        }
+        output.write("  {\n");
+        
+        // 标题
+        output.write("    \"title\": \"");
+        writeEscaped(output, title);
+        output.write("\",\n");
+        
+        // 描述
+        output.write("    \"description\": \"");
+        writeEscaped(output, description);
+        output.write('"');
+        
+        // 截止日期
+        if (dueDate != null) {
+            output.write(",\n    \"due_date\": \"");
+            output.write(dueDate);
+            output.write('"');
+        }
+        
+        output.write("\n  }");
+    }
+    
+    @Override
+    protected void writeFooter(EncodedOutput output, int taskCount) throws IOException {
+        if (taskCount > 0) {
+            output.write('\n');
+        }
+        output.write("]\n");
+    }
+    
+    /**
+     * 转义并写出JSON字符串的内容，一次扫描中把不需要转义的连续字符整段写出
+     * 引号、反斜杠和全部控制字符（U+0000至U+001F）都被转义，常见的控制字符使用简写形式。
+     * 
+     * @param output 输出
+     * @param value 字符串，为null时不写出
+     * @throws IOException 如果写入出错
+     */
+    static void writeEscaped(EncodedOutput output, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            output.write(value, start, i);
+            start = i + 1;
+            output.write('\\');
+            switch (c) {
+                case '"':
+                case '\\':
+                    output.write(c);
+                    break;
+                case '\b':
+                    output.write('b');
+                    break;
+                case '\f':
+                    output.write('f');
+                    break;
+                case '\n':
+                    output.write('n');
+                    break;
+                case '\r':
+                    output.write('r');
+                    break;
+                case '\t':
+                    output.write('t');
+                    break;
+                default:
+                    output.write("u00");
+                    output.write(HEX_DIGITS[c >> 4]);
+                    output.write(HEX_DIGITS[c & 0xF]);
+                    break;
+            }
+        }
+        output.write(value, start, value.length());
+    }
+}
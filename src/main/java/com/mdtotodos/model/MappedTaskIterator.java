@@ -0,0 +1,224 @@
+package com.mdtotodos.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * 基于内存映射的任务迭代器
+ * 按窗口映射文件中的指定范围，将映射内容成块复制到可复用的字节数组中，
+ * 直接在原始字节上查找行边界并逐行解析，内存占用与文件大小无关。
+ * 行终止符与 {@link java.io.BufferedReader#readLine()} 一致：\n、\r 或 \r\n。
+ * 
+ * @param <T> 每个任务行的解析结果类型
+ */
+final class MappedTaskIterator<T> implements Iterator<T> {
+    // 单个映射窗口的最大字节数
+    private static final long WINDOW_SIZE = 1L << 30;
+    
+    // 字节块的初始大小，遇到更长的行时自动扩容
+    private static final int BLOCK_SIZE = 1 << 16;
+    
+    private final MarkdownParser parser;
+    private final FileChannel channel;
+    private final long end;
+    private final ByteLine line;
+    private final MarkdownParser.TaskFactory<T> factory;
+    private final ParseStats stats;
+    private LongConsumer progress;
+    private MappedByteBuffer window;
+    private long mappedEnd;
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockPos;
+    private int blockEnd;
+    private boolean maybeUnicodeTerminator;
+    private T next;
+    
+    /**
+     * 创建迭代器
+     * 
+     * @param parser 用于解析单行的解析器
+     * @param channel 文件通道，迭代期间必须保持打开
+     * @param start 起始位置，必须位于行首
+     * @param end 结束位置（不含），必须位于行首或文件末尾
+     * @param charset 文件字符集，必须满足 {@link ByteLine#supports(Charset)}
+     * @param factory 由任务行中的片段构建解析结果
+     */
+    MappedTaskIterator(MarkdownParser parser, FileChannel channel, long start, long end, Charset charset,
+                       MarkdownParser.TaskFactory<T> factory) {
+        this.parser = parser;
+        this.channel = channel;
+        this.end = end;
+        this.line = new ByteLine(charset);
+        this.factory = factory;
+        this.stats = parser.newParseStats();
+        this.mappedEnd = start;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+    
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T task = next;
+        next = null;
+        return task;
+    }
+    
+    /**
+     * 读取下一个任务
+     * 
+     * @return 下一个任务，没有更多任务时返回null
+     * @throws IOException 如果映射文件出错
+     */
+    private T advance() throws IOException {
+        int scanFrom = blockPos;
+        while (true) {
+            int lineEnd = findLineEnd(scanFrom, blockEnd);
+            if (lineEnd == blockEnd) {
+                // 块中没有完整的行，读取更多数据后从上次扫描的位置继续
+                int scanned = blockEnd - blockPos;
+                if (fill()) {
+                    scanFrom = blockPos + scanned;
+                    continue;
+                }
+                if (blockPos == blockEnd) {
+                    flushStats();
+                    return null;
+                }
+            }
+            
+            int lineStart = blockPos;
+            blockPos = lineEnd;
+            if (lineEnd < blockEnd) {
+                blockPos++;
+                if (block[lineEnd] == '\r' && blockPos < blockEnd && block[blockPos] == '\n') {
+                    blockPos++;
+                }
+            }
+            scanFrom = blockPos;
+            
+            line.reset(block, lineStart, lineEnd - lineStart);
+            CharSequence text = maybeUnicodeTerminator && line.containsUnicodeLineTerminator() ? line.toString() : line;
+            T task = stats == null ? parser.parseLine(text, factory) : parser.parseLine(text, factory, stats);
+            if (task != null) {
+                return task;
+            }
+        }
+    }
+    
+    /**
+     * 设置读取进度的回调，每读取一块数据后以已读取到的文件位置调用一次
+     * 
+     * @param progress 进度回调，为null时不报告
+     */
+    void setProgress(LongConsumer progress) {
+        this.progress = progress;
+    }
+    
+    /**
+     * 将本地计数写入解析器的统计信息，迭代结束时自动调用
+     */
+    void flushStats() {
+        if (stats != null) {
+            stats.flush();
+        }
+    }
+    
+    /**
+     * 将未处理的字节移到块首，并从映射窗口中读取更多数据
+     * 记录统计信息时按块累加计数，并对映射和复制计时；设置了进度回调时报告读取到的位置。
+     * 
+     * @return 如果读取到了数据则返回true，已到达范围末尾时返回false
+     * @throws IOException 如果映射文件出错
+     */
+    private boolean fill() throws IOException {
+        boolean read;
+        if (stats == null) {
+            read = readBlock();
+        } else {
+            stats.flush();
+            long start = System.nanoTime();
+            int before = blockEnd - blockPos;
+            read = readBlock();
+            if (read) {
+                stats.metrics().record(TaskMetrics.Phase.READ, System.nanoTime() - start);
+                stats.metrics().addBytesRead(blockEnd - before);
+            }
+        }
+        if (read && progress != null) {
+            progress.accept(mappedEnd - window.remaining());
+        }
+        return read;
+    }
+    
+    /**
+     * 将未处理的字节移到块首，并从映射窗口中读取更多数据
+     * 
+     * @return 如果读取到了数据则返回true，已到达范围末尾时返回false
+     * @throws IOException 如果映射文件出错
+     */
+    private boolean readBlock() throws IOException {
+        if (window == null || !window.hasRemaining()) {
+            if (mappedEnd >= end) {
+                return false;
+            }
+            long size = Math.min(WINDOW_SIZE, end - mappedEnd);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, mappedEnd, size);
+            mappedEnd += size;
+        }
+        
+        int pending = blockEnd - blockPos;
+        if (blockPos > 0) {
+            System.arraycopy(block, blockPos, block, 0, pending);
+        } else if (pending == block.length) {
+            block = Arrays.copyOf(block, block.length * 2);
+        }
+        blockPos = 0;
+        blockEnd = pending;
+        
+        int count = Math.min(window.remaining(), block.length - blockEnd);
+        window.get(block, blockEnd, count);
+        blockEnd += count;
+        return true;
+    }
+    
+    /**
+     * 查找行终止符，同时记录行中是否可能含有UTF-8编码的Unicode行终止符
+     * 
+     * @return 终止符位置，没有则返回limit
+     */
+    private int findLineEnd(int from, int limit) {
+        if (from == blockPos) {
+            maybeUnicodeTerminator = false;
+        }
+        for (int i = from; i < limit; i++) {
+            byte b = block[i];
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+            if (b == (byte) 0xC2 || b == (byte) 0xE2) {
+                maybeUnicodeTerminator = true;
+            }
+        }
+        return limit;
+    }
+}
@@ -2,30 +2,130 @@ package com.mdtotodos.model;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Markdown解析器，用于从Markdown文件中提取待办事项
+ * 对UTF-8等兼容ASCII的字符集，文件以内存映射方式读取并直接在字节上扫描，
+ * 只有标题和描述片段会被解码；其他字符集按字符流读取。文件开头的BOM优先于指定的字符集。
  */
 public class MarkdownParser {
-    // 任务基本格式的正则表达式: "数字. 任务内容"
-    private static final Pattern TASK_PATTERN = Pattern.compile("^\\s*(\\d+)\\.\\s+(.+)$");
+    // 并行解析时每个分块的最小和最大字节数
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 64 << 20;
     
-    // 日期格式的正则表达式: YYYY/MM/DD-HHam/pm
-    private static final Pattern DATE_PATTERN = 
-            Pattern.compile("(\\d{4}/\\d{1,2}/\\d{1,2}-\\d{1,2}(?:am|pm))");
+    // 每个线程分配的分块数，用于平衡各分块解析耗时的差异
+    private static final int CHUNKS_PER_THREAD = 4;
     
-    // 描述部分的正则表达式: "// 描述内容"
-    private static final Pattern DESCRIPTION_PATTERN = 
-            Pattern.compile("\\s*//\\s*(.*?)\\s*(?:" + DATE_PATTERN.pattern() + ")?$");
+    // 将解析出的片段构建为任务对象
+    static final TaskFactory<Task> TASKS = (titleText, titleStart, titleEnd,
+                                            descriptionText, descriptionStart, descriptionEnd, dueDate) ->
+            new Task(titleText.subSequence(titleStart, titleEnd).toString(),
+                    descriptionStart == descriptionEnd ? ""
+                            : descriptionText.subSequence(descriptionStart, descriptionEnd).toString(),
+                    dueDate);
+    
+    private final DueDateCodec dateCodec = new DueDateCodec();
+    private Charset charset;
+    private TaskFilter filter;
+    private TaskMetrics metrics;
+
+    /**
+     * 创建使用平台默认字符集的解析器
+     */
+    public MarkdownParser() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * 创建使用指定字符集的解析器
+     * 
+     * @param charset 文件字符集
+     */
+    public MarkdownParser(Charset charset) {
+        setCharset(charset);
+    }
+
+    /**
+     * 获取读取文件时使用的字符集
+     * 
+     * @return 字符集
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * 设置读取文件时使用的字符集
+     * 
+     * @param charset 字符集，文件带有BOM时以BOM为准
+     */
+    public void setCharset(Charset charset) {
+        this.charset = Objects.requireNonNull(charset, "字符集不能为空");
+    }
+
+    /**
+     * 获取解析时检查的过滤条件
+     * 
+     * @return 过滤条件，没有设置时返回null
+     */
+    public TaskFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * 设置解析时检查的过滤条件
+     * 设置后所有解析方法只返回符合条件的任务，不符合条件的行在创建字符串和任务对象之前就被跳过。
+     * 
+     * @param filter 过滤条件，为null时不过滤
+     */
+    public void setFilter(TaskFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * 获取记录解析统计信息的对象
+     * 
+     * @return 统计信息，没有设置时返回null
+     */
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置记录解析统计信息的对象
+     * 设置后记录扫描的行数、解析出的任务数、读取的字节数以及读取、行匹配和日期解析的耗时。
+     * 
+     * @param metrics 统计信息，为null时不记录
+     */
+    public void setMetrics(TaskMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     /**
      * 从Markdown文件中解析待办事项
@@ -35,98 +135,793 @@ public class MarkdownParser {
      * @throws IOException 如果读取文件出错
      */
     public List<Task> parseTasks(File file) throws IOException {
-        List<Task> tasks = new ArrayList<>();
+        try (Stream<Task> tasks = streamTasks(file)) {
+            return tasks.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 使用多个线程并行解析Markdown文件中的待办事项
+     * 文件在换行符处被切分为若干分块，每个分块只包含完整的行（包括标题行），
+     * 各分块在ForkJoin线程池中独立解析，结果按原文件顺序合并。
+     * 只有兼容ASCII的字符集可以按字节切分，其他字符集按单线程解析。
+     * 
+     * @param file Markdown文件
+     * @param threads 解析线程数，小于等于1时按单线程解析
+     * @return 解析出的任务列表，顺序与文件中一致
+     * @throws IOException 如果读取文件出错
+     */
+    public List<Task> parseTasks(File file, int threads) throws IOException {
+        List<List<Task>> chunks = parseChunks(file, threads, this::parseChunk, List::size);
+        if (chunks == null) {
+            return parseTasks(file);
+        }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        List<Task> tasks = new ArrayList<>();
+        for (List<Task> chunk : chunks) {
+            tasks.addAll(chunk);
+        }
+        return tasks;
+    }
+
+    /**
+     * 从Markdown文件中解析待办事项到列式任务存储
+     * 兼容ASCII的字符集下标题和描述的字节直接复制进存储，不创建中间的字符串和任务对象。
+     * 
+     * @param file Markdown文件
+     * @return 任务存储，顺序与文件中一致
+     * @throws IOException 如果读取文件出错
+     */
+    public TaskStore parseTaskStore(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Encoding encoding = detectEncoding(channel);
+            if (ByteLine.supports(encoding.charset)) {
+                return parseChunkStore(channel, encoding.offset, channel.size(), encoding.charset);
+            }
+            
+            TaskStore store = new TaskStore();
+            ParseStats stats = newParseStats();
+            BufferedReader reader = newReader(channel, encoding, stats, null);
             String line;
             while ((line = reader.readLine()) != null) {
-                // 跳过空行或标题行
-                if (line.trim().isEmpty() || line.trim().startsWith("#")) {
-                    continue;
+                if (stats == null) {
+                    parseLine(line, store.appender);
+                } else {
+                    parseLine(line, store.appender, stats);
                 }
-                
-                Task task = parseTaskLine(line);
-                if (task != null) {
-                    tasks.add(task);
+            }
+            if (stats != null) {
+                stats.flush();
+            }
+            return store;
+        }
+    }
+
+    /**
+     * 使用多个线程并行解析Markdown文件中的待办事项到列式任务存储
+     * 分块方式与 {@link #parseTasks(File, int)} 相同，各分块解析到各自的存储后按顺序合并。
+     * 
+     * @param file Markdown文件
+     * @param threads 解析线程数，小于等于1时按单线程解析
+     * @return 任务存储，顺序与文件中一致
+     * @throws IOException 如果读取文件出错
+     */
+    public TaskStore parseTaskStore(File file, int threads) throws IOException {
+        List<TaskStore> chunks = parseChunks(file, threads, this::parseChunkStore, TaskStore::size);
+        if (chunks == null) {
+            return parseTaskStore(file);
+        }
+        
+        int taskCount = 0;
+        long byteCount = 0;
+        for (TaskStore chunk : chunks) {
+            taskCount += chunk.size();
+            byteCount += chunk.byteCount();
+        }
+        TaskStore store = new TaskStore(taskCount, (int) Math.min(byteCount, Integer.MAX_VALUE - 8));
+        for (TaskStore chunk : chunks) {
+            store.addAll(chunk);
+        }
+        return store;
+    }
+
+    /**
+     * 将文件在换行符处切分为若干分块，在ForkJoin线程池中独立解析各分块
+     * 
+     * @param file Markdown文件
+     * @param threads 解析线程数
+     * @param chunkParser 分块解析方式
+     * @param taskCount 分块解析结果中的任务数，用于JFR事件
+     * @return 按文件顺序排列的各分块解析结果；文件太小、线程数小于等于1或字符集不能按字节切分时返回null
+     * @throws IOException 如果读取文件出错
+     */
+    private <R> List<R> parseChunks(File file, int threads, ChunkParser<R> chunkParser,
+                                    ToIntFunction<? super R> taskCount) throws IOException {
+        long size = file.length();
+        if (threads <= 1 || size <= MIN_CHUNK_SIZE) {
+            return null;
+        }
+        
+        long chunkSize = Math.max(MIN_CHUNK_SIZE,
+                Math.min(MAX_CHUNK_SIZE, size / ((long) threads * CHUNKS_PER_THREAD)));
+        ForkJoinPool pool = null;
+        
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Encoding encoding = detectEncoding(channel);
+            if (!ByteLine.supports(encoding.charset)) {
+                return null;
+            }
+            
+            long[] boundaries = findChunkBoundaries(channel, encoding.offset, size, chunkSize);
+            pool = new ForkJoinPool(threads);
+            
+            List<ForkJoinTask<R>> chunks = new ArrayList<>(boundaries.length - 1);
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                chunks.add(pool.submit(() -> {
+                    if (!TaskEvents.isAvailable()) {
+                        return chunkParser.parse(channel, start, end, encoding.charset);
+                    }
+                    ChunkParsedEvent event = new ChunkParsedEvent();
+                    event.begin();
+                    R result = chunkParser.parse(channel, start, end, encoding.charset);
+                    event.finish(file, start, end, taskCount.applyAsInt(result));
+                    return result;
+                }));
+            }
+            
+            List<R> results = new ArrayList<>(chunks.size());
+            for (ForkJoinTask<R> chunk : chunks) {
+                results.add(chunk.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("解析被中断", e);
+        } catch (ExecutionException e) {
+            // 线程池可能将分块中的IOException包装在RuntimeException中
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
                 }
             }
+            throw new IOException("并行解析失败: " + e.getCause(), e.getCause());
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 计算分块边界，每个边界都位于换行符之后
+     * 
+     * @param channel 文件通道
+     * @param start 第一个分块的起始位置
+     * @param size 文件大小
+     * @param chunkSize 目标分块大小
+     * @return 递增的边界数组，首项为start，末项为文件大小
+     * @throws IOException 如果读取文件出错
+     */
+    private long[] findChunkBoundaries(FileChannel channel, long start, long size, long chunkSize)
+            throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(start);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = start + chunkSize;
+        while (position < size) {
+            // 从目标位置向后查找下一个换行符
+            long boundary = -1;
+            long scan = position;
+            while (boundary < 0 && scan < size) {
+                buffer.clear();
+                int read = channel.read(buffer, scan);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        boundary = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (boundary < 0 || boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            position = boundary + chunkSize;
         }
         
+        boundaries.add(size);
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * 解析文件中的一个分块
+     * 
+     * @param channel 文件通道，映射操作可被多个线程共享
+     * @param start 分块起始位置
+     * @param end 分块结束位置（不含）
+     * @param charset 文件字符集
+     * @return 分块中的任务列表
+     * @throws IOException 如果读取文件出错
+     */
+    private List<Task> parseChunk(FileChannel channel, long start, long end, Charset charset) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try {
+            new MappedTaskIterator<>(this, channel, start, end, charset, TASKS).forEachRemaining(tasks::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
         return tasks;
     }
 
+    /**
+     * 解析文件中的一个分块到任务存储
+     * 
+     * @param channel 文件通道，映射操作可被多个线程共享
+     * @param start 分块起始位置
+     * @param end 分块结束位置（不含）
+     * @param charset 文件字符集
+     * @return 分块中的任务
+     * @throws IOException 如果读取文件出错
+     */
+    private TaskStore parseChunkStore(FileChannel channel, long start, long end, Charset charset) throws IOException {
+        TaskStore store = new TaskStore();
+        Iterator<TaskStore> lines = new MappedTaskIterator<>(this, channel, start, end, charset, store.appender);
+        try {
+            // 每解析出一个任务就已追加到存储中
+            while (lines.hasNext()) {
+                lines.next();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return store;
+    }
+
+    /**
+     * 以流的方式逐行解析Markdown文件中的待办事项
+     * 任务在消费时才被读取和解析，内存占用与文件大小无关。
+     * 返回的流持有打开的文件，使用完毕后必须关闭（建议使用try-with-resources）。
+     * 
+     * @param file Markdown文件
+     * @return 惰性求值的任务流，读取出错时抛出 {@link UncheckedIOException}
+     * @throws IOException 如果打开文件出错
+     */
+    public Stream<Task> streamTasks(File file) throws IOException {
+        return streamTasks(file, null);
+    }
+
+    /**
+     * 以流的方式逐行解析Markdown文件中的待办事项，同时报告读取进度
+     * 每从文件中读取一块数据（几十KB）后，在消费流的线程中以已读取到的文件位置调用一次进度回调，
+     * 可与文件大小比较得出进度。读取领先于解析至多一块，流结束前最后一次报告的位置等于文件大小。
+     * 
+     * @param file Markdown文件
+     * @param progress 进度回调，为null时不报告
+     * @return 惰性求值的任务流，读取出错时抛出 {@link UncheckedIOException}
+     * @throws IOException 如果打开文件出错
+     */
+    public Stream<Task> streamTasks(File file, LongConsumer progress) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            Encoding encoding = detectEncoding(channel);
+            Iterator<Task> tasks;
+            Runnable flushStats;
+            if (ByteLine.supports(encoding.charset)) {
+                MappedTaskIterator<Task> iterator = new MappedTaskIterator<>(this, channel, encoding.offset,
+                        channel.size(), encoding.charset, TASKS);
+                iterator.setProgress(progress);
+                tasks = iterator;
+                flushStats = iterator::flushStats;
+            } else {
+                ParseStats stats = newParseStats();
+                BufferedReader reader = newReader(channel, encoding, stats, progress);
+                tasks = reader.lines()
+                        .map(line -> stats == null ? parseLine(line) : parseLine(line, TASKS, stats))
+                        .filter(Objects::nonNull)
+                        .iterator();
+                flushStats = () -> {
+                    if (stats != null) {
+                        stats.flush();
+                    }
+                };
+            }
+            
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(tasks,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> {
+                        flushStats.run();
+                        try {
+                            channel.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 创建从正文起始位置按字符读取文件的读取器，记录统计信息时同时统计读取的字节数和耗时
+     * 
+     * @param channel 文件通道
+     * @param encoding 字符集及正文起始位置
+     * @param stats 本地计数，不记录统计信息时为null
+     * @param progress 进度回调，为null时不报告
+     * @return 读取器
+     * @throws IOException 如果定位文件出错
+     */
+    private static BufferedReader newReader(FileChannel channel, Encoding encoding, ParseStats stats,
+                                            LongConsumer progress) throws IOException {
+        channel.position(encoding.offset);
+        InputStream in = Channels.newInputStream(channel);
+        if (stats != null) {
+            in = new MeteredInputStream(in, stats.metrics());
+        }
+        if (progress != null) {
+            in = new ProgressInputStream(in, encoding.offset, progress);
+        }
+        return new BufferedReader(new InputStreamReader(in, encoding.charset));
+    }
+
+    /**
+     * 为一个扫描过程创建本地计数
+     * 
+     * @return 本地计数，没有设置统计信息时返回null
+     */
+    ParseStats newParseStats() {
+        TaskMetrics metrics = this.metrics;
+        return metrics != null ? new ParseStats(metrics) : null;
+    }
+
+    /**
+     * 根据文件开头的BOM确定字符集，没有BOM时使用解析器的字符集
+     * 
+     * @param channel 文件通道
+     * @return 字符集及正文起始位置
+     * @throws IOException 如果读取文件出错
+     */
+    Encoding detectEncoding(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(3);
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+            // 读取开头最多3个字节
+        }
+        
+        int length = head.position();
+        int b0 = length > 0 ? head.get(0) & 0xFF : -1;
+        int b1 = length > 1 ? head.get(1) & 0xFF : -1;
+        int b2 = length > 2 ? head.get(2) & 0xFF : -1;
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return new Encoding(StandardCharsets.UTF_8, 3);
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return new Encoding(StandardCharsets.UTF_16BE, 2);
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return new Encoding(StandardCharsets.UTF_16LE, 2);
+        }
+        return new Encoding(charset, 0);
+    }
+
+    /**
+     * 解析一行文本，跳过空行和标题行
+     * 
+     * @param line 文本行
+     * @return 解析出的任务对象，如果不是任务则返回null
+     */
+    Task parseLine(CharSequence line) {
+        return parseLine(line, TASKS);
+    }
+
+    /**
+     * 解析一行文本，跳过空行和标题行，由指定的方式构建解析结果
+     * 
+     * @param line 文本行
+     * @param factory 由标题和描述片段构建解析结果
+     * @return 解析结果，如果不是任务则返回null
+     */
+    <T> T parseLine(CharSequence line, TaskFactory<T> factory) {
+        return isSkippableLine(line) ? null : parseTaskLine(line, factory, null);
+    }
+
+    /**
+     * 解析一行文本并记录到本地计数，按抽样间隔对行匹配计时
+     * 
+     * @param line 文本行
+     * @param factory 由标题和描述片段构建解析结果
+     * @param stats 本地计数
+     * @return 解析结果，如果不是任务则返回null
+     */
+    <T> T parseLine(CharSequence line, TaskFactory<T> factory, ParseStats stats) {
+        boolean skippable = isSkippableLine(line);
+        stats.countLine(skippable);
+        if (skippable) {
+            return null;
+        }
+        
+        T task;
+        if (stats.sample()) {
+            stats.timing = true;
+            long start = System.nanoTime();
+            task = parseTaskLine(line, factory, stats);
+            stats.metrics().record(TaskMetrics.Phase.MATCH, System.nanoTime() - start);
+            stats.timing = false;
+        } else {
+            task = parseTaskLine(line, factory, stats);
+        }
+        if (task != null) {
+            stats.countTask();
+        }
+        return task;
+    }
+
+    /**
+     * 判断是否为应跳过的行（空行或标题行）
+     * 
+     * @param line 文本行
+     * @return 如果应跳过则返回true
+     */
+    private boolean isSkippableLine(CharSequence line) {
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c > ' ') {
+                return c == '#';
+            }
+        }
+        return true;
+    }
+
     /**
      * 解析单行任务文本
+     * 使用手写扫描器一次性定位编号前缀、"//"分隔符和日期，避免正则匹配和中间字符串。
+     * 解析规则与格式 "数字. 标题 // 描述 YYYY/MM/DD-HHam/pm" 保持一致：
+     * 日期从内容中移除后再拆分标题和描述；没有分隔符时标题保留完整内容。
      * 
      * @param line 任务文本行
-     * @return 解析出的任务对象，如果不是任务则返回null
+     * @param factory 由标题和描述片段构建解析结果
+     * @return 解析结果，如果不是任务则返回null
      */
-    private Task parseTaskLine(String line) {
-        Matcher taskMatcher = TASK_PATTERN.matcher(line);
-        if (!taskMatcher.find()) {
+    <T> T parseTaskLine(CharSequence line, TaskFactory<T> factory) {
+        return parseTaskLine(line, factory, null);
+    }
+
+    /**
+     * 解析单行任务文本，当前行被抽中计时时记录日期解析耗时
+     * 
+     * @param line 任务文本行
+     * @param factory 由标题和描述片段构建解析结果
+     * @param stats 本地计数，可为null
+     * @return 解析结果，如果不是任务则返回null
+     */
+    private <T> T parseTaskLine(CharSequence line, TaskFactory<T> factory, ParseStats stats) {
+        // 行尾的单个行终止符不属于任务内容
+        int end = line.length();
+        if (end > 0 && isLineTerminator(line.charAt(end - 1))) {
+            end--;
+        }
+        
+        // 编号前缀: "数字. "
+        int pos = skipWhitespace(line, 0, end);
+        int digitsStart = pos;
+        while (pos < end && isDigit(line.charAt(pos))) {
+            pos++;
+        }
+        if (pos == digitsStart || pos >= end || line.charAt(pos) != '.') {
+            return null;
+        }
+        int separatorStart = ++pos;
+        pos = skipWhitespace(line, pos, end);
+        if (pos == separatorStart) {
             return null;
         }
         
-        // 提取任务内容
-        String fullContent = taskMatcher.group(2);
-        String title = fullContent;
-        String description = "";
-        LocalDateTime dueDate = null;
+        // 任务内容至少包含一个字符，只有空白时取最后一个空白字符
+        int contentStart = pos;
+        if (contentStart == end) {
+            if (end - separatorStart < 2) {
+                return null;
+            }
+            contentStart = end - 1;
+        }
         
-        // 查找日期
-        Matcher dateMatcher = DATE_PATTERN.matcher(fullContent);
-        if (dateMatcher.find()) {
-            String dateStr = dateMatcher.group(0);
-            dueDate = parseDate(dateStr);
-            
-            // 从内容中移除日期部分（用于后续处理）
-            fullContent = fullContent.replace(dateStr, "");
+        // 单遍扫描: 查找第一个日期和第一个"//"
+        // 日期以四位数字加"/"开头，因此只在"/"前恰好有至少四位数字时尝试匹配
+        int dateStart = -1;
+        int dateEnd = -1;
+        int separator = -1;
+        int digitRun = 0;
+        for (int i = contentStart; i < end; i++) {
+            char c = line.charAt(i);
+            if (isDigit(c)) {
+                digitRun++;
+                continue;
+            }
+            if (c == '/') {
+                if (separator < 0 && i + 1 < end && line.charAt(i + 1) == '/') {
+                    separator = i;
+                }
+                if (dateStart < 0 && digitRun >= 4) {
+                    dateEnd = dateCodec.match(line, i - 4, end);
+                    if (dateEnd > 0) {
+                        dateStart = i - 4;
+                    }
+                }
+            } else if (isLineTerminator(c)) {
+                return null;
+            }
+            digitRun = 0;
+        }
+        
+        TaskFilter filter = this.filter;
+        if (dateStart < 0) {
+            if (filter != null && filter.hasDateBounds()) {
+                return null;
+            }
+            return buildTask(line, contentStart, end, line, contentStart, end, separator, null, factory);
         }
         
-        // 查找描述部分（// 后面的内容）
-        Matcher descMatcher = DESCRIPTION_PATTERN.matcher(fullContent);
-        if (descMatcher.find()) {
-            // 分离标题和描述
-            int titleEnd = fullContent.indexOf("//");
-            title = fullContent.substring(0, titleEnd).trim();
-            description = descMatcher.group(1) != null ? descMatcher.group(1).trim() : "";
+        LocalDateTime dueDate;
+        if (stats != null && stats.timing) {
+            long start = System.nanoTime();
+            dueDate = dateCodec.parse(line, dateStart, dateEnd);
+            stats.metrics().record(TaskMetrics.Phase.DATE_PARSE, System.nanoTime() - start);
+        } else {
+            dueDate = dateCodec.parse(line, dateStart, dateEnd);
+        }
+        if (filter != null && !filter.matchesDueDate(dueDate)) {
+            // 截止日期不符合过滤条件，不再拆分标题和描述
+            return null;
+        }
+        if (skipWhitespace(line, dateEnd, end) == end) {
+            // 常见情况: 日期位于行尾，移除日期相当于在日期起点截断内容
+            return buildTask(line, contentStart, end, line, contentStart, dateStart, separator, dueDate, factory);
         }
         
-        return new Task(title, description, dueDate);
+        // 日期位于内容中间: 与原有规则一致，移除所有相同的日期文本后再拆分
+        String content = line.subSequence(contentStart, end).toString();
+        String stripped = content.replace(line.subSequence(dateStart, dateEnd), "");
+        return buildTask(line, contentStart, end, stripped, 0, stripped.length(),
+                stripped.indexOf("//"), dueDate, factory);
     }
 
     /**
-     * 解析日期字符串
+     * 根据内容范围和分隔符位置构建任务
      * 
-     * @param dateStr 日期字符串，格式: YYYY/MM/DD-HHam/pm
-     * @return 解析出的日期时间，如果解析失败则返回null
+     * @param line 原始行，没有分隔符时标题取自原始内容
+     * @param contentStart 原始内容在行中的起始位置
+     * @param contentEnd 原始内容在行中的结束位置（不含）
+     * @param text 去除日期后的内容所在字符串
+     * @param start 去除日期后的内容起始位置
+     * @param end 去除日期后的内容结束位置（不含）
+     * @param separator 第一个"//"的位置，没有则为-1
+     * @param dueDate 截止日期，可为null
+     * @param factory 由标题和描述片段构建解析结果
+     * @return 解析结果
      */
-    private LocalDateTime parseDate(String dateStr) {
-        try {
-            // 匹配格式: 2024/11/22-3pm
-            Pattern pattern = Pattern.compile("(\\d{4})/(\\d{1,2})/(\\d{1,2})-(\\d{1,2})(am|pm)");
-            Matcher matcher = pattern.matcher(dateStr);
-            
-            if (matcher.matches()) {
-                int year = Integer.parseInt(matcher.group(1));
-                int month = Integer.parseInt(matcher.group(2));
-                int day = Integer.parseInt(matcher.group(3));
-                int hour = Integer.parseInt(matcher.group(4));
-                String ampm = matcher.group(5);
-                
-                // 处理12小时制
-                if ("pm".equalsIgnoreCase(ampm) && hour < 12) {
-                    hour += 12;
-                } else if ("am".equalsIgnoreCase(ampm) && hour == 12) {
-                    hour = 0;
+    private <T> T buildTask(CharSequence line, int contentStart, int contentEnd,
+                            CharSequence text, int start, int end, int separator, LocalDateTime dueDate,
+                            TaskFactory<T> factory) {
+        if (separator < 0 || separator >= end) {
+            int titleStart = trimStart(line, contentStart, contentEnd);
+            int titleEnd = trimEnd(line, titleStart, contentEnd);
+            if (filter != null && !filter.matchesTitle(line, titleStart, titleEnd)) {
+                return null;
+            }
+            return factory.create(line, titleStart, titleEnd, line, titleEnd, titleEnd, dueDate);
+        }
+        
+        int titleStart = trimStart(text, start, separator);
+        int titleEnd = trimEnd(text, titleStart, separator);
+        if (filter != null && !filter.matchesTitle(text, titleStart, titleEnd)) {
+            // 标题不符合过滤条件，不再查找描述
+            return null;
+        }
+        
+        // 描述从"//"后的第一个非空白字符开始，去掉末尾空白以及紧跟在末尾的日期
+        int descStart = skipWhitespace(text, separator + 2, end);
+        int descEnd = end;
+        while (descEnd > descStart && isWhitespace(text.charAt(descEnd - 1))) {
+            descEnd--;
+        }
+        if (descEnd == end) {
+            int trailingDate = findTrailingDate(text, descStart, end);
+            if (trailingDate >= 0) {
+                descEnd = trailingDate;
+                while (descEnd > descStart && isWhitespace(text.charAt(descEnd - 1))) {
+                    descEnd--;
                 }
-                
-                return LocalDateTime.of(year, month, day, hour, 0);
             }
-        } catch (DateTimeParseException | NumberFormatException e) {
-            // 解析失败，返回null
         }
         
-        return null;
+        descStart = trimStart(text, descStart, descEnd);
+        descEnd = trimEnd(text, descStart, descEnd);
+        return factory.create(text, titleStart, titleEnd, text, descStart, descEnd, dueDate);
+    }
+
+    /**
+     * 查找恰好在范围末尾结束的日期
+     * 
+     * @return 日期起始位置，没有则返回-1
+     */
+    private int findTrailingDate(CharSequence text, int start, int end) {
+        for (int i = Math.max(start, end - DueDateCodec.MAX_LENGTH); i <= end - DueDateCodec.MIN_LENGTH; i++) {
+            if (dateCodec.match(text, i, end) == end) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 跳过开头的空白和控制字符，与 {@link String#trim()} 一致
+     * 
+     * @return 第一个大于空格的字符的位置
+     */
+    private static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * 去除末尾的空白和控制字符，与 {@link String#trim()} 一致
+     * 
+     * @return 去除后的结束位置（不含）
+     */
+    private static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 跳过空白字符
+     * 
+     * @return 第一个非空白字符的位置
+     */
+    private static int skipWhitespace(CharSequence text, int pos, int end) {
+        while (pos < end && isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * 分块解析方式
+     * 
+     * @param <R> 分块解析结果类型
+     */
+    private interface ChunkParser<R> {
+        R parse(FileChannel channel, long start, long end, Charset charset) throws IOException;
+    }
+
+    /**
+     * 由解析出的标题和描述片段构建解析结果的方式
+     * 片段以所在文本及起止位置给出，已去除首尾空白；对字节行视图，片段直到这里才会被解码或复制。
+     * 
+     * @param <T> 解析结果类型
+     */
+    interface TaskFactory<T> {
+        /**
+         * 构建解析结果
+         * 
+         * @param titleText 标题所在文本
+         * @param titleStart 标题起始位置
+         * @param titleEnd 标题结束位置（不含）
+         * @param descriptionText 描述所在文本
+         * @param descriptionStart 描述起始位置
+         * @param descriptionEnd 描述结束位置（不含），没有描述时与起始位置相同
+         * @param dueDate 截止日期，可为null
+         * @return 解析结果，不能为null
+         */
+        T create(CharSequence titleText, int titleStart, int titleEnd,
+                 CharSequence descriptionText, int descriptionStart, int descriptionEnd, LocalDateTime dueDate);
+    }
+
+    /**
+     * 报告读取位置的输入流
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final LongConsumer progress;
+        private long position;
+
+        ProgressInputStream(InputStream in, long position, LongConsumer progress) {
+            super(in);
+            this.position = position;
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                progress.accept(++position);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = in.read(b, off, len);
+            if (count > 0) {
+                position += count;
+                progress.accept(position);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 统计读取字节数和耗时的输入流
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+        private final TaskMetrics metrics;
+
+        MeteredInputStream(InputStream in, TaskMetrics metrics) {
+            super(in);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                metrics.addBytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int count = in.read(b, off, len);
+            metrics.record(TaskMetrics.Phase.READ, System.nanoTime() - start);
+            if (count > 0) {
+                metrics.addBytesRead(count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 文件字符集及正文起始位置（跳过BOM）
+     */
+    static final class Encoding {
+        final Charset charset;
+        final long offset;
+
+        Encoding(Charset charset, long offset) {
+            this.charset = charset;
+            this.offset = offset;
+        }
     }
-} 
\ No newline at end of file
+}
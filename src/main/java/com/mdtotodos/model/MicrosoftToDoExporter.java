@@ -0,0 +1,383 @@
+package com.mdtotodos.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通过Microsoft Graph API将任务导出到Microsoft To Do
+ * 每个任务是一个创建请求，每 {@value #MAX_BATCH_SIZE} 个请求打包成一个JSON $batch 请求，
+ * 多个批次在线程池中同时发送，在途批次数由 {@link AdaptiveLimit} 按服务器的限流响应自动调整。
+ * 整个批次或其中的单个请求返回429、503或504时，按Retry-After暂停后重新发送被限流的任务。
+ * 设置同步状态日志后只发送变化：新任务以POST创建，内容变化的任务以PATCH修改，从来源文件中移除的任务以DELETE删除。
+ * Graph地址可以替换为本地的模拟服务器，用于测试。
+ */
+public final class MicrosoftToDoExporter {
+    /** Microsoft Graph的默认地址 */
+    public static final String DEFAULT_GRAPH_URL = "https://graph.microsoft.com/v1.0";
+    
+    /** 保存访问令牌的环境变量 */
+    public static final String TOKEN_ENV = "MDTOTODOS_MS_TOKEN";
+    
+    /** 覆盖Graph地址的环境变量 */
+    public static final String GRAPH_URL_ENV = "MDTOTODOS_MS_GRAPH_URL";
+    
+    /** 一个 $batch 请求最多包含的请求数，由Graph限定 */
+    public static final int MAX_BATCH_SIZE = 20;
+    
+    /** 默认的最大在途批次数，Graph对同一邮箱的并发请求限制为4 */
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+    
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    
+    private final String graphUrl;
+    private final RestClient client;
+    private String list;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int batchSize = MAX_BATCH_SIZE;
+    private File journalFile;
+    
+    /**
+     * 创建导出器
+     * 
+     * @param graphUrl Graph API地址，如 {@value #DEFAULT_GRAPH_URL}
+     * @param accessToken 具有Tasks.ReadWrite权限的访问令牌
+     */
+    public MicrosoftToDoExporter(String graphUrl, String accessToken) {
+        this.graphUrl = graphUrl.endsWith("/") ? graphUrl.substring(0, graphUrl.length() - 1) : graphUrl;
+        this.client = new RestClient(accessToken);
+    }
+    
+    /**
+     * 以环境变量 {@value #TOKEN_ENV} 中的访问令牌创建导出器
+     * 设置了环境变量 {@value #GRAPH_URL_ENV} 时使用其中的Graph地址。
+     * 
+     * @return 导出器
+     * @throws UnsupportedOperationException 如果没有设置访问令牌
+     */
+    public static MicrosoftToDoExporter fromEnvironment() {
+        String token = System.getenv(TOKEN_ENV);
+        if (token == null || token.trim().isEmpty()) {
+            throw new UnsupportedOperationException("导出到Microsoft To Do需要访问令牌，请将具有Tasks.ReadWrite权限的"
+                    + "Microsoft Graph访问令牌设置到环境变量 " + TOKEN_ENV);
+        }
+        String url = System.getenv(GRAPH_URL_ENV);
+        return new MicrosoftToDoExporter(url != null && !url.isEmpty() ? url : DEFAULT_GRAPH_URL, token.trim());
+    }
+    
+    /**
+     * 设置导出到的任务列表
+     * 
+     * @param list 列表ID或显示名称，为null时导出到默认列表
+     */
+    public void setList(String list) {
+        this.list = list;
+    }
+    
+    /**
+     * 获取导出到的任务列表
+     * 
+     * @return 列表ID或显示名称，导出到默认列表时返回null
+     */
+    public String getList() {
+        return list;
+    }
+    
+    /**
+     * 设置最大在途批次数，实际并发数在1和该值之间自适应调整
+     * 
+     * @param maxConcurrency 最大在途批次数
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("并发数必须大于0");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+    
+    /**
+     * 获取最大在途批次数
+     * 
+     * @return 最大在途批次数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    /**
+     * 设置每个 $batch 请求包含的任务数
+     * 
+     * @param batchSize 任务数，1到 {@value #MAX_BATCH_SIZE}
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("批次大小必须在1到" + MAX_BATCH_SIZE + "之间");
+        }
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * 设置同步状态日志文件，记录已导出的任务，之后的导出只发送新增、修改和删除的任务，
+     * 中断后重新导出时也只发送剩余的变化
+     * 
+     * @param journalFile 日志文件，为null时每次导出创建全部任务
+     */
+    public void setJournalFile(File journalFile) {
+        this.journalFile = journalFile;
+    }
+    
+    /**
+     * 在任务列表中创建任务
+     * 
+     * @param tasks 任务列表
+     * @return 导出结果
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
+     * @see #export(List, String)
+     */
+    public RemoteExportResult export(List<Task> tasks) throws IOException {
+        return export(tasks, "");
+    }
+    
+    /**
+     * 将来自一个文件的任务导出到任务列表
+     * 单个任务失败不会中断导出，失败的任务数和第一个错误记录在结果中；认证失败时立即停止。
+     * 设置了同步状态日志时只发送与上次导出相比的变化，删除只涉及同一来源文件导出的任务。
+     * 
+     * @param tasks 任务列表
+     * @param source 任务的来源文件，见 {@link ExportJournal#sourceOf(File)}
+     * @return 导出结果
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
+     */
+    public RemoteExportResult export(List<Task> tasks, String source) throws IOException {
+        String listId = resolveListId();
+        String path = "/me/todo/lists/" + RestClient.encode(listId) + "/tasks";
+        if (journalFile == null) {
+            return new Run(tasks, source, path, null).execute();
+        }
+        try (ExportJournal journal = ExportJournal.open(journalFile, "microsoft " + listId)) {
+            return new Run(tasks, source, path, journal).execute();
+        }
+    }
+    
+    /**
+     * 查找任务列表的ID，没有指定列表时使用默认列表
+     * 
+     * @return 列表ID
+     * @throws IOException 如果找不到列表或请求失败
+     */
+    private String resolveListId() throws IOException {
+        String url = graphUrl + "/me/todo/lists";
+        String first = null;
+        while (url != null) {
+            RestClient.Response response = client.send("GET", url, null);
+            if (!response.isSuccess()) {
+                throw new IOException("无法获取Microsoft To Do列表: " + response.errorMessage());
+            }
+            Object json = Json.parse(response.body);
+            Object value = Json.get(json, "value");
+            if (value instanceof List) {
+                for (Object item : (List<?>) value) {
+                    String id = Json.getString(item, "id");
+                    if (list == null ? "defaultList".equals(Json.getString(item, "wellknownListName"))
+                            : list.equals(id) || list.equals(Json.getString(item, "displayName"))) {
+                        return id;
+                    }
+                    if (first == null) {
+                        first = id;
+                    }
+                }
+            }
+            url = Json.getString(json, "@odata.nextLink");
+        }
+        if (list == null && first != null) {
+            return first;
+        }
+        throw new IOException("找不到Microsoft To Do列表: " + (list != null ? list : "默认列表"));
+    }
+    
+    /**
+     * 一次导出，每个批次是一个 $batch 请求
+     */
+    private final class Run extends RemoteExport {
+        private final String path;
+        
+        Run(List<Task> tasks, String source, String path, ExportJournal journal) {
+            super("Microsoft To Do", tasks, source, maxConcurrency, batchSize, journal);
+            this.path = path;
+        }
+        
+        /**
+         * 发送一个批次并处理各任务的结果
+         */
+        @Override
+        void send(List<Item> batch) {
+            List<Item> retry = new ArrayList<>();
+            String error = null;
+            try {
+                RestClient.Response response = client.send("POST", graphUrl + "/$batch", buildBatch(batch));
+                if (response.isThrottled()) {
+                    limit.throttled(RestClient.retryAfterMillis(response.retryAfter));
+                    retry.addAll(batch);
+                    error = response.errorMessage();
+                } else if (response.status == 401 || response.status == 403) {
+                    limit.released();
+                    fail(new IOException("Microsoft Graph认证失败: " + response.errorMessage()));
+                } else if (!response.isSuccess()) {
+                    limit.released();
+                    for (Item item : batch) {
+                        failed(item, response.errorMessage());
+                    }
+                } else {
+                    long retryAfter = -1;
+                    Object responses = Json.get(Json.parse(response.body), "responses");
+                    boolean[] answered = new boolean[batch.size()];
+                    if (responses instanceof List) {
+                        for (Object item : (List<?>) responses) {
+                            int id = parseId(Json.getString(item, "id"), batch.size());
+                            if (id < 0 || answered[id]) {
+                                continue;
+                            }
+                            answered[id] = true;
+                            Object statusValue = Json.get(item, "status");
+                            int status = statusValue instanceof Number ? ((Number) statusValue).intValue() : 0;
+                            Item task = batch.get(id);
+                            if (status >= 200 && status < 300) {
+                                succeeded(task, Json.getString(item, "body", "id"));
+                            } else if (status == 404 && task.operation == Operation.DELETE) {
+                                // 任务已在To Do中被删除
+                                deleted(task);
+                            } else if (status == 404 && task.operation == Operation.UPDATE) {
+                                // 要修改的任务已在To Do中被删除，重新创建
+                                task.operation = Operation.CREATE;
+                                retry.add(task);
+                                error = RestClient.errorMessage(status, Json.get(item, "body"));
+                            } else if (RestClient.isThrottled(status) || status >= 500) {
+                                retry.add(task);
+                                error = RestClient.errorMessage(status, Json.get(item, "body"));
+                                if (RestClient.isThrottled(status)) {
+                                    retryAfter = Math.max(retryAfter,
+                                            RestClient.retryAfterMillis(header(item, "Retry-After")));
+                                }
+                            } else {
+                                failed(task, RestClient.errorMessage(status, Json.get(item, "body")));
+                            }
+                        }
+                    }
+                    for (int i = 0; i < answered.length; i++) {
+                        if (!answered[i]) {
+                            retry.add(batch.get(i));
+                            error = "批量响应中缺少请求 " + i + " 的结果";
+                        }
+                    }
+                    if (retryAfter >= 0) {
+                        limit.throttled(retryAfter);
+                    } else {
+                        limit.succeeded();
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // 网络错误或响应不完整时同样退避后重试
+                limit.throttled(RestClient.DEFAULT_RETRY_AFTER_MILLIS);
+                retry.addAll(batch);
+                error = e.getMessage();
+            } finally {
+                finish(retry, error);
+            }
+        }
+        
+        private void succeeded(Item item, String remoteId) {
+            switch (item.operation) {
+                case CREATE:
+                    created(item, remoteId);
+                    break;
+                case UPDATE:
+                    updated(item);
+                    break;
+                default:
+                    deleted(item);
+                    break;
+            }
+        }
+        
+        /**
+         * 构建 $batch 请求体，请求的id为任务在批次中的位置
+         */
+        private String buildBatch(List<Item> batch) {
+            StringBuilder sb = new StringBuilder(batch.size() * 256);
+            sb.append("{\"requests\":[");
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                Item item = batch.get(i);
+                String method = item.operation == Operation.CREATE ? "POST"
+                        : item.operation == Operation.UPDATE ? "PATCH" : "DELETE";
+                sb.append("{\"id\":\"").append(i).append("\",\"method\":\"").append(method).append("\",\"url\":");
+                Json.appendString(sb, item.operation == Operation.CREATE ? path
+                        : path + "/" + RestClient.encode(item.remoteId));
+                if (item.operation != Operation.DELETE) {
+                    sb.append(",\"headers\":{\"Content-Type\":\"application/json\"},\"body\":");
+                    appendTask(sb, tasks.get(item.index), item.operation == Operation.UPDATE);
+                }
+                sb.append('}');
+            }
+            return sb.append("]}").toString();
+        }
+    }
+    
+    /**
+     * 将任务写为To Do任务的JSON，截止日期按本地时区换算为UTC
+     * 
+     * @param sb 输出
+     * @param task 任务
+     * @param update 是否用于修改，修改时没有描述或截止日期的任务写出空值以清除原有的值
+     */
+    static void appendTask(StringBuilder sb, Task task, boolean update) {
+        sb.append("{\"title\":");
+        Json.appendString(sb, task.getTitle());
+        if (task.hasDescription() || update) {
+            sb.append(",\"body\":{\"content\":");
+            Json.appendString(sb, task.getDescription());
+            sb.append(",\"contentType\":\"text\"}");
+        }
+        if (task.hasDueDate()) {
+            LocalDateTime utc = task.getDueDate().atZone(ZoneId.systemDefault())
+                    .withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+            sb.append(",\"dueDateTime\":{\"dateTime\":\"").append(DATE_TIME_FORMATTER.format(utc))
+                    .append("\",\"timeZone\":\"UTC\"}");
+        } else if (update) {
+            sb.append(",\"dueDateTime\":null");
+        }
+        sb.append('}');
+    }
+    
+    /**
+     * 读取批量响应中单个响应的头，头名称不区分大小写
+     */
+    private static String header(Object response, String name) {
+        Object headers = Json.get(response, "headers");
+        if (headers instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) headers).entrySet()) {
+                if (name.equalsIgnoreCase(String.valueOf(entry.getKey())) && entry.getValue() != null) {
+                    return entry.getValue().toString();
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static int parseId(String id, int size) {
+        try {
+            int value = Integer.parseInt(id);
+            return value >= 0 && value < size ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
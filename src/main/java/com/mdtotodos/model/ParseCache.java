@@ -0,0 +1,573 @@
+package com.mdtotodos.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 持久化的解析结果缓存
+ * 以文件路径、大小、修改时间和字符集作为指纹，指纹不变时直接读取上次的解析结果，不再重新解析文件。
+ * 启用内容校验时改为比较文件大小和内容的CRC32，修改时间变化但内容未变的文件仍可命中。
+ * 每个文件的任务以紧凑的二进制格式单独保存，索引记录所有条目并按最近使用顺序淘汰，
+ * 条目总字节数超过上限时淘汰最久未使用的条目。索引在 {@link #flush()} 或 {@link #close()} 时写回磁盘。
+ * 所有方法都可以在多个线程中同时调用。
+ */
+public class ParseCache implements Closeable {
+    /** 默认的缓存总字节数上限 */
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    
+    private static final String INDEX_FILE = "index";
+    private static final String ENTRY_SUFFIX = ".tasks";
+    private static final int INDEX_MAGIC = 0x4D445449;
+    private static final int ENTRY_MAGIC = 0x4D445443;
+    private static final int VERSION = 1;
+    
+    // 未计算内容校验值时保存的值，CRC32的结果总是非负数
+    private static final long NO_HASH = -1;
+    
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean verifyContent;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private boolean dirty;
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    /**
+     * 解析函数，缓存未命中时调用
+     */
+    public interface Loader {
+        /**
+         * 解析文件中的任务
+         * 
+         * @param file Markdown文件
+         * @return 任务列表
+         * @throws IOException 如果读取文件出错
+         */
+        List<Task> load(File file) throws IOException;
+    }
+    
+    private ParseCache(Path directory, long maxBytes, boolean verifyContent) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.verifyContent = verifyContent;
+    }
+    
+    /**
+     * 打开缓存目录，目录不存在时自动创建
+     * 索引损坏或版本不符时以空缓存开始；不在索引中的条目文件（如上次异常退出时留下的）会被删除。
+     * 
+     * @param directory 缓存目录
+     * @param maxBytes 缓存条目总字节数上限
+     * @param verifyContent 是否以内容校验值代替修改时间判断文件是否变化
+     * @return 缓存
+     * @throws IOException 如果无法创建或读取缓存目录
+     */
+    public static ParseCache open(Path directory, long maxBytes, boolean verifyContent) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("缓存大小必须为正数");
+        }
+        Files.createDirectories(directory);
+        ParseCache cache = new ParseCache(directory, maxBytes, verifyContent);
+        cache.readIndex();
+        cache.deleteUnreferencedEntries();
+        return cache;
+    }
+    
+    /**
+     * 获取文件的解析结果，指纹匹配时读取缓存，否则调用解析函数并保存结果
+     * 指纹在解析前计算，解析期间文件被修改时下次读取会重新解析。
+     * 
+     * @param file Markdown文件
+     * @param charset 解析使用的字符集，属于指纹的一部分
+     * @param loader 缓存未命中时调用的解析函数
+     * @return 任务列表
+     * @throws IOException 如果读取文件出错
+     */
+    public List<Task> getOrLoad(File file, Charset charset, Loader loader) throws IOException {
+        String key = file.getAbsoluteFile().toPath().normalize().toString();
+        Entry current = fingerprint(key, file, charset);
+        
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.matches(current, verifyContent)) {
+            List<Task> tasks = readEntry(cached);
+            if (tasks != null) {
+                synchronized (this) {
+                    hits++;
+                    if (cached.modified != current.modified && entries.get(key) == cached) {
+                        // 内容未变但修改时间变化，更新索引中的指纹
+                        entries.put(key, cached.withModified(current.modified));
+                        dirty = true;
+                    }
+                }
+                return tasks;
+            }
+        }
+        
+        List<Task> tasks = loader.load(file);
+        synchronized (this) {
+            misses++;
+        }
+        writeEntry(current, tasks);
+        return tasks;
+    }
+    
+    /**
+     * @return 缓存命中次数
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * @return 缓存未命中次数
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * @return 因超出大小上限而淘汰的条目数
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * @return 当前缓存的条目数
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+    
+    /**
+     * @return 当前缓存条目的总字节数
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    /**
+     * 将索引写回磁盘，之后缓存仍可继续使用
+     * 
+     * @throws IOException 如果写入索引出错
+     */
+    public synchronized void flush() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                entry.write(out);
+            }
+        }
+        replace(temp, directory.resolve(INDEX_FILE));
+        dirty = false;
+    }
+    
+    /**
+     * 将索引写回磁盘
+     * 
+     * @throws IOException 如果写入索引出错
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+    
+    /**
+     * 计算文件的指纹
+     */
+    private Entry fingerprint(String key, File file, Charset charset) throws IOException {
+        long size = file.length();
+        long modified = file.lastModified();
+        long hash = verifyContent ? checksum(file) : NO_HASH;
+        return new Entry(key, size, modified, charset.name(), hash, entryFileName(key), 0);
+    }
+    
+    /**
+     * 读取条目文件，文件缺失或损坏时从索引中移除该条目
+     * 
+     * @return 任务列表，无法读取时返回null
+     */
+    private List<Task> readEntry(Entry entry) {
+        Path path = directory.resolve(entry.fileName);
+        try {
+            EntryReader in = new EntryReader(Files.readAllBytes(path));
+            if (in.readInt() != ENTRY_MAGIC || in.readInt() != VERSION || !entry.key.equals(in.readString())) {
+                throw new IOException("缓存条目无效: " + path);
+            }
+            
+            LocalDateTime[] dates = new LocalDateTime[in.readVarInt()];
+            for (int i = 0; i < dates.length; i++) {
+                dates[i] = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+            }
+            int count = in.readVarInt();
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String title = in.readString();
+                String description = in.readString();
+                int date = in.readVarInt();
+                tasks.add(new Task(title, description, date == 0 ? null : dates[date - 1]));
+            }
+            return tasks;
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                if (entries.get(entry.key) == entry) {
+                    remove(entry.key);
+                }
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * 保存条目文件并更新索引，超出大小上限时淘汰最久未使用的条目
+     * 条目格式：文件头、截止日期表（不重复的日期，以UTC纪元秒保存），
+     * 之后每个任务依次为标题、描述和截止日期在表中的序号（0表示没有截止日期），长度和序号均为变长整数。
+     */
+    private void writeEntry(Entry fingerprint, List<Task> tasks) throws IOException {
+        Map<LocalDateTime, Integer> dateIndex = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            if (task.hasDueDate()) {
+                dateIndex.putIfAbsent(task.getDueDate(), dateIndex.size() + 1);
+            }
+        }
+        
+        EntryWriter out = new EntryWriter(tasks.size() * 32 + 64);
+        out.writeInt(ENTRY_MAGIC);
+        out.writeInt(VERSION);
+        out.writeString(fingerprint.key);
+        out.writeVarInt(dateIndex.size());
+        for (LocalDateTime date : dateIndex.keySet()) {
+            out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+        }
+        out.writeVarInt(tasks.size());
+        for (Task task : tasks) {
+            out.writeString(task.getTitle());
+            out.writeString(task.getDescription());
+            out.writeVarInt(task.hasDueDate() ? dateIndex.get(task.getDueDate()) : 0);
+        }
+        
+        Path temp = Files.createTempFile(directory, fingerprint.fileName, ".tmp");
+        try {
+            out.writeTo(temp);
+            long bytes = out.size();
+            
+            synchronized (this) {
+                replace(temp, directory.resolve(fingerprint.fileName));
+                remove(fingerprint.key);
+                entries.put(fingerprint.key, fingerprint.withBytes(bytes));
+                totalBytes += bytes;
+                dirty = true;
+                evict();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * 淘汰最久未使用的条目，直到总字节数不超过上限
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.bytes;
+            deleteQuietly(directory.resolve(eldest.fileName));
+            evictions++;
+        }
+    }
+    
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+            dirty = true;
+        }
+    }
+    
+    /**
+     * 读取索引，索引不存在、损坏或版本不符时以空缓存开始
+     */
+    private void readIndex() {
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = Entry.read(in);
+                entries.put(entry.key, entry);
+                totalBytes += entry.bytes;
+            }
+        } catch (IOException e) {
+            entries.clear();
+            totalBytes = 0;
+            dirty = true;
+        }
+    }
+    
+    /**
+     * 删除不在索引中的条目文件和临时文件
+     */
+    private void deleteUnreferencedEntries() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        for (Entry entry : entries.values()) {
+            referenced.add(entry.fileName);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.equals(INDEX_FILE) && !referenced.contains(name)
+                        && (name.endsWith(ENTRY_SUFFIX) || name.endsWith(".tmp"))) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 计算文件内容的CRC32校验值
+     */
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+    
+    /**
+     * 根据路径生成条目文件名（64位FNV-1a哈希），文件内记录完整路径用于校验
+     */
+    private static String entryFileName(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return String.format("%016x", hash) + ENTRY_SUFFIX;
+    }
+    
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 下次打开缓存时会再次清理
+        }
+    }
+    
+    /**
+     * 索引条目，同时用作文件指纹
+     */
+    private static final class Entry {
+        final String key;
+        final long size;
+        final long modified;
+        final String charset;
+        final long hash;
+        final String fileName;
+        final long bytes;
+        
+        Entry(String key, long size, long modified, String charset, long hash, String fileName, long bytes) {
+            this.key = key;
+            this.size = size;
+            this.modified = modified;
+            this.charset = charset;
+            this.hash = hash;
+            this.fileName = fileName;
+            this.bytes = bytes;
+        }
+        
+        /**
+         * 判断缓存的指纹是否与文件当前的指纹一致
+         * 
+         * @param current 文件当前的指纹
+         * @param verifyContent 是否比较内容校验值而不是修改时间
+         */
+        boolean matches(Entry current, boolean verifyContent) {
+            if (size != current.size || !charset.equals(current.charset)) {
+                return false;
+            }
+            return verifyContent ? hash != NO_HASH && hash == current.hash : modified == current.modified;
+        }
+        
+        Entry withModified(long newModified) {
+            return new Entry(key, size, newModified, charset, hash, fileName, bytes);
+        }
+        
+        Entry withBytes(long newBytes) {
+            return new Entry(key, size, modified, charset, hash, fileName, newBytes);
+        }
+        
+        void write(DataOutputStream out) throws IOException {
+            out.writeUTF(key);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeUTF(charset);
+            out.writeLong(hash);
+            out.writeUTF(fileName);
+            out.writeLong(bytes);
+        }
+        
+        static Entry read(DataInputStream in) throws IOException {
+            return new Entry(in.readUTF(), in.readLong(), in.readLong(), in.readUTF(),
+                    in.readLong(), in.readUTF(), in.readLong());
+        }
+    }
+    
+    /**
+     * 条目文件读取器，直接在整个文件的字节数组上解码
+     */
+    private static final class EntryReader {
+        private final byte[] data;
+        private int pos;
+        
+        EntryReader(byte[] data) {
+            this.data = data;
+        }
+        
+        int readInt() {
+            int value = (data[pos] & 0xFF) << 24 | (data[pos + 1] & 0xFF) << 16
+                    | (data[pos + 2] & 0xFF) << 8 | (data[pos + 3] & 0xFF);
+            pos += 4;
+            return value;
+        }
+        
+        long readLong() {
+            long high = readInt();
+            return high << 32 | (readInt() & 0xFFFFFFFFL);
+        }
+        
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+        
+        String readString() {
+            int length = readVarInt();
+            if (length == 0) {
+                return "";
+            }
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+    
+    /**
+     * 条目文件写入器，先在内存中编码再一次写出
+     */
+    private static final class EntryWriter {
+        private byte[] data;
+        private int size;
+        
+        EntryWriter(int capacity) {
+            this.data = new byte[capacity];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        void writeInt(int value) {
+            ensureCapacity(4);
+            data[size++] = (byte) (value >>> 24);
+            data[size++] = (byte) (value >>> 16);
+            data[size++] = (byte) (value >>> 8);
+            data[size++] = (byte) value;
+        }
+        
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+        
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+        
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+        
+        void writeTo(Path file) throws IOException {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(data, 0, size);
+            }
+        }
+        
+        private void ensureCapacity(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mdtotodos.model;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 解析一个文件的JFR事件，持续时间覆盖加载或转换整个文件
+ * 只能在 {@link TaskEvents#isAvailable()} 返回true时创建。
+ */
+@Name("com.mdtotodos.ParseFile")
+@Label("解析文件")
+@Description("从Markdown文件或任务快照加载任务，转换时包括写出")
+@Category(TaskEvents.CATEGORY)
+@StackTrace(false)
+public final class ParseFileEvent extends Event {
+    @Label("文件")
+    String path;
+    
+    @Label("文件大小")
+    @DataAmount
+    long bytes;
+    
+    @Label("任务数")
+    int tasks;
+    
+    @Label("解析线程数")
+    int threads;
+    
+    @Label("方式")
+    @Description("snapshot、incremental、cache、compact、pipeline、stream 或 list")
+    String mode;
+    
+    /**
+     * 结束计时，有录制在进行时填写字段并提交事件
+     * 
+     * @param file 解析的文件
+     * @param mode 加载方式
+     * @param taskCount 得到的任务数
+     * @param threadCount 解析线程数
+     */
+    public void finish(File file, String mode, int taskCount, int threadCount) {
+        end();
+        if (shouldCommit()) {
+            this.path = file.getPath();
+            this.bytes = file.length();
+            this.mode = mode;
+            this.tasks = taskCount;
+            this.threads = threadCount;
+            commit();
+        }
+    }
+}
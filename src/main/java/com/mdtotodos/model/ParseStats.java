@@ -0,0 +1,68 @@
+package com.mdtotodos.model;
+
+/**
+ * 单个扫描过程的本地计数，累积一段后批量写入 {@link TaskMetrics}
+ * 每个迭代器或读取循环各自持有一个实例，不是线程安全的。
+ */
+final class ParseStats {
+    private final TaskMetrics metrics;
+    private long lines;
+    private long skipped;
+    private long tasks;
+    private int untilSample = 1;
+    
+    // 当前行是否被抽中计时，由解析器在解析一行前设置
+    boolean timing;
+    
+    ParseStats(TaskMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    TaskMetrics metrics() {
+        return metrics;
+    }
+    
+    /**
+     * 记录扫描的一行
+     * 
+     * @param skippable 是否为空行或标题行
+     */
+    void countLine(boolean skippable) {
+        lines++;
+        if (skippable) {
+            skipped++;
+        }
+    }
+    
+    /**
+     * 记录解析出的一个任务
+     */
+    void countTask() {
+        tasks++;
+    }
+    
+    /**
+     * 判断下一行是否抽中计时，每 {@link TaskMetrics#SAMPLE_INTERVAL} 行抽中一行
+     * 
+     * @return 如果应计时返回true
+     */
+    boolean sample() {
+        if (--untilSample > 0) {
+            return false;
+        }
+        untilSample = TaskMetrics.SAMPLE_INTERVAL;
+        return true;
+    }
+    
+    /**
+     * 将累积的计数写入统计信息并清零
+     */
+    void flush() {
+        if (lines > 0) {
+            metrics.addLines(lines, tasks, lines - skipped - tasks);
+            lines = 0;
+            skipped = 0;
+            tasks = 0;
+        }
+    }
+}
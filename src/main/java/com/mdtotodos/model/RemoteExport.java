@@ -0,0 +1,328 @@
+package com.mdtotodos.model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 一次远程导出的调度状态，由各平台的导出器继承
+ * 待发送的任务在队列中，调用线程按 {@link AdaptiveLimit} 的上限取出批次交给线程池发送，
+ * 子类在 {@link #send(List)} 中发送一个批次并报告每个任务的结果，需要重试的任务放回队列头部，
+ * 队列为空且没有在途批次时结束。
+ * 设置了同步状态日志时，只把日志中没有的任务作为创建、内容变化的任务作为修改、
+ * 同一来源文件中已不存在的任务作为删除放入队列，每个被确认的操作立即记录到日志。
+ */
+abstract class RemoteExport {
+    // 单个任务最多发送的次数，超过后记为失败
+    static final int MAX_ATTEMPTS = 8;
+    
+    final List<Task> tasks;
+    final AdaptiveLimit limit;
+    private final String platform;
+    private final int maxConcurrency;
+    private final int batchSize;
+    private final ExportJournal journal;
+    private final Deque<Item> pending = new ArrayDeque<>();
+    // 要删除但没有远程ID的任务，只从日志中移除
+    private final List<String> orphans = new ArrayList<>();
+    private final long start = System.nanoTime();
+    private int inFlight;
+    private int created;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+    private int failed;
+    private int retries;
+    private String firstError;
+    private IOException fatal;
+    
+    /**
+     * @param platform 平台名称，用于结果和错误信息
+     * @param tasks 任务列表
+     * @param source 任务的来源文件，见 {@link ExportJournal#sourceOf(java.io.File)}
+     * @param maxConcurrency 最大在途批次数
+     * @param batchSize 每个批次的任务数
+     * @param journal 同步状态日志，不使用时为null
+     */
+    RemoteExport(String platform, List<Task> tasks, String source, int maxConcurrency, int batchSize,
+                 ExportJournal journal) {
+        this.platform = platform;
+        this.tasks = tasks;
+        this.maxConcurrency = maxConcurrency;
+        this.batchSize = batchSize;
+        this.journal = journal;
+        this.limit = new AdaptiveLimit((maxConcurrency + 1) / 2, maxConcurrency);
+        if (journal == null) {
+            for (int i = 0; i < tasks.size(); i++) {
+                pending.add(new Item(Operation.CREATE, i, null, null, null));
+            }
+        } else {
+            plan(source);
+        }
+    }
+    
+    /**
+     * 与同步状态日志比较，把需要创建、修改和删除的任务放入队列
+     */
+    private void plan(String source) {
+        String[] keys = ExportJournal.keysOf(source, tasks);
+        Set<String> current = new HashSet<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            current.add(key);
+            String hash = ExportJournal.contentHash(tasks.get(i));
+            String remoteId = journal.getRemoteId(key);
+            if (remoteId == null) {
+                pending.add(new Item(Operation.CREATE, i, key, null, hash));
+            } else if (remoteId.isEmpty() || hash.equals(journal.getContentHash(key))) {
+                // 没有远程ID的任务无法修改，与内容未变化的任务一样跳过
+                unchanged++;
+            } else {
+                pending.add(new Item(Operation.UPDATE, i, key, remoteId, hash));
+            }
+        }
+        for (String key : journal.keysFrom(source)) {
+            if (!current.contains(key)) {
+                String remoteId = journal.getRemoteId(key);
+                if (remoteId.isEmpty()) {
+                    orphans.add(key);
+                } else {
+                    pending.add(new Item(Operation.DELETE, -1, key, remoteId, null));
+                }
+            }
+        }
+    }
+    
+    /**
+     * 发送一个批次，在线程池中执行
+     * 实现按每个任务的操作发送请求，对每个任务调用 {@link #created}、{@link #updated}、{@link #deleted}
+     * 或 {@link #failed}，或放入重试列表，
+     * 最后必须调用一次 {@link #finish}；在途上限按响应调用 {@link #limit} 的相应方法。
+     * 
+     * @param batch 一批任务
+     */
+    abstract void send(List<Item> batch);
+    
+    /**
+     * 发送全部任务并等待完成
+     * 
+     * @return 导出结果
+     * @throws IOException 如果出现致命错误或导出被中断
+     */
+    RemoteExportResult execute() throws IOException {
+        for (String key : orphans) {
+            journal.remove(key);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "remote-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            while (true) {
+                limit.acquire();
+                List<Item> batch = takeBatch();
+                if (batch == null) {
+                    limit.released();
+                    break;
+                }
+                pool.execute(() -> send(batch));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("导出到" + platform + "时被中断");
+        } finally {
+            // 在途批次的HTTP请求无法中断，出错时也要等它们完成，服务器已确认的操作都记录到日志后调用者才能关闭日志
+            pool.shutdown();
+            awaitInFlight();
+        }
+        
+        synchronized (this) {
+            if (fatal != null) {
+                throw fatal;
+            }
+            return new RemoteExportResult(platform, created, updated, deleted, unchanged, failed, retries,
+                    limit.getThrottleCount(), System.nanoTime() - start, firstError);
+        }
+    }
+    
+    /**
+     * 等待在途批次全部完成，期间的中断在返回后恢复
+     */
+    private synchronized void awaitInFlight() {
+        boolean interrupted = false;
+        while (inFlight > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * 取出下一批任务，队列为空但还有在途批次时等待它们完成（可能有任务放回队列）
+     * 
+     * @return 一批任务，全部完成或出现致命错误时返回null
+     */
+    private synchronized List<Item> takeBatch() throws InterruptedException {
+        while (pending.isEmpty() && inFlight > 0 && fatal == null) {
+            wait();
+        }
+        if (fatal != null || pending.isEmpty()) {
+            return null;
+        }
+        List<Item> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && !pending.isEmpty()) {
+            batch.add(pending.poll());
+        }
+        inFlight++;
+        return batch;
+    }
+    
+    /**
+     * 任务已被服务器确认创建，记录到同步状态日志
+     * 
+     * @param item 任务
+     * @param remoteId 服务器返回的任务ID
+     */
+    void created(Item item, String remoteId) {
+        if (journal != null) {
+            try {
+                journal.record(item.key, remoteId, item.hash);
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        }
+        synchronized (this) {
+            created++;
+        }
+    }
+    
+    /**
+     * 任务已被服务器确认修改，记录新的内容哈希值
+     * 
+     * @param item 任务
+     */
+    void updated(Item item) {
+        try {
+            journal.record(item.key, item.remoteId, item.hash);
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+        synchronized (this) {
+            updated++;
+        }
+    }
+    
+    /**
+     * 任务已被服务器确认删除（或在服务器上已不存在），从同步状态日志中移除
+     * 
+     * @param item 任务
+     */
+    void deleted(Item item) {
+        try {
+            journal.remove(item.key);
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+        synchronized (this) {
+            deleted++;
+        }
+    }
+    
+    private void journalFailed(IOException e) {
+        fail(new IOException("无法写入同步状态日志: " + e.getMessage(), e));
+    }
+    
+    /**
+     * 任务被服务器拒绝，不再重试
+     * 
+     * @param item 任务
+     * @param error 错误信息
+     */
+    synchronized void failed(Item item, String error) {
+        recordFailure(error);
+    }
+    
+    /**
+     * 批次处理完毕，把需要重试的任务放回队列，超过发送次数的记为失败
+     * 
+     * @param retry 需要重试的任务
+     * @param error 重试的原因
+     */
+    synchronized void finish(List<Item> retry, String error) {
+        inFlight--;
+        for (int i = retry.size() - 1; i >= 0; i--) {
+            Item item = retry.get(i);
+            if (++item.attempts >= MAX_ATTEMPTS) {
+                recordFailure(error);
+            } else {
+                retries++;
+                pending.addFirst(item);
+            }
+        }
+        notifyAll();
+    }
+    
+    /**
+     * 出现无法继续的错误（如认证失败），停止发出新的批次
+     * 
+     * @param e 错误
+     */
+    synchronized void fail(IOException e) {
+        if (fatal == null) {
+            fatal = e;
+        }
+        notifyAll();
+    }
+    
+    private void recordFailure(String error) {
+        failed++;
+        if (firstError == null) {
+            firstError = error;
+        }
+    }
+    
+    /**
+     * 对远程任务的操作
+     */
+    enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+    
+    /**
+     * 队列中的任务、要执行的操作及已发送的次数
+     */
+    static final class Item {
+        /** 任务在列表中的位置，删除时为-1 */
+        final int index;
+        final String key;
+        /** 远程任务ID，修改和删除时使用 */
+        final String remoteId;
+        final String hash;
+        /** 要修改的任务在服务器上已不存在时改为创建 */
+        Operation operation;
+        int attempts;
+        
+        Item(Operation operation, int index, String key, String remoteId, String hash) {
+            this.operation = operation;
+            this.index = index;
+            this.key = key;
+            this.remoteId = remoteId;
+            this.hash = hash;
+        }
+    }
+}
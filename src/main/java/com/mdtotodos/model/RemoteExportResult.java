@@ -0,0 +1,132 @@
+package com.mdtotodos.model;
+
+import java.util.Locale;
+
+/**
+ * 导出到远程任务服务的结果
+ */
+public final class RemoteExportResult {
+    private final String platform;
+    private final int created;
+    private final int updated;
+    private final int deleted;
+    private final int unchanged;
+    private final int failed;
+    private final int retries;
+    private final int throttles;
+    private final long elapsedNanos;
+    private final String firstError;
+    
+    RemoteExportResult(String platform, int created, int updated, int deleted, int unchanged, int failed,
+                       int retries, int throttles, long elapsedNanos, String firstError) {
+        this.platform = platform;
+        this.created = created;
+        this.updated = updated;
+        this.deleted = deleted;
+        this.unchanged = unchanged;
+        this.failed = failed;
+        this.retries = retries;
+        this.throttles = throttles;
+        this.elapsedNanos = elapsedNanos;
+        this.firstError = firstError;
+    }
+    
+    /**
+     * @return 成功创建的任务数
+     */
+    public int getCreated() {
+        return created;
+    }
+    
+    /**
+     * @return 内容变化而修改的任务数
+     */
+    public int getUpdated() {
+        return updated;
+    }
+    
+    /**
+     * @return 已从来源文件中移除而删除的任务数
+     */
+    public int getDeleted() {
+        return deleted;
+    }
+    
+    /**
+     * @return 同步状态日志中已导出且内容未变化而跳过的任务数
+     */
+    public int getUnchanged() {
+        return unchanged;
+    }
+    
+    /**
+     * @return 重试后仍然失败的任务数
+     */
+    public int getFailed() {
+        return failed;
+    }
+    
+    /**
+     * @return 重新发送的任务数（同一任务重试多次时计多次）
+     */
+    public int getRetries() {
+        return retries;
+    }
+    
+    /**
+     * @return 被服务器限流的次数
+     */
+    public int getThrottles() {
+        return throttles;
+    }
+    
+    /**
+     * @return 导出用时（纳秒）
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    /**
+     * @return 第一个失败任务的错误信息，没有失败时为null
+     */
+    public String getFirstError() {
+        return firstError;
+    }
+    
+    /**
+     * 获取导出速度
+     * 
+     * @return 每秒成功创建、修改和删除的任务数
+     */
+    public double getTasksPerSecond() {
+        return elapsedNanos > 0 ? (created + updated + deleted) * 1e9 / elapsedNanos : 0;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(platform).append(": 创建 ").append(created).append(" 个任务");
+        if (updated > 0) {
+            sb.append("，修改 ").append(updated).append(" 个");
+        }
+        if (deleted > 0) {
+            sb.append("，删除 ").append(deleted).append(" 个");
+        }
+        if (unchanged > 0) {
+            sb.append("，未变化 ").append(unchanged).append(" 个");
+        }
+        if (failed > 0) {
+            sb.append("，失败 ").append(failed).append(" 个");
+        }
+        sb.append(String.format(Locale.ROOT, "，用时 %.1f 秒 (%.0f 个任务/秒)",
+                elapsedNanos / 1e9, getTasksPerSecond()));
+        if (throttles > 0 || retries > 0) {
+            sb.append("，限流 ").append(throttles).append(" 次，重试 ").append(retries).append(" 个任务");
+        }
+        if (firstError != null) {
+            sb.append("\n  首个错误: ").append(firstError);
+        }
+        return sb.toString();
+    }
+}
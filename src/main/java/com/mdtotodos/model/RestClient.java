@@ -0,0 +1,198 @@
+package com.mdtotodos.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 以JSON收发数据的HTTP客户端
+ * 基于 {@link HttpURLConnection}，完整读取响应后连接回到JDK的keep-alive连接池，
+ * 多个线程同时使用时各自取得连接。
+ */
+final class RestClient {
+    // 连接和读取超时（毫秒）
+    private static final int CONNECT_TIMEOUT = 10_000;
+    private static final int READ_TIMEOUT = 60_000;
+    
+    // 没有Retry-After时限流后的默认等待时间（毫秒）
+    static final long DEFAULT_RETRY_AFTER_MILLIS = 1_000;
+    
+    private final String accessToken;
+    
+    /**
+     * 创建客户端
+     * 
+     * @param accessToken OAuth访问令牌，以Bearer方式发送
+     */
+    RestClient(String accessToken) {
+        this.accessToken = accessToken;
+    }
+    
+    /**
+     * HTTP响应
+     */
+    static final class Response {
+        final int status;
+        final String body;
+        final String retryAfter;
+        
+        Response(int status, String body, String retryAfter) {
+            this.status = status;
+            this.body = body;
+            this.retryAfter = retryAfter;
+        }
+        
+        /**
+         * 是否为成功的状态码
+         * 
+         * @return 如果状态码为2xx返回true
+         */
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+        
+        /**
+         * 是否为应稍后重试的状态码：429、503或504
+         * 
+         * @return 如果应重试返回true
+         */
+        boolean isThrottled() {
+            return RestClient.isThrottled(status);
+        }
+        
+        /**
+         * 从响应体中提取错误信息
+         * 
+         * @return 错误信息
+         */
+        String errorMessage() {
+            return RestClient.errorMessage(status, body);
+        }
+    }
+    
+    /**
+     * 发送请求并读取完整的响应
+     * 
+     * @param method HTTP方法，PATCH以POST加 X-HTTP-Method-Override 头发送
+     * @param url 地址
+     * @param jsonBody 请求体，没有请求体时为null
+     * @return 响应
+     * @throws IOException 如果网络出错
+     */
+    Response send(String method, String url, String jsonBody) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        if ("PATCH".equals(method)) {
+            // HttpURLConnection不支持PATCH，Google API接受以该头指明实际方法的POST请求
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("X-HTTP-Method-Override", "PATCH");
+        } else {
+            connection.setRequestMethod(method);
+        }
+        connection.setRequestProperty("Authorization", "Bearer " + accessToken);
+        connection.setRequestProperty("Accept", "application/json");
+        if (jsonBody != null) {
+            byte[] bytes = jsonBody.getBytes(StandardCharsets.UTF_8);
+            // 不使用流式模式：请求体先缓冲，与请求头在同一次写出中发送，
+            // 避免请求头和请求体分两个TCP段发送时Nagle算法与延迟确认造成约40毫秒的等待
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        }
+        
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        String body = in != null ? readFully(in) : "";
+        return new Response(status, body, connection.getHeaderField("Retry-After"));
+    }
+    
+    /**
+     * 是否为应稍后重试的状态码
+     * 
+     * @param status HTTP状态码
+     * @return 如果为429、503或504返回true
+     */
+    static boolean isThrottled(int status) {
+        return status == 429 || status == 503 || status == 504;
+    }
+    
+    /**
+     * 解析Retry-After头，支持秒数和HTTP日期两种格式
+     * 
+     * @param value 头的值，可以为null
+     * @return 等待时间（毫秒），没有或无法解析时返回 {@link #DEFAULT_RETRY_AFTER_MILLIS}
+     */
+    static long retryAfterMillis(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_RETRY_AFTER_MILLIS;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return DEFAULT_RETRY_AFTER_MILLIS;
+            }
+        }
+    }
+    
+    /**
+     * 从错误响应体中提取错误信息，支持 {"error": {"message": ...}} 格式
+     * 
+     * @param status HTTP状态码
+     * @param body 响应体
+     * @return 错误信息
+     */
+    static String errorMessage(int status, Object body) {
+        String message = null;
+        try {
+            Object json = body instanceof String ? Json.parse((String) body) : body;
+            message = Json.getString(json, "error", "message");
+        } catch (IllegalArgumentException ignored) {
+            // 响应体不是JSON
+        }
+        return "HTTP " + status + (message != null ? ": " + message : "");
+    }
+    
+    /**
+     * 对URL路径中的一段进行编码
+     * 
+     * @param value 路径段，如任务列表ID
+     * @return 编码后的路径段
+     */
+    static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
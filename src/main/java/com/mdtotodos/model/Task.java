@@ -107,14 +107,14 @@ public class Task {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("标题: ").append(title);
+        sb.append("标题: ").append(getTitle());
         
         if (hasDescription()) {
-            sb.append(", 描述: ").append(description);
+            sb.append(", 描述: ").append(getDescription());
         }
         
         if (hasDueDate()) {
-            sb.append(", 截止日期: ").append(dueDate);
+            sb.append(", 截止日期: ").append(getDueDate());
         }
         
         return sb.toString();
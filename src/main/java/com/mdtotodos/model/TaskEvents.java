@@ -0,0 +1,37 @@
+package com.mdtotodos.model;
+
+/**
+ * Java Flight Recorder自定义事件的可用性检查
+ * 事件类继承 jdk.jfr.Event，只有Java 11+ 或 8u262 以上的运行环境才提供；
+ * 创建事件前必须先调用 {@link #isAvailable()}，否则在较早的Java 8上会因找不到类而失败。
+ * 没有正在进行的录制时事件不会被提交，只有创建事件对象的开销，而且每个文件或分块只创建一次。
+ * 录制示例：{@code java -XX:StartFlightRecording=filename=run.jfr -jar mdtotodos.jar ...}，
+ * 之后用 {@code jfr print --categories md2Todos run.jfr} 或JDK Mission Control查看。
+ */
+public final class TaskEvents {
+    /** 事件分类，在JDK Mission Control中按此分组 */
+    static final String CATEGORY = "md2Todos";
+    
+    private static final boolean AVAILABLE = detect();
+    
+    private TaskEvents() {
+    }
+    
+    /**
+     * 检查运行环境是否支持JFR自定义事件
+     * 
+     * @return 如果可以创建事件返回true
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+    
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, TaskEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.mdtotodos.model;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 /**
  * 任务导出器，用于将任务导出到不同的目标平台
  */
 public class TaskExporter {
+    private TaskMetrics metrics;
+    private MicrosoftToDoExporter microsoftToDo;
+    private GoogleTasksExporter googleTasks;
     
     /**
      * 导出平台类型枚举
@@ -22,8 +26,103 @@ public class TaskExporter {
         GOOGLE_TASKS
     }
     
-    private static final DateTimeFormatter DATE_FORMATTER = 
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /**
+     * 为基于文件的导出平台创建任务接收器
+     * 
+     * @param platform 导出平台（CSV或JSON）
+     * @param file 目标文件
+     * @return 尚未打开的任务接收器
+     * @throws IOException 如果创建文件出错
+     * @throws UnsupportedOperationException 如果平台不是基于文件的导出
+     */
+    public TaskSink createSink(ExportPlatform platform, File file) throws IOException {
+        BufferedTaskSink sink;
+        switch (platform) {
+            case CSV:
+                sink = new CsvTaskSink(openChannel(file), Charset.defaultCharset());
+                break;
+            case JSON:
+                sink = new JsonTaskSink(openChannel(file), Charset.defaultCharset());
+                break;
+            default:
+                throw new UnsupportedOperationException("该平台不支持导出到文件: " + platform);
+        }
+        sink.setMetrics(metrics);
+        sink.setPath(file.getPath());
+        return sink;
+    }
+    
+    /**
+     * 打开输出文件的通道，文件不存在时创建，已存在时清空
+     */
+    private static FileChannel openChannel(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+    
+    /**
+     * 获取记录导出统计信息的对象
+     * 
+     * @return 统计信息，没有设置时返回null
+     */
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * 设置记录导出统计信息的对象，之后创建的任务接收器都会记录写出的字节数和耗时
+     * 
+     * @param metrics 统计信息，为null时不记录
+     */
+    public void setMetrics(TaskMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * 设置导出到Microsoft To Do时使用的导出器
+     * 
+     * @param microsoftToDo 导出器，为null时从环境变量读取访问令牌创建
+     */
+    public void setMicrosoftToDo(MicrosoftToDoExporter microsoftToDo) {
+        this.microsoftToDo = microsoftToDo;
+    }
+    
+    /**
+     * 设置导出到Google Tasks时使用的导出器
+     * 
+     * @param googleTasks 导出器，为null时从环境变量读取访问令牌创建
+     */
+    public void setGoogleTasks(GoogleTasksExporter googleTasks) {
+        this.googleTasks = googleTasks;
+    }
+    
+    /**
+     * 将任务逐个写入任务接收器
+     * 接收器会被打开，但不会被关闭。
+     * 
+     * @param tasks 任务
+     * @param sink 任务接收器
+     * @throws IOException 如果写入出错
+     */
+    public void export(Iterable<Task> tasks, TaskSink sink) throws IOException {
+        sink.open();
+        for (Task task : tasks) {
+            sink.accept(task);
+        }
+    }
+    
+    /**
+     * 将任务表中的任务写入任务接收器
+     * 接收器会被打开，但不会被关闭。
+     * 
+     * @param tasks 任务表
+     * @param sink 任务接收器
+     * @throws IOException 如果写入出错
+     */
+    public void export(TaskTable tasks, TaskSink sink) throws IOException {
+        sink.open();
+        sink.acceptAll(tasks);
+    }
     
     /**
      * 将任务导出到CSV文件
@@ -33,30 +132,8 @@ public class TaskExporter {
      * @throws IOException 如果写入文件出错
      */
     public void exportToCSV(List<Task> tasks, File file) throws IOException {
-        try (FileWriter writer = new FileWriter(file)) {
-            // 写入CSV头
-            writer.write("title,description,due_date\n");
-            
-            // 写入每个任务
-            for (Task task : tasks) {
-                StringBuilder sb = new StringBuilder();
-                
-                // 标题（处理逗号）
-                sb.append("\"").append(task.getTitle().replace("\"", "\"\"")).append("\"").append(",");
-                
-                // 描述（处理逗号）
-                sb.append("\"").append(task.getDescription().replace("\"", "\"\"")).append("\"").append(",");
-                
-                // 截止日期
-                if (task.hasDueDate()) {
-                    sb.append("\"").append(task.getDueDate().format(DATE_FORMATTER)).append("\"");
-                } else {
-                    sb.append("\"\"");
-                }
-                
-                sb.append("\n");
-                writer.write(sb.toString());
-            }
+        try (TaskSink sink = createSink(ExportPlatform.CSV, file)) {
+            export(tasks, sink);
         }
     }
     
@@ -68,36 +145,8 @@ public class TaskExporter {
      * @throws IOException 如果写入文件出错
      */
     public void exportToJSON(List<Task> tasks, File file) throws IOException {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write("[\n");
-            
-            for (int i = 0; i < tasks.size(); i++) {
-                Task task = tasks.get(i);
-                writer.write("  {\n");
-                
-                // 标题
-                writer.write("    \"title\": \"" + escapeJson(task.getTitle()) + "\",\n");
-                
-                // 描述
-                writer.write("    \"description\": \"" + escapeJson(task.getDescription()) + "\"");
-                
-                // 截止日期
-                if (task.hasDueDate()) {
-                    writer.write(",\n    \"due_date\": \"" + 
-                            task.getDueDate().format(DATE_FORMATTER) + "\"");
-                }
-                
-                writer.write("\n  }");
-                
-                // 如果不是最后一个任务，添加逗号
-                if (i < tasks.size() - 1) {
-                    writer.write(",");
-                }
-                
-                writer.write("\n");
-            }
-            
-            writer.write("]\n");
+        try (TaskSink sink = createSink(ExportPlatform.JSON, file)) {
+            export(tasks, sink);
         }
     }
     
@@ -121,45 +170,61 @@ public class TaskExporter {
     
     /**
      * 将任务导出到Microsoft To Do
-     * 注意：该功能需要Microsoft Graph API认证
+     * 通过Microsoft Graph的 $batch 接口批量创建任务，没有设置导出器时按
+     * {@link MicrosoftToDoExporter#fromEnvironment()} 从环境变量读取访问令牌。
+     * 
+     * @param tasks 任务列表
+     * @return 导出结果
+     * @throws UnsupportedOperationException 如果没有设置访问令牌
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
+     */
+    public RemoteExportResult exportToMicrosoftToDo(List<Task> tasks) throws UnsupportedOperationException, IOException {
+        return exportToMicrosoftToDo(tasks, null);
+    }
+    
+    /**
+     * 将来自一个文件的任务导出到Microsoft To Do
+     * 导出器设置了同步状态日志时只发送与上次导出该文件相比新增、修改和删除的任务。
      * 
      * @param tasks 任务列表
-     * @throws UnsupportedOperationException 该功能尚未实现
+     * @param source 任务的来源文件，可以为null
+     * @return 导出结果
+     * @throws UnsupportedOperationException 如果没有设置访问令牌
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
      */
-    public void exportToMicrosoftToDo(List<Task> tasks) throws UnsupportedOperationException {
-        // TODO: 实现Microsoft Graph API调用
-        throw new UnsupportedOperationException("Microsoft To Do功能尚未实现");
+    public RemoteExportResult exportToMicrosoftToDo(List<Task> tasks, File source)
+            throws UnsupportedOperationException, IOException {
+        MicrosoftToDoExporter target = microsoftToDo != null ? microsoftToDo : MicrosoftToDoExporter.fromEnvironment();
+        return target.export(tasks, ExportJournal.sourceOf(source));
     }
     
     /**
      * 将任务导出到Google Tasks
-     * 注意：该功能需要Google API认证
+     * 通过Google Tasks API逐个插入任务，多个请求同时发送，没有设置导出器时按
+     * {@link GoogleTasksExporter#fromEnvironment()} 从环境变量读取访问令牌。
      * 
      * @param tasks 任务列表
-     * @throws UnsupportedOperationException 该功能尚未实现
+     * @return 导出结果
+     * @throws UnsupportedOperationException 如果没有设置访问令牌
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
      */
-    public void exportToGoogleTasks(List<Task> tasks) throws UnsupportedOperationException {
-        // TODO: 实现Google Tasks API调用
-        throw new UnsupportedOperationException("Google Tasks功能尚未实现");
+    public RemoteExportResult exportToGoogleTasks(List<Task> tasks) throws UnsupportedOperationException, IOException {
+        return exportToGoogleTasks(tasks, null);
     }
     
     /**
-     * 转义JSON字符串
+     * 将来自一个文件的任务导出到Google Tasks
+     * 导出器设置了同步状态日志时只发送与上次导出该文件相比新增、修改和删除的任务。
      * 
-     * @param input 输入字符串
-     * @return 转义后的字符串
+     * @param tasks 任务列表
+     * @param source 任务的来源文件，可以为null
+     * @return 导出结果
+     * @throws UnsupportedOperationException 如果没有设置访问令牌
+     * @throws IOException 如果找不到任务列表、认证失败或导出被中断
      */
-    private String escapeJson(String input) {
-        if (input == null) {
-            return "";
-        }
-        
-        return input.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\b", "\\b")
-                .replace("\f", "\\f")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
-    }
-} 
\ No newline at end of file
+    public RemoteExportResult exportToGoogleTasks(List<Task> tasks, File source)
+            throws UnsupportedOperationException, IOException {
+        GoogleTasksExporter target = googleTasks != null ? googleTasks : GoogleTasksExporter.fromEnvironment();
+        return target.export(tasks, ExportJournal.sourceOf(source));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.mdtotodos.model;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.time.LocalDateTime;
+
+/**
+ * 任务过滤条件：截止日期范围和标题关键字
+ * 设置到解析器后在扫描任务行时检查，日期或标题不符合条件的行在创建字符串和任务对象之前就被跳过。
+ * 截止日期范围为 [dueAfter, dueBefore)，设置了任一日期边界时没有截止日期的任务被排除；
+ * 关键字在标题中按子串匹配，英文字母不区分大小写。过滤条件不可变，可在多个线程间共享。
+ */
+public final class TaskFilter {
+    private final LocalDateTime dueAfter;
+    private final LocalDateTime dueBefore;
+    private final String keyword;
+    private final char[] foldedKeyword;
+    private volatile EncodedKeyword encodedKeyword;
+    
+    /**
+     * 创建过滤条件
+     * 
+     * @param dueAfter 截止日期下限（含），为null时不限制
+     * @param dueBefore 截止日期上限（不含），为null时不限制
+     * @param keyword 标题关键字，为null或空字符串时不限制
+     */
+    public TaskFilter(LocalDateTime dueAfter, LocalDateTime dueBefore, String keyword) {
+        if (dueAfter != null && dueBefore != null && !dueAfter.isBefore(dueBefore)) {
+            throw new IllegalArgumentException("截止日期下限必须早于上限");
+        }
+        this.dueAfter = dueAfter;
+        this.dueBefore = dueBefore;
+        this.keyword = (keyword == null || keyword.isEmpty()) ? null : keyword;
+        this.foldedKeyword = this.keyword != null ? foldAscii(this.keyword) : null;
+    }
+    
+    /**
+     * @return 截止日期下限（含），不限制时为null
+     */
+    public LocalDateTime getDueAfter() {
+        return dueAfter;
+    }
+    
+    /**
+     * @return 截止日期上限（不含），不限制时为null
+     */
+    public LocalDateTime getDueBefore() {
+        return dueBefore;
+    }
+    
+    /**
+     * @return 标题关键字，不限制时为null
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+    
+    /**
+     * 是否限制了截止日期
+     * 
+     * @return 如果设置了任一日期边界返回true
+     */
+    public boolean hasDateBounds() {
+        return dueAfter != null || dueBefore != null;
+    }
+    
+    /**
+     * 判断截止日期是否在范围内
+     * 
+     * @param dueDate 截止日期，可为null
+     * @return 如果符合条件返回true
+     */
+    public boolean matchesDueDate(LocalDateTime dueDate) {
+        if (dueDate == null) {
+            return !hasDateBounds();
+        }
+        return (dueAfter == null || !dueDate.isBefore(dueAfter))
+                && (dueBefore == null || dueDate.isBefore(dueBefore));
+    }
+    
+    /**
+     * 判断标题是否包含关键字
+     * 
+     * @param title 任务标题
+     * @return 如果符合条件返回true
+     */
+    public boolean matchesTitle(String title) {
+        return matchesTitle(title, 0, title.length());
+    }
+    
+    /**
+     * 判断任务是否符合所有条件
+     * 
+     * @param task 任务
+     * @return 如果符合条件返回true
+     */
+    public boolean matches(Task task) {
+        return matchesDueDate(task.getDueDate()) && matchesTitle(task.getTitle());
+    }
+    
+    /**
+     * 判断文本片段中的标题是否包含关键字
+     * 字节行视图直接在原始字节上查找关键字的编码，不解码标题。
+     * 
+     * @param text 标题所在文本
+     * @param start 标题起始位置
+     * @param end 标题结束位置（不含）
+     * @return 如果符合条件返回true
+     */
+    boolean matchesTitle(CharSequence text, int start, int end) {
+        if (keyword == null) {
+            return true;
+        }
+        if (text instanceof ByteLine) {
+            ByteLine line = (ByteLine) text;
+            byte[] pattern = encodedKeyword(line.charset());
+            return pattern != null && line.indexOfIgnoreAsciiCase(pattern, start, end) >= 0;
+        }
+        
+        int last = end - foldedKeyword.length;
+        for (int i = start; i <= last; i++) {
+            int j = 0;
+            while (j < foldedKeyword.length && foldAscii(text.charAt(i + j)) == foldedKeyword[j]) {
+                j++;
+            }
+            if (j == foldedKeyword.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 获取关键字在指定字符集下的编码，英文字母转为小写
+     * 
+     * @return 编码后的字节，关键字不能用该字符集表示时返回null
+     */
+    private byte[] encodedKeyword(Charset charset) {
+        EncodedKeyword encoded = encodedKeyword;
+        if (encoded == null || !encoded.charset.equals(charset)) {
+            byte[] bytes;
+            try {
+                CharsetEncoder encoder = charset.newEncoder();
+                ByteBuffer buffer = encoder.encode(CharBuffer.wrap(foldedKeyword));
+                bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+            } catch (CharacterCodingException e) {
+                bytes = null;
+            }
+            encoded = new EncodedKeyword(charset, bytes);
+            encodedKeyword = encoded;
+        }
+        return encoded.bytes;
+    }
+    
+    private static char[] foldAscii(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = foldAscii(chars[i]);
+        }
+        return chars;
+    }
+    
+    private static char foldAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (dueAfter != null) {
+            sb.append("截止日期不早于 ").append(dueAfter);
+        }
+        if (dueBefore != null) {
+            sb.append(sb.length() > 0 ? ", " : "").append("截止日期早于 ").append(dueBefore);
+        }
+        if (keyword != null) {
+            sb.append(sb.length() > 0 ? ", " : "").append("标题包含 \"").append(keyword).append('"');
+        }
+        return sb.length() > 0 ? sb.toString() : "无过滤条件";
+    }
+    
+    /**
+     * 关键字在某个字符集下的编码
+     */
+    private static final class EncodedKeyword {
+        final Charset charset;
+        final byte[] bytes;
+        
+        EncodedKeyword(Charset charset, byte[] bytes) {
+            this.charset = charset;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.mdtotodos.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 解析和导出的统计信息：行数、任务数、字节数计数器和各阶段的耗时直方图
+ * 设置到解析器和导出器后开始记录，未设置时不产生任何开销。
+ * 计数器在每读取一块数据或每个文件结束时批量累加；行匹配、日期解析和序列化的单次耗时很短，
+ * 每 {@value #SAMPLE_INTERVAL} 次抽样计时一次，其余阶段每次都计时。
+ * 所有方法都可以在多个线程中同时调用，可通过 {@link #register()} 注册为JMX MBean。
+ */
+public final class TaskMetrics implements TaskMetricsMXBean {
+    /** 注册到JMX时使用的对象名 */
+    public static final String OBJECT_NAME = "com.mdtotodos:type=TaskMetrics";
+    
+    /** 抽样计时的间隔 */
+    public static final int SAMPLE_INTERVAL = 64;
+    
+    /**
+     * 计时阶段
+     */
+    public enum Phase {
+        READ("读取"),
+        MATCH("行匹配"),
+        DATE_PARSE("日期解析"),
+        SERIALIZE("序列化"),
+        FLUSH("刷新输出"),
+        LOAD("加载任务"),
+        EXPORT("导出任务"),
+        CONVERT("转换文件");
+        
+        private final String displayName;
+        
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        /**
+         * 是否为抽样计时的阶段
+         * 
+         * @return 如果只对部分调用计时返回true
+         */
+        public boolean isSampled() {
+            return this == MATCH || this == DATE_PARSE || this == SERIALIZE;
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
+    private final LongAdder linesScanned = new LongAdder();
+    private final LongAdder tasksProduced = new LongAdder();
+    private final LongAdder linesRejected = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder tasksWritten = new LongAdder();
+    private final Histogram[] histograms = new Histogram[Phase.values().length];
+    private ObjectName registeredName;
+    
+    /**
+     * 创建空的统计信息
+     */
+    public TaskMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+    
+    /**
+     * 记录一次阶段耗时
+     * 
+     * @param phase 阶段
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+    
+    /**
+     * 获取阶段耗时统计
+     * 
+     * @param phase 阶段
+     * @return 当前的耗时统计
+     */
+    public PhaseStats getStats(Phase phase) {
+        return histograms[phase.ordinal()].snapshot();
+    }
+    
+    /**
+     * 累加扫描结果
+     * 
+     * @param scanned 扫描的行数
+     * @param produced 解析出的任务数
+     * @param rejected 没有解析出任务的非空非标题行数
+     */
+    void addLines(long scanned, long produced, long rejected) {
+        linesScanned.add(scanned);
+        tasksProduced.add(produced);
+        linesRejected.add(rejected);
+    }
+    
+    void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+    
+    void addWritten(long bytes, long tasks) {
+        bytesWritten.add(bytes);
+        tasksWritten.add(tasks);
+    }
+    
+    @Override
+    public long getLinesScanned() {
+        return linesScanned.sum();
+    }
+    
+    @Override
+    public long getTasksProduced() {
+        return tasksProduced.sum();
+    }
+    
+    @Override
+    public long getLinesRejected() {
+        return linesRejected.sum();
+    }
+    
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+    
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+    
+    @Override
+    public long getTasksWritten() {
+        return tasksWritten.sum();
+    }
+    
+    @Override
+    public PhaseStats getRead() {
+        return getStats(Phase.READ);
+    }
+    
+    @Override
+    public PhaseStats getMatch() {
+        return getStats(Phase.MATCH);
+    }
+    
+    @Override
+    public PhaseStats getDateParse() {
+        return getStats(Phase.DATE_PARSE);
+    }
+    
+    @Override
+    public PhaseStats getSerialize() {
+        return getStats(Phase.SERIALIZE);
+    }
+    
+    @Override
+    public PhaseStats getFlush() {
+        return getStats(Phase.FLUSH);
+    }
+    
+    @Override
+    public PhaseStats getLoad() {
+        return getStats(Phase.LOAD);
+    }
+    
+    @Override
+    public PhaseStats getExport() {
+        return getStats(Phase.EXPORT);
+    }
+    
+    @Override
+    public PhaseStats getConvert() {
+        return getStats(Phase.CONVERT);
+    }
+    
+    @Override
+    public void reset() {
+        linesScanned.reset();
+        tasksProduced.reset();
+        linesRejected.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+        tasksWritten.reset();
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+    
+    /**
+     * 注册到平台MBean服务器，已有同名MBean时替换
+     * 
+     * @throws JMException 如果注册失败
+     */
+    public synchronized void register() throws JMException {
+        if (registeredName != null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        try {
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException e) {
+            server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+        registeredName = name;
+    }
+    
+    /**
+     * 从平台MBean服务器注销
+     * 
+     * @throws JMException 如果注销失败
+     */
+    public synchronized void unregister() throws JMException {
+        if (registeredName == null) {
+            return;
+        }
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        registeredName = null;
+    }
+    
+    /**
+     * 生成可读的统计报告
+     * 
+     * @return 多行文本，没有记录的阶段不列出
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("统计信息:\n");
+        sb.append(String.format(Locale.ROOT, "  扫描行数: %d, 解析出任务: %d, 拒绝行数: %d%n",
+                getLinesScanned(), getTasksProduced(), getLinesRejected()));
+        sb.append(String.format(Locale.ROOT, "  读取: %s, 写出: %s (%d 个任务)%n",
+                formatBytes(getBytesRead()), formatBytes(getBytesWritten()), getTasksWritten()));
+        sb.append(String.format(Locale.ROOT, "  %-10s %10s %10s %10s %10s %10s%n",
+                "阶段", "次数", "平均", "p50", "p99", "最长"));
+        for (Phase phase : Phase.values()) {
+            PhaseStats stats = getStats(phase);
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            String name = phase.isSampled() ? phase + "*" : phase.toString();
+            sb.append(String.format(Locale.ROOT, "  %-10s %10d %10s %10s %10s %10s%n",
+                    name, stats.getCount(), formatNanos(stats.getMeanNanos()), formatNanos(stats.getP50Nanos()),
+                    formatNanos(stats.getP99Nanos()), formatNanos(stats.getMaxNanos())));
+        }
+        sb.append("  * 每 ").append(SAMPLE_INTERVAL).append(" 次抽样计时一次");
+        return sb.toString();
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+    
+    private static String formatNanos(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        }
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+    }
+    
+    /**
+     * 阶段耗时统计的快照
+     * 分位数取自对数分桶的直方图，相对误差不超过1/8。
+     */
+    public static final class PhaseStats {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        
+        PhaseStats(long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+        
+        /**
+         * @return 计时次数
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        /**
+         * @return 总耗时（纳秒）
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+        
+        /**
+         * @return 平均耗时（纳秒），没有记录时为0
+         */
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+        
+        /**
+         * @return 最长耗时（纳秒）
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+        
+        /**
+         * @return 耗时中位数（纳秒）
+         */
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+        
+        /**
+         * @return 耗时的99分位数（纳秒）
+         */
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+    }
+    
+    /**
+     * 无锁的耗时直方图
+     * 小于8纳秒的值各占一个桶，更大的值按2的幂分段，每段再均分为8个桶。
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+        
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(bucketOf(value));
+            total.add(value);
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+        
+        void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0);
+            }
+            total.reset();
+            max.set(0);
+        }
+        
+        PhaseStats snapshot() {
+            long[] counts = new long[BUCKET_COUNT];
+            long count = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            long maxValue = max.get();
+            return new PhaseStats(count, total.sum(), maxValue,
+                    Math.min(percentile(counts, count, 0.50), maxValue),
+                    Math.min(percentile(counts, count, 0.99), maxValue));
+        }
+        
+        private static long percentile(long[] counts, long count, double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length - 1);
+        }
+        
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        }
+        
+        /**
+         * 获取桶中的最大值
+         */
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long sub = bucket % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return ((SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mdtotodos.model;
+
+/**
+ * 解析和导出统计信息的JMX管理接口
+ * 注册后可在JConsole等工具的 {@value TaskMetrics#OBJECT_NAME} 下查看。
+ */
+public interface TaskMetricsMXBean {
+    
+    /**
+     * @return 扫描的行数
+     */
+    long getLinesScanned();
+    
+    /**
+     * @return 解析出的任务数
+     */
+    long getTasksProduced();
+    
+    /**
+     * @return 既不是空行或标题行、也没有解析出任务的行数（格式不符或被过滤）
+     */
+    long getLinesRejected();
+    
+    /**
+     * @return 从Markdown文件读取的字节数
+     */
+    long getBytesRead();
+    
+    /**
+     * @return 写出到导出文件的字节数
+     */
+    long getBytesWritten();
+    
+    /**
+     * @return 写出到导出文件的任务数
+     */
+    long getTasksWritten();
+    
+    /**
+     * @return 读取阶段的耗时统计
+     */
+    TaskMetrics.PhaseStats getRead();
+    
+    /**
+     * @return 行匹配阶段的耗时统计（抽样）
+     */
+    TaskMetrics.PhaseStats getMatch();
+    
+    /**
+     * @return 日期解析阶段的耗时统计（抽样）
+     */
+    TaskMetrics.PhaseStats getDateParse();
+    
+    /**
+     * @return 序列化阶段的耗时统计（抽样）
+     */
+    TaskMetrics.PhaseStats getSerialize();
+    
+    /**
+     * @return 刷新输出阶段的耗时统计
+     */
+    TaskMetrics.PhaseStats getFlush();
+    
+    /**
+     * @return 加载任务的耗时统计
+     */
+    TaskMetrics.PhaseStats getLoad();
+    
+    /**
+     * @return 导出任务的耗时统计
+     */
+    TaskMetrics.PhaseStats getExport();
+    
+    /**
+     * @return 边解析边导出的耗时统计
+     */
+    TaskMetrics.PhaseStats getConvert();
+    
+    /**
+     * 清零所有统计信息
+     */
+    void reset();
+}
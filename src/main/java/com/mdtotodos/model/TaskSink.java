@@ -0,0 +1,47 @@
+package com.mdtotodos.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 任务接收器，以推送方式逐个导出任务
+ * 使用顺序为 open()、若干次 accept(Task)、close()；任务在解析出来后即可写出，无需先构建完整的任务列表。
+ */
+public interface TaskSink extends Closeable {
+    
+    /**
+     * 开始导出，写出文档头等内容
+     * 
+     * @throws IOException 如果写入出错
+     */
+    void open() throws IOException;
+    
+    /**
+     * 导出一个任务
+     * 
+     * @param task 任务
+     * @throws IOException 如果写入出错
+     */
+    void accept(Task task) throws IOException;
+    
+    /**
+     * 按顺序导出任务表中的所有任务
+     * 默认逐个导出任务视图，实现可以直接读取任务表中的字段以避免创建任务对象。
+     * 
+     * @param tasks 任务表
+     * @throws IOException 如果写入出错
+     */
+    default void acceptAll(TaskTable tasks) throws IOException {
+        for (int i = 0; i < tasks.size(); i++) {
+            accept(tasks.get(i));
+        }
+    }
+    
+    /**
+     * 结束导出，写出文档尾并释放资源
+     * 
+     * @throws IOException 如果写入出错
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,250 @@
+package com.mdtotodos.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * 任务快照，以 .mdtb 二进制格式保存解析结果，重新加载时内存映射文件而不需要解析
+ * 文件由三部分组成，所有整数均为大端序：
+ * <ul>
+ * <li>文件头（32字节）：魔数 "MDTB"、版本号、任务数量、保留字段、字符串区起始位置和字符串区长度</li>
+ * <li>定长索引（每个任务24字节）：标题在字符串区中的偏移量（long）、标题字节数（int）、
+ * 描述字节数（int）、截止日期的UTC纪元秒（long，没有截止日期时为 {@link TaskTable#NO_DUE_DATE}）</li>
+ * <li>字符串区：所有标题和描述的UTF-8编码，每个任务的描述紧跟在标题之后</li>
+ * </ul>
+ * 打开快照只需校验文件头并映射文件，与任务数量无关；按序号访问任务时直接读取索引和字符串区。
+ * 快照是只读的，可在多个线程间共享。
+ */
+public final class TaskSnapshot implements TaskTable {
+    /** 快照文件扩展名 */
+    public static final String EXTENSION = ".mdtb";
+    
+    private static final int MAGIC = 0x4D445442;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_SIZE = 24;
+    
+    // 单个映射段的字节数，字段跨越段边界时逐段读取
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    
+    // 写出快照时的缓冲区大小
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    
+    private final File file;
+    private final ByteBuffer[] segments;
+    private final int size;
+    private final long heapOffset;
+    
+    private TaskSnapshot(File file, ByteBuffer[] segments, int size, long heapOffset) {
+        this.file = file;
+        this.segments = segments;
+        this.size = size;
+        this.heapOffset = heapOffset;
+    }
+    
+    /**
+     * 判断文件是否为任务快照（按扩展名判断）
+     * 
+     * @param file 文件
+     * @return 如果扩展名为 .mdtb 则返回true
+     */
+    public static boolean isSnapshotFile(File file) {
+        return file.getName().toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+    }
+    
+    /**
+     * 将任务表写入快照文件
+     * 先写入临时文件再替换目标文件，写入失败时不会留下不完整的快照。
+     * 
+     * @param tasks 任务表
+     * @param file 快照文件
+     * @throws IOException 如果写入文件出错
+     */
+    public static void write(TaskTable tasks, File file) throws IOException {
+        TaskStore store;
+        if (tasks instanceof TaskStore) {
+            store = (TaskStore) tasks;
+        } else {
+            store = new TaskStore();
+            store.addAll(tasks);
+        }
+        
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), WRITE_BUFFER_SIZE))) {
+                int count = store.size();
+                int heapLength = store.byteCount();
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(count);
+                out.writeInt(0);
+                out.writeLong(HEADER_SIZE + (long) count * ENTRY_SIZE);
+                out.writeLong(heapLength);
+                
+                for (int i = 0; i < count; i++) {
+                    int titleStart = store.boundary(2 * i);
+                    int descriptionStart = store.boundary(2 * i + 1);
+                    out.writeLong(titleStart);
+                    out.writeInt(descriptionStart - titleStart);
+                    out.writeInt(store.boundary(2 * i + 2) - descriptionStart);
+                    out.writeLong(store.getDueEpochSecond(i));
+                }
+                out.write(store.arena(), 0, heapLength);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * 内存映射打开快照文件
+     * 文件在映射后即被关闭，映射在快照对象被回收前保持有效。
+     * 
+     * @param file 快照文件
+     * @return 任务快照
+     * @throws IOException 如果读取文件出错或文件不是有效的快照
+     */
+    public static TaskSnapshot open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw invalid(file);
+            }
+            
+            int segmentCount = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            ByteBuffer[] segments = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                long segmentLength = Math.min(SEGMENT_MASK + 1, length - start);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, segmentLength);
+            }
+            
+            ByteBuffer header = segments[0];
+            if (header.getInt(0) != MAGIC) {
+                throw invalid(file);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("不支持的任务快照版本: " + header.getInt(4));
+            }
+            int size = header.getInt(8);
+            long heapOffset = header.getLong(16);
+            long heapLength = header.getLong(24);
+            if (size < 0 || heapOffset != HEADER_SIZE + (long) size * ENTRY_SIZE
+                    || heapLength < 0 || heapOffset + heapLength != length) {
+                throw invalid(file);
+            }
+            return new TaskSnapshot(file, segments, size, heapOffset);
+        }
+    }
+    
+    /**
+     * @return 快照文件
+     */
+    public File getFile() {
+        return file;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public String getTitle(int index) {
+        long entry = entry(index);
+        return decode(heapOffset + readLong(entry), readInt(entry + 8));
+    }
+    
+    @Override
+    public String getDescription(int index) {
+        long entry = entry(index);
+        return decode(heapOffset + readLong(entry) + readInt(entry + 8), readInt(entry + 12));
+    }
+    
+    @Override
+    public boolean hasDescription(int index) {
+        return readInt(entry(index) + 12) > 0;
+    }
+    
+    @Override
+    public long getDueEpochSecond(int index) {
+        return readLong(entry(index) + 16);
+    }
+    
+    private long entry(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return HEADER_SIZE + (long) index * ENTRY_SIZE;
+    }
+    
+    private String decode(long position, int length) {
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        read(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private long readLong(long position) {
+        ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        int offset = (int) (position & SEGMENT_MASK);
+        if (offset + 8 <= segment.limit()) {
+            return segment.getLong(offset);
+        }
+        byte[] bytes = new byte[8];
+        read(position, bytes);
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+    
+    private int readInt(long position) {
+        ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        int offset = (int) (position & SEGMENT_MASK);
+        if (offset + 4 <= segment.limit()) {
+            return segment.getInt(offset);
+        }
+        byte[] bytes = new byte[4];
+        read(position, bytes);
+        return ByteBuffer.wrap(bytes).getInt();
+    }
+    
+    /**
+     * 从指定位置读取字节，可跨越映射段
+     */
+    private void read(long position, byte[] bytes) {
+        int copied = 0;
+        while (copied < bytes.length) {
+            long current = position + copied;
+            ByteBuffer segment = segments[(int) (current >>> SEGMENT_SHIFT)].duplicate();
+            int offset = (int) (current & SEGMENT_MASK);
+            int count = Math.min(bytes.length - copied, segment.limit() - offset);
+            segment.position(offset);
+            segment.get(bytes, copied, count);
+            copied += count;
+        }
+    }
+    
+    private static IOException invalid(File file) {
+        return new IOException("不是有效的任务快照文件: " + file.getPath());
+    }
+}
@@ -0,0 +1,284 @@
+package com.mdtotodos.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 列式任务存储，作为 {@link java.util.List}&lt;{@link Task}&gt; 的紧凑替代
+ * 所有任务的标题和描述以UTF-8编码依次存放在同一个字节数组中，通过int偏移量定位；
+ * 截止日期以UTC纪元秒存放在long数组中，没有截止日期时为 {@link #NO_DUE_DATE}。
+ * 每个任务只占用固定的几个数组槽位而不是若干对象，大文件的内存占用和GC压力都小得多。
+ * 解析器可以将字节行中的片段直接复制进存储，导出时也无需创建任务对象。
+ * 存储只能追加，不是线程安全的；所有字段的UTF-8编码总长度不能超过2GB。
+ */
+public final class TaskStore implements TaskTable {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int DEFAULT_ARENA_SIZE = 1024;
+    
+    // 第i个任务的标题为 [bounds[2i], bounds[2i+1])，描述为 [bounds[2i+1], bounds[2i+2])
+    private int[] bounds;
+    private long[] dueDates;
+    private byte[] arena;
+    private int size;
+    
+    // 供解析器直接写入字节片段
+    final MarkdownParser.TaskFactory<TaskStore> appender = this::append;
+    
+    /**
+     * 创建空的任务存储
+     */
+    public TaskStore() {
+        this(DEFAULT_CAPACITY, DEFAULT_ARENA_SIZE);
+    }
+    
+    /**
+     * 创建预分配空间的任务存储
+     * 
+     * @param expectedTasks 预计的任务数量
+     * @param expectedBytes 预计的标题和描述总字节数
+     */
+    public TaskStore(int expectedTasks, int expectedBytes) {
+        if (expectedTasks < 0 || expectedBytes < 0) {
+            throw new IllegalArgumentException("预分配大小不能为负数");
+        }
+        this.bounds = new int[2 * expectedTasks + 1];
+        this.dueDates = new long[expectedTasks];
+        this.arena = new byte[expectedBytes];
+    }
+    
+    /**
+     * 获取任务数量
+     * 
+     * @return 任务数量
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * 获取标题和描述占用的总字节数
+     * 
+     * @return UTF-8编码的总字节数
+     */
+    int byteCount() {
+        return bounds[2 * size];
+    }
+    
+    /**
+     * 追加一个任务，复制其标题、描述和截止日期
+     * 
+     * @param task 任务
+     */
+    public void add(Task task) {
+        add(task.getTitle(), task.getDescription(), task.getDueDate());
+    }
+    
+    /**
+     * 追加一个任务
+     * 
+     * @param title 任务标题
+     * @param description 任务描述，可为null
+     * @param dueDate 截止日期，可为null
+     */
+    public void add(String title, String description, LocalDateTime dueDate) {
+        String trimmedTitle = title != null ? title.trim() : "";
+        String trimmedDescription = description != null ? description.trim() : "";
+        append(trimmedTitle, 0, trimmedTitle.length(),
+                trimmedDescription, 0, trimmedDescription.length(), dueDate);
+    }
+    
+    /**
+     * 创建包含指定任务的存储
+     * 
+     * @param tasks 任务
+     * @return 任务存储
+     */
+    public static TaskStore copyOf(Iterable<Task> tasks) {
+        TaskStore store = new TaskStore();
+        for (Task task : tasks) {
+            store.add(task);
+        }
+        return store;
+    }
+    
+    /**
+     * 追加任务表中的所有任务
+     * 
+     * @param table 任务表
+     */
+    public void addAll(TaskTable table) {
+        if (table instanceof TaskStore) {
+            addAll((TaskStore) table);
+            return;
+        }
+        for (int i = 0; i < table.size(); i++) {
+            add(table.getTitle(i), table.getDescription(i), table.getDueDate(i));
+        }
+    }
+    
+    /**
+     * 追加另一个存储中的所有任务，直接复制字节区
+     * 
+     * @param other 任务存储
+     */
+    private void addAll(TaskStore other) {
+        int bytes = other.bounds[2 * other.size];
+        int base = bounds[2 * size];
+        ensureCapacity(size + other.size, bytes);
+        
+        System.arraycopy(other.arena, 0, arena, base, bytes);
+        System.arraycopy(other.dueDates, 0, dueDates, size, other.size);
+        for (int i = 1; i <= 2 * other.size; i++) {
+            bounds[2 * size + i] = base + other.bounds[i];
+        }
+        size += other.size;
+    }
+    
+    /**
+     * 获取任务标题
+     * 
+     * @param index 任务序号
+     * @return 任务标题
+     */
+    @Override
+    public String getTitle(int index) {
+        checkIndex(index);
+        return decode(bounds[2 * index], bounds[2 * index + 1]);
+    }
+    
+    /**
+     * 获取任务描述
+     * 
+     * @param index 任务序号
+     * @return 任务描述，没有描述时为空字符串
+     */
+    @Override
+    public String getDescription(int index) {
+        checkIndex(index);
+        return decode(bounds[2 * index + 1], bounds[2 * index + 2]);
+    }
+    
+    /**
+     * 任务是否有描述
+     * 
+     * @param index 任务序号
+     * @return 如果有描述则返回true
+     */
+    @Override
+    public boolean hasDescription(int index) {
+        checkIndex(index);
+        return bounds[2 * index + 2] > bounds[2 * index + 1];
+    }
+    
+    /**
+     * 任务是否有截止日期
+     * 
+     * @param index 任务序号
+     * @return 如果有截止日期则返回true
+     */
+    @Override
+    public boolean hasDueDate(int index) {
+        checkIndex(index);
+        return dueDates[index] != NO_DUE_DATE;
+    }
+    
+    /**
+     * 获取截止日期的UTC纪元秒
+     * 
+     * @param index 任务序号
+     * @return 纪元秒，没有截止日期时为 {@link #NO_DUE_DATE}
+     */
+    @Override
+    public long getDueEpochSecond(int index) {
+        checkIndex(index);
+        return dueDates[index];
+    }
+    
+    /**
+     * 获取字节区，第i个任务的标题和描述位于 [boundary(2i), boundary(2i+2))
+     */
+    byte[] arena() {
+        return arena;
+    }
+    
+    /**
+     * 获取字段边界
+     * 
+     * @param k 边界序号，第i个任务的标题从 2i 开始、描述从 2i+1 开始
+     * @return 边界在字节区中的位置
+     */
+    int boundary(int k) {
+        return bounds[k];
+    }
+    
+    /**
+     * 由解析器调用，直接追加文本中的标题和描述片段
+     * 片段位于UTF-8字节行中时按原始字节复制，否则编码后写入。
+     */
+    TaskStore append(CharSequence titleText, int titleStart, int titleEnd,
+                     CharSequence descriptionText, int descriptionStart, int descriptionEnd,
+                     LocalDateTime dueDate) {
+        ensureCapacity(size + 1, 0);
+        int start = bounds[2 * size];
+        int titleBoundary = write(titleText, titleStart, titleEnd, start);
+        bounds[2 * size + 1] = titleBoundary;
+        bounds[2 * size + 2] = write(descriptionText, descriptionStart, descriptionEnd, titleBoundary);
+        dueDates[size] = dueDate != null ? dueDate.toEpochSecond(ZoneOffset.UTC) : NO_DUE_DATE;
+        size++;
+        return this;
+    }
+    
+    /**
+     * 将文本片段写入字节区
+     * 
+     * @return 写入后的结束位置
+     */
+    private int write(CharSequence text, int start, int end, int position) {
+        if (start == end) {
+            return position;
+        }
+        if (text instanceof ByteLine && ((ByteLine) text).isUtf8Compatible(start, end)) {
+            int length = end - start;
+            ensureArena(position, length);
+            ((ByteLine) text).copyBytes(start, end, arena, position);
+            return position + length;
+        }
+        byte[] encoded = text.subSequence(start, end).toString().getBytes(StandardCharsets.UTF_8);
+        ensureArena(position, encoded.length);
+        System.arraycopy(encoded, 0, arena, position, encoded.length);
+        return position + encoded.length;
+    }
+    
+    private String decode(int start, int end) {
+        return start == end ? "" : new String(arena, start, end - start, StandardCharsets.UTF_8);
+    }
+    
+    private void ensureCapacity(int tasks, int extraBytes) {
+        if (tasks > dueDates.length) {
+            int capacity = Math.max(tasks, Math.max(DEFAULT_CAPACITY, dueDates.length + (dueDates.length >> 1)));
+            dueDates = Arrays.copyOf(dueDates, capacity);
+            bounds = Arrays.copyOf(bounds, 2 * capacity + 1);
+        }
+        ensureArena(bounds[2 * size], extraBytes);
+    }
+    
+    private void ensureArena(int position, int length) {
+        long required = (long) position + length;
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("任务存储已满，标题和描述总长度超过上限");
+        }
+        if (required > arena.length) {
+            long grown = Math.max(required, Math.max(DEFAULT_ARENA_SIZE, (long) arena.length * 2));
+            arena = Arrays.copyOf(arena, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+        }
+    }
+    
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mdtotodos.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * 按序号访问的只读任务表
+ * 任务的字段直接从底层存储中读取，不需要为每个任务保存对象，
+ * 实现包括内存中的 {@link TaskStore} 和内存映射的 {@link TaskSnapshot}。
+ */
+public interface TaskTable {
+    /** 没有截止日期时的纪元秒 */
+    long NO_DUE_DATE = Long.MIN_VALUE;
+    
+    /**
+     * 获取任务数量
+     * 
+     * @return 任务数量
+     */
+    int size();
+    
+    /**
+     * 获取任务标题
+     * 
+     * @param index 任务序号
+     * @return 任务标题
+     */
+    String getTitle(int index);
+    
+    /**
+     * 获取任务描述
+     * 
+     * @param index 任务序号
+     * @return 任务描述，没有描述时为空字符串
+     */
+    String getDescription(int index);
+    
+    /**
+     * 获取截止日期的UTC纪元秒
+     * 
+     * @param index 任务序号
+     * @return 纪元秒，没有截止日期时为 {@link #NO_DUE_DATE}
+     */
+    long getDueEpochSecond(int index);
+    
+    /**
+     * 是否没有任务
+     * 
+     * @return 如果没有任务返回true
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * 任务是否有描述
+     * 
+     * @param index 任务序号
+     * @return 如果有描述则返回true
+     */
+    default boolean hasDescription(int index) {
+        return !getDescription(index).isEmpty();
+    }
+    
+    /**
+     * 任务是否有截止日期
+     * 
+     * @param index 任务序号
+     * @return 如果有截止日期则返回true
+     */
+    default boolean hasDueDate(int index) {
+        return getDueEpochSecond(index) != NO_DUE_DATE;
+    }
+    
+    /**
+     * 获取截止日期
+     * 
+     * @param index 任务序号
+     * @return 截止日期，没有截止日期时返回null
+     */
+    default LocalDateTime getDueDate(int index) {
+        long epochSecond = getDueEpochSecond(index);
+        return epochSecond == NO_DUE_DATE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+    
+    /**
+     * 获取任务的只读视图
+     * 视图只保存序号，字段在访问时才从任务表中读取；修改视图会抛出 {@link UnsupportedOperationException}。
+     * 
+     * @param index 任务序号
+     * @return 任务视图
+     */
+    default Task get(int index) {
+        return TaskViews.task(this, index);
+    }
+    
+    /**
+     * 获取所有任务的只读列表视图，元素为 {@link #get(int)} 返回的任务视图
+     * 
+     * @return 任务列表
+     */
+    default List<Task> asList() {
+        return TaskViews.list(this);
+    }
+}
@@ -0,0 +1,114 @@
+package com.mdtotodos.model;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 任务表的只读任务视图和列表视图
+ */
+final class TaskViews {
+    
+    private TaskViews() {
+    }
+    
+    /**
+     * 创建任务表中一个任务的视图
+     * 
+     * @param table 任务表
+     * @param index 任务序号
+     * @return 任务视图
+     */
+    static Task task(TaskTable table, int index) {
+        if (index < 0 || index >= table.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + table.size());
+        }
+        return new TableTask(table, index);
+    }
+    
+    /**
+     * 创建任务表的列表视图，列表大小随任务表变化
+     * 
+     * @param table 任务表
+     * @return 列表视图
+     */
+    static List<Task> list(TaskTable table) {
+        return new TableList(table);
+    }
+    
+    /**
+     * 任务表中一个任务的只读视图
+     */
+    private static final class TableTask extends Task {
+        private final TaskTable table;
+        private final int index;
+        
+        TableTask(TaskTable table, int index) {
+            super(null, null, null);
+            this.table = table;
+            this.index = index;
+        }
+        
+        @Override
+        public String getTitle() {
+            return table.getTitle(index);
+        }
+        
+        @Override
+        public String getDescription() {
+            return table.getDescription(index);
+        }
+        
+        @Override
+        public LocalDateTime getDueDate() {
+            return table.getDueDate(index);
+        }
+        
+        @Override
+        public boolean hasDueDate() {
+            return table.hasDueDate(index);
+        }
+        
+        @Override
+        public boolean hasDescription() {
+            return table.hasDescription(index);
+        }
+        
+        @Override
+        public void setTitle(String title) {
+            throw new UnsupportedOperationException("任务表中的任务是只读的");
+        }
+        
+        @Override
+        public void setDescription(String description) {
+            throw new UnsupportedOperationException("任务表中的任务是只读的");
+        }
+        
+        @Override
+        public void setDueDate(LocalDateTime dueDate) {
+            throw new UnsupportedOperationException("任务表中的任务是只读的");
+        }
+    }
+    
+    /**
+     * 任务表的只读列表视图
+     */
+    private static final class TableList extends AbstractList<Task> implements RandomAccess {
+        private final TaskTable table;
+        
+        TableList(TaskTable table) {
+            this.table = table;
+        }
+        
+        @Override
+        public Task get(int index) {
+            return table.get(index);
+        }
+        
+        @Override
+        public int size() {
+            return table.size();
+        }
+    }
+}
@@ -1,28 +1,34 @@
 package com.mdtotodos.view;
 
 import com.mdtotodos.controller.TaskController;
+import com.mdtotodos.controller.TaskWatcher;
 import com.mdtotodos.model.Task;
+import com.mdtotodos.model.TaskTable;
 import com.mdtotodos.model.TaskExporter.ExportPlatform;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableColumn;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * 应用程序的主视图，使用Swing实现GUI界面
  */
 public class MainView extends JFrame {
     private static final long serialVersionUID = 1L;
-    private static final DateTimeFormatter DATE_FORMATTER = 
-            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
     
     // 控制器
     private final TaskController controller;
@@ -31,13 +37,28 @@ public class MainView extends JFrame {
     private JTextField inputFilePathField;
     private JTextField outputFilePathField;
     private JComboBox<String> platformComboBox;
-    private JTextArea previewTextArea;
+    private TaskTableModel previewModel;
+    private JTable previewTable;
+    private TitledBorder previewBorder;
+    private JPanel previewPanel;
     private JTextArea logTextArea;
     private JPanel outputFilePanel;
     private JButton browseInputButton;
     private JButton browseOutputButton;
     private JButton previewButton;
     private JButton exportButton;
+    private JCheckBox watchCheckBox;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    
+    // 文件监视器，未开启自动导出时为null
+    private TaskWatcher watcher;
+    
+    // 正在后台执行的加载或导出，空闲时为null；同一时间只执行一个
+    private BackgroundWorker<?, ?> activeWorker;
+    
+    // 后台执行期间监视的文件发生了变化，执行结束后重新加载
+    private File pendingReload;
     
     // 导出平台名称和对应的枚举值
     private final String[] platformNames = {
@@ -128,13 +149,23 @@ public class MainView extends JFrame {
         mainPanel.add(Box.createVerticalStrut(10));
         
         // 预览区域
-        JPanel previewPanel = new JPanel();
-        previewPanel.setBorder(new TitledBorder("待办事项预览"));
+        previewPanel = new JPanel();
+        previewBorder = new TitledBorder("待办事项预览");
+        previewPanel.setBorder(previewBorder);
         previewPanel.setLayout(new BorderLayout());
         
-        previewTextArea = new JTextArea();
-        previewTextArea.setEditable(false);
-        JScrollPane previewScrollPane = new JScrollPane(previewTextArea);
+        // 表格只绘制可见行，行高固定，不使用逐行计算的排序器
+        previewModel = new TaskTableModel();
+        previewTable = new JTable(previewModel);
+        previewTable.setFillsViewportHeight(true);
+        previewTable.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
+        previewTable.getColumnModel().getColumn(TaskTableModel.INDEX_COLUMN).setPreferredWidth(60);
+        previewTable.getColumnModel().getColumn(TaskTableModel.TITLE_COLUMN).setPreferredWidth(250);
+        previewTable.getColumnModel().getColumn(TaskTableModel.DESCRIPTION_COLUMN).setPreferredWidth(250);
+        previewTable.getColumnModel().getColumn(TaskTableModel.DUE_COLUMN).setPreferredWidth(130);
+        previewTable.getTableHeader().setReorderingAllowed(false);
+        previewTable.getTableHeader().setToolTipText("点击列标题按该列排序，再次点击切换为降序，第三次点击恢复文件中的顺序");
+        JScrollPane previewScrollPane = new JScrollPane(previewTable);
         previewPanel.add(previewScrollPane, BorderLayout.CENTER);
         
         mainPanel.add(previewPanel);
@@ -158,10 +189,20 @@ public class MainView extends JFrame {
         buttonPanel.setLayout(new FlowLayout(FlowLayout.RIGHT));
         contentPane.add(buttonPanel, BorderLayout.SOUTH);
         
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setPreferredSize(new Dimension(200, progressBar.getPreferredSize().height));
+        progressBar.setVisible(false);
+        cancelButton = new JButton("取消");
+        cancelButton.setVisible(false);
+        watchCheckBox = new JCheckBox("文件变化时自动导出");
         previewButton = new JButton("预览任务");
         exportButton = new JButton("导出任务");
         JButton exitButton = new JButton("退出");
         
+        buttonPanel.add(progressBar);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(watchCheckBox);
         buttonPanel.add(previewButton);
         buttonPanel.add(exportButton);
         buttonPanel.add(exitButton);
@@ -226,6 +267,11 @@ public class MainView extends JFrame {
                 File selectedFile = fileChooser.getSelectedFile();
                 inputFilePathField.setText(selectedFile.getAbsolutePath());
                 log("已选择文件: " + selectedFile.getAbsolutePath());
+                
+                // 更换输入文件后停止监视原来的文件
+                if (watchCheckBox.isSelected()) {
+                    watchCheckBox.setSelected(false);
+                }
             }
         });
         
@@ -256,107 +302,273 @@ public class MainView extends JFrame {
         
         // 导出按钮
         exportButton.addActionListener(e -> exportTasks());
+        
+        // 取消按钮，后台任务在处理下一个任务前停止
+        cancelButton.addActionListener(e -> {
+            if (activeWorker != null) {
+                activeWorker.cancel(false);
+                cancelButton.setEnabled(false);
+            }
+        });
+        
+        // 点击预览表格的列标题排序
+        previewTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                JTableHeader header = previewTable.getTableHeader();
+                int column = header.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    sortPreview(previewTable.convertColumnIndexToModel(column));
+                }
+            }
+        });
+        
+        // 自动导出开关
+        watchCheckBox.addItemListener(e -> {
+            if (watchCheckBox.isSelected()) {
+                startWatching();
+            } else {
+                stopWatching();
+            }
+        });
     }
     
     /**
-     * 预览任务
+     * 开始监视输入文件，文件变化时重新预览并导出
      */
-    private void previewTasks() {
+    private void startWatching() {
         String inputPath = inputFilePathField.getText().trim();
-        if (inputPath.isEmpty()) {
-            showError("请先选择一个Markdown文件");
+        File inputFile = new File(inputPath);
+        if (inputPath.isEmpty() || !inputFile.isFile()) {
+            showError("请先选择一个存在的Markdown文件");
+            watchCheckBox.setSelected(false);
             return;
         }
         
-        File inputFile = new File(inputPath);
-        if (!inputFile.exists()) {
-            showError("找不到文件: " + inputPath);
+        // 监视期间反复加载同一文件，只重新解析变化的块
+        controller.setIncremental(true);
+        try {
+            // 监听器在监视线程中调用，转到事件分发线程中处理
+            watcher = new TaskWatcher(Collections.singletonList(inputFile.toPath()),
+                    TaskWatcher.DEFAULT_DEBOUNCE_MILLIS,
+                    files -> SwingUtilities.invokeLater(() -> reloadWatchedFile(inputFile)),
+                    (files, error) -> SwingUtilities.invokeLater(() -> log("错误: 重新加载文件时出错: " + error)));
+            watcher.start();
+            log("开始监视文件: " + inputPath);
+        } catch (IOException ex) {
+            watcher = null;
+            controller.setIncremental(false);
+            showError("无法监视文件: " + ex.getMessage());
+            watchCheckBox.setSelected(false);
+        }
+    }
+    
+    /**
+     * 停止监视输入文件
+     */
+    private void stopWatching() {
+        if (watcher == null) {
             return;
         }
-        
         try {
-            int taskCount = controller.loadTasks(inputFile);
-            updatePreviewArea();
-            log("从文件 " + inputPath + " 中解析出 " + taskCount + " 个任务");
+            watcher.close();
         } catch (IOException ex) {
-            showError("解析文件时出错: " + ex.getMessage());
             log("错误: " + ex.getMessage());
         }
+        watcher = null;
+        controller.setIncremental(false);
+        log("已停止监视文件");
+    }
+    
+    /**
+     * 监视的文件变化后在后台重新解析并导出，只记录日志，不弹出对话框
+     * 正在执行其他后台任务时，等其结束后再重新加载。
+     * 
+     * @param inputFile 变化的Markdown文件
+     */
+    private void reloadWatchedFile(File inputFile) {
+        if (watcher == null) {
+            return;
+        }
+        if (activeWorker != null) {
+            pendingReload = inputFile;
+            return;
+        }
+        
+        ExportPlatform platform = platformValues[platformComboBox.getSelectedIndex()];
+        String outputPath = outputFilePathField.getText().trim();
+        boolean fileExport = platform == ExportPlatform.CSV || platform == ExportPlatform.JSON;
+        File outputFile = fileExport && !outputPath.isEmpty() ? new File(outputPath) : null;
+        startWorker(new ReloadWorker(inputFile, platform, outputFile), "正在重新导出");
     }
     
     /**
-     * 更新预览区域
+     * 检查输入框中的Markdown文件，无效时显示错误
+     * 
+     * @return 输入文件，无效时返回null
+     */
+    private File getInputFile() {
+        String inputPath = inputFilePathField.getText().trim();
+        if (inputPath.isEmpty()) {
+            showError("请先选择一个Markdown文件");
+            return null;
+        }
+        
+        File inputFile = new File(inputPath);
+        if (!inputFile.exists()) {
+            showError("找不到文件: " + inputPath);
+            return null;
+        }
+        return inputFile;
+    }
+    
+    /**
+     * 预览任务，在后台解析文件，解析出的任务分批显示在预览区域
+     */
+    private void previewTasks() {
+        File inputFile = getInputFile();
+        if (inputFile != null) {
+            startWorker(new LoadWorker(inputFile, null), "正在解析");
+        }
+    }
+    
+    /**
+     * 更新预览表格，显示控制器中当前加载的任务
+     * 使用列式任务存储或任务快照时直接从任务表中读取字段。
      */
     private void updatePreviewArea() {
-        List<Task> tasks = controller.getCurrentTasks();
-        previewTextArea.setText("");
+        TaskTable table = controller.getCurrentTable();
+        if (table != null) {
+            previewModel.setTasks(table);
+        } else {
+            previewModel.setTasks(controller.getCurrentTasks());
+        }
+        updateSortHeaders();
+        updatePreviewTitle();
+    }
+    
+    /**
+     * 在预览区域的标题中显示任务数量
+     */
+    private void updatePreviewTitle() {
+        int count = previewModel.getRowCount();
+        previewBorder.setTitle(count == 0 && activeWorker == null
+                ? "待办事项预览 (未找到任务或尚未解析文件)"
+                : "待办事项预览 (" + count + " 个任务)");
+        previewPanel.repaint();
+    }
+    
+    /**
+     * 按列排序预览表格，依次切换升序、降序和文件中的顺序
+     * 某列第一次排序时在后台计算排序索引，之后直接使用缓存的索引。
+     * 
+     * @param column 模型中的列号
+     */
+    private void sortPreview(int column) {
+        if (activeWorker != null || previewModel.getRowCount() == 0) {
+            return;
+        }
         
-        if (tasks == null || tasks.isEmpty()) {
-            previewTextArea.setText("未找到任务或尚未解析文件。");
+        if (previewModel.getSortColumn() == column && previewModel.isDescending()) {
+            previewModel.unsort();
+            updateSortHeaders();
             return;
         }
         
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.get(i);
-            sb.append(i + 1).append(". ").append(task.getTitle()).append("\n");
-            
-            if (task.hasDescription()) {
-                sb.append("   描述: ").append(task.getDescription()).append("\n");
-            }
-            
-            if (task.hasDueDate()) {
-                sb.append("   截止日期: ").append(task.getDueDate().format(DATE_FORMATTER)).append("\n");
+        boolean descending = previewModel.getSortColumn() == column;
+        int[] index = previewModel.getSortIndex(column, descending);
+        if (index != null) {
+            previewModel.sort(column, descending, index);
+            updateSortHeaders();
+        } else {
+            startWorker(new SortWorker(previewModel.getTable(), column, descending), "正在排序");
+        }
+    }
+    
+    /**
+     * 在排序列的标题上显示排序方向
+     */
+    private void updateSortHeaders() {
+        for (int i = 0; i < previewModel.getColumnCount(); i++) {
+            TableColumn column = previewTable.getColumnModel().getColumn(previewTable.convertColumnIndexToView(i));
+            String name = previewModel.getColumnName(i);
+            if (i == previewModel.getSortColumn()) {
+                name += previewModel.isDescending() ? " ▼" : " ▲";
             }
-            
-            sb.append("\n");
+            column.setHeaderValue(name);
         }
-        
-        previewTextArea.setText(sb.toString());
+        previewTable.getTableHeader().repaint();
     }
     
     /**
-     * 导出任务
+     * 导出任务，没有加载任务时先在后台加载，再在后台导出
      */
     private void exportTasks() {
-        // 如果没有任务，先尝试加载
+        // 如果没有任务，先加载，加载完成后继续导出
         if (controller.getCurrentTasks() == null || controller.getCurrentTasks().isEmpty()) {
-            previewTasks();
-            
-            if (controller.getCurrentTasks() == null || controller.getCurrentTasks().isEmpty()) {
-                showError("没有可导出的任务");
+            File inputFile = getInputFile();
+            if (inputFile == null) {
                 return;
             }
+            startWorker(new LoadWorker(inputFile, () -> {
+                if (controller.getCurrentTasks().isEmpty()) {
+                    showError("没有可导出的任务");
+                } else {
+                    exportTasks();
+                }
+            }), "正在解析");
+            return;
         }
         
         // 获取选择的平台
         int platformIndex = platformComboBox.getSelectedIndex();
         ExportPlatform platform = platformValues[platformIndex];
         
-        try {
-            if (platform == ExportPlatform.CSV || platform == ExportPlatform.JSON) {
-                String outputPath = outputFilePathField.getText().trim();
-                if (outputPath.isEmpty()) {
-                    showError("请指定输出文件路径");
-                    return;
-                }
-                
-                File outputFile = new File(outputPath);
-                controller.exportTasks(platform, outputFile);
-                log("成功导出任务到 " + outputPath);
-                showSuccess("成功导出到" + (platform == ExportPlatform.CSV ? "CSV" : "JSON") + "文件:\n" + outputPath);
-            } else {
-                controller.exportTasks(platform, null);
-                log("成功导出任务到 " + platformNames[platformIndex]);
-                showSuccess("成功导出到" + platformNames[platformIndex]);
+        File outputFile = null;
+        if (platform == ExportPlatform.CSV || platform == ExportPlatform.JSON) {
+            String outputPath = outputFilePathField.getText().trim();
+            if (outputPath.isEmpty()) {
+                showError("请指定输出文件路径");
+                return;
             }
-        } catch (IOException ex) {
-            showError("导出时出错: " + ex.getMessage());
-            log("错误: " + ex.getMessage());
-        } catch (UnsupportedOperationException ex) {
-            showInfo(platformNames[platformIndex] + "功能需要额外配置", ex.getMessage());
-            log(ex.getMessage());
+            outputFile = new File(outputPath);
         }
+        startWorker(new ExportWorker(platform, platformNames[platformIndex], outputFile), "正在导出");
+    }
+    
+    /**
+     * 开始执行后台任务，执行期间禁用会修改任务列表的操作并显示进度
+     * 
+     * @param worker 后台任务
+     * @param description 进度条上显示的说明
+     */
+    private void startWorker(BackgroundWorker<?, ?> worker, String description) {
+        activeWorker = worker;
+        setBusy(true);
+        progressBar.setValue(0);
+        progressBar.setString(description + " 0%");
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName()) && worker == activeWorker) {
+                int percent = (Integer) e.getNewValue();
+                progressBar.setValue(percent);
+                progressBar.setString(description + " " + percent + "%");
+            }
+        });
+        worker.execute();
+    }
+    
+    /**
+     * 切换后台任务执行中的界面状态
+     * 
+     * @param busy 是否正在执行后台任务
+     */
+    private void setBusy(boolean busy) {
+        previewButton.setEnabled(!busy);
+        exportButton.setEnabled(!busy);
+        browseInputButton.setEnabled(!busy);
+        progressBar.setVisible(busy);
+        cancelButton.setVisible(busy);
+        cancelButton.setEnabled(busy);
     }
     
     /**
@@ -397,6 +609,315 @@ public class MainView extends JFrame {
         JOptionPane.showMessageDialog(this, message, title, JOptionPane.INFORMATION_MESSAGE);
     }
     
+    /**
+     * 在后台线程中执行的加载或导出
+     * 后台计算真正结束后才在事件分发线程中恢复界面并处理结果，
+     * 取消时也等到后台线程停止，避免下一个任务与其同时使用控制器。
+     * 
+     * @param <T> 结果类型
+     * @param <V> 执行过程中发布的中间结果类型
+     */
+    private abstract class BackgroundWorker<T, V> extends SwingWorker<T, V>
+            implements TaskController.ProgressListener {
+        
+        @Override
+        protected final T doInBackground() throws Exception {
+            try {
+                return work();
+            } finally {
+                SwingUtilities.invokeLater(this::finish);
+            }
+        }
+        
+        @Override
+        public void progress(long done, long total) {
+            setProgress(total > 0 ? (int) Math.min(100, done * 100 / total) : 100);
+        }
+        
+        /**
+         * 在事件分发线程中恢复界面并分发结果
+         */
+        private void finish() {
+            activeWorker = null;
+            setBusy(false);
+            try {
+                succeeded(get());
+            } catch (CancellationException ex) {
+                cancelled();
+            } catch (ExecutionException ex) {
+                failed(ex.getCause() instanceof CancellationException ? null : ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            
+            if (activeWorker == null && pendingReload != null) {
+                File file = pendingReload;
+                pendingReload = null;
+                reloadWatchedFile(file);
+            }
+        }
+        
+        /**
+         * 在后台线程中执行
+         * 
+         * @return 结果
+         * @throws Exception 如果执行出错
+         */
+        protected abstract T work() throws Exception;
+        
+        /**
+         * 在事件分发线程中处理成功的结果
+         * 
+         * @param result 结果
+         */
+        protected abstract void succeeded(T result);
+        
+        /**
+         * 在事件分发线程中处理取消
+         */
+        protected abstract void cancelled();
+        
+        /**
+         * 在事件分发线程中处理失败，cause为null时表示在后台线程中检测到了取消
+         * 
+         * @param cause 失败原因
+         */
+        protected abstract void failed(Throwable cause);
+    }
+    
+    /**
+     * 在后台解析文件，解析出的任务分批追加到预览区域
+     */
+    private final class LoadWorker extends BackgroundWorker<Integer, List<Task>> {
+        private final File inputFile;
+        private final Runnable next;
+        
+        /**
+         * @param inputFile Markdown文件或任务快照
+         * @param next 加载成功后在事件分发线程中执行的操作，可以为null
+         */
+        LoadWorker(File inputFile, Runnable next) {
+            this.inputFile = inputFile;
+            this.next = next;
+            previewModel.startLoading();
+            updateSortHeaders();
+        }
+        
+        @Override
+        protected Integer work() throws IOException {
+            return controller.loadTasks(inputFile, this);
+        }
+        
+        @Override
+        public void tasksLoaded(List<Task> batch) {
+            publish(batch);
+        }
+        
+        @Override
+        protected void process(List<List<Task>> batches) {
+            if (isCancelled()) {
+                return;
+            }
+            for (List<Task> batch : batches) {
+                previewModel.appendTasks(batch);
+            }
+            updatePreviewTitle();
+        }
+        
+        @Override
+        protected void succeeded(Integer taskCount) {
+            updatePreviewArea();
+            log("从文件 " + inputFile.getPath() + " 中解析出 " + taskCount + " 个任务");
+            if (next != null) {
+                next.run();
+            }
+        }
+        
+        @Override
+        protected void cancelled() {
+            // 取消时控制器保留之前加载的任务
+            updatePreviewArea();
+            log("已取消解析文件 " + inputFile.getPath());
+        }
+        
+        @Override
+        protected void failed(Throwable cause) {
+            if (cause == null) {
+                cancelled();
+                return;
+            }
+            updatePreviewArea();
+            showError("解析文件时出错: " + cause.getMessage());
+            log("错误: " + cause.getMessage());
+        }
+    }
+    
+    /**
+     * 在后台导出当前加载的任务
+     */
+    private final class ExportWorker extends BackgroundWorker<Void, Void> {
+        private final ExportPlatform platform;
+        private final String platformName;
+        private final File outputFile;
+        
+        /**
+         * @param platform 导出平台
+         * @param platformName 平台的显示名称
+         * @param outputFile 输出文件，仅用于CSV和JSON导出
+         */
+        ExportWorker(ExportPlatform platform, String platformName, File outputFile) {
+            this.platform = platform;
+            this.platformName = platformName;
+            this.outputFile = outputFile;
+        }
+        
+        @Override
+        protected Void work() throws IOException {
+            controller.exportTasks(platform, outputFile, this);
+            return null;
+        }
+        
+        @Override
+        protected void succeeded(Void result) {
+            if (outputFile != null) {
+                log("成功导出任务到 " + outputFile.getPath());
+                showSuccess("成功导出到" + (platform == ExportPlatform.CSV ? "CSV" : "JSON") + "文件:\n"
+                        + outputFile.getPath());
+            } else if ((platform == ExportPlatform.MICROSOFT_TODO || platform == ExportPlatform.GOOGLE_TASKS)
+                    && controller.getLastRemoteResult() != null) {
+                log(controller.getLastRemoteResult().toString());
+                showSuccess(controller.getLastRemoteResult().toString());
+            } else {
+                log("成功导出任务到 " + platformName);
+                showSuccess("成功导出到" + platformName);
+            }
+        }
+        
+        @Override
+        protected void cancelled() {
+            log("已取消导出");
+        }
+        
+        @Override
+        protected void failed(Throwable cause) {
+            if (cause == null) {
+                cancelled();
+            } else if (cause instanceof UnsupportedOperationException) {
+                showInfo(platformName + "功能需要额外配置", cause.getMessage());
+                log(cause.getMessage());
+            } else {
+                showError("导出时出错: " + cause.getMessage());
+                log("错误: " + cause.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 在后台计算预览表格的排序索引
+     */
+    private final class SortWorker extends BackgroundWorker<int[], Void> {
+        private final TaskTable table;
+        private final int column;
+        private final boolean descending;
+        
+        /**
+         * @param table 预览中的任务表，排序期间不会被修改
+         * @param column 排序列
+         * @param descending 是否降序
+         */
+        SortWorker(TaskTable table, int column, boolean descending) {
+            this.table = table;
+            this.column = column;
+            this.descending = descending;
+        }
+        
+        @Override
+        protected int[] work() {
+            return TaskSortIndex.build(table, column, descending, this);
+        }
+        
+        @Override
+        protected void succeeded(int[] index) {
+            // 排序期间预览没有被替换时才应用
+            if (previewModel.getTable() == table) {
+                previewModel.sort(column, descending, index);
+                updateSortHeaders();
+            }
+        }
+        
+        @Override
+        protected void cancelled() {
+            log("已取消排序");
+        }
+        
+        @Override
+        protected void failed(Throwable cause) {
+            if (cause == null) {
+                cancelled();
+                return;
+            }
+            showError("排序时出错: " + cause.getMessage());
+            log("错误: " + cause.getMessage());
+        }
+    }
+    
+    /**
+     * 监视的文件变化后在后台增量解析并导出
+     */
+    private final class ReloadWorker extends BackgroundWorker<Integer, Void> {
+        private final File inputFile;
+        private final ExportPlatform platform;
+        private final File outputFile;
+        private final long start = System.nanoTime();
+        
+        /**
+         * @param inputFile 变化的Markdown文件
+         * @param platform 导出平台
+         * @param outputFile 输出文件，不导出到文件时为null
+         */
+        ReloadWorker(File inputFile, ExportPlatform platform, File outputFile) {
+            this.inputFile = inputFile;
+            this.platform = platform;
+            this.outputFile = outputFile;
+        }
+        
+        @Override
+        protected Integer work() throws IOException {
+            int taskCount = controller.loadTasks(inputFile);
+            if (outputFile != null && taskCount > 0) {
+                controller.exportTasks(platform, outputFile, this);
+            }
+            return taskCount;
+        }
+        
+        @Override
+        protected void succeeded(Integer taskCount) {
+            updatePreviewArea();
+            if (outputFile != null && taskCount > 0) {
+                log("文件已变化，重新导出 " + taskCount + " 个任务到 " + outputFile.getPath()
+                        + " (" + (System.nanoTime() - start) / 1000000 + " 毫秒)");
+            } else {
+                log("文件已变化，重新解析出 " + taskCount + " 个任务");
+            }
+        }
+        
+        @Override
+        protected void cancelled() {
+            updatePreviewArea();
+            log("已取消重新导出");
+        }
+        
+        @Override
+        protected void failed(Throwable cause) {
+            if (cause == null) {
+                cancelled();
+                return;
+            }
+            updatePreviewArea();
+            log("错误: " + cause.getMessage());
+        }
+    }
+    
     /**
      * 应用程序入口点
      * 
@@ -0,0 +1,124 @@
+package com.mdtotodos.view;
+
+import com.mdtotodos.controller.TaskController;
+import com.mdtotodos.model.TaskTable;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 预先计算的任务排序索引
+ * 先把排序列的值一次性取出，再对序号数组做稳定的自底向上归并排序，
+ * 排序过程中不创建装箱的序号或任务对象，之后按行号查表即可得到任务序号。
+ */
+final class TaskSortIndex {
+    
+    private TaskSortIndex() {
+    }
+    
+    /**
+     * 按指定列计算排序索引，升序和降序时值相同的任务都保持文件中的顺序
+     * 标题和描述按字符串的自然顺序比较，没有截止日期的任务无论升序降序都排在最后。
+     * 
+     * @param table 任务表
+     * @param column 排序列，{@link TaskTableModel#TITLE_COLUMN} 等
+     * @param descending 是否降序
+     * @param listener 按完成的归并轮数报告进度，每轮检查一次是否取消
+     * @return 第i个元素为排序后第i行的任务序号
+     * @throws CancellationException 如果排序被取消
+     */
+    static int[] build(TaskTable table, int column, boolean descending, TaskController.ProgressListener listener) {
+        int size = table.size();
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = descending && column == TaskTableModel.INDEX_COLUMN ? size - 1 - i : i;
+        }
+        
+        IndexComparator comparator;
+        if (column == TaskTableModel.DUE_COLUMN) {
+            // 降序时比较结果取反，没有截止日期的任务取最小值，同样排在最后
+            long missing = descending ? Long.MIN_VALUE : Long.MAX_VALUE;
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                long epochSecond = table.getDueEpochSecond(i);
+                keys[i] = epochSecond == TaskTable.NO_DUE_DATE ? missing : epochSecond;
+            }
+            comparator = descending ? (a, b) -> Long.compare(keys[b], keys[a])
+                    : (a, b) -> Long.compare(keys[a], keys[b]);
+        } else if (column == TaskTableModel.TITLE_COLUMN || column == TaskTableModel.DESCRIPTION_COLUMN) {
+            String[] keys = new String[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = column == TaskTableModel.TITLE_COLUMN ? table.getTitle(i) : table.getDescription(i);
+            }
+            comparator = descending ? (a, b) -> keys[b].compareTo(keys[a]) : (a, b) -> keys[a].compareTo(keys[b]);
+        } else {
+            // 序号列即文件中的顺序，降序时倒过来
+            return order;
+        }
+        
+        return mergeSort(order, comparator, listener);
+    }
+    
+    /**
+     * 自底向上的稳定归并排序
+     * 
+     * @return 排好序的数组，可能是传入的数组或辅助数组
+     */
+    private static int[] mergeSort(int[] order, IndexComparator comparator,
+                                   TaskController.ProgressListener listener) {
+        int size = order.length;
+        int passes = 0;
+        for (int width = 1; width < size; width <<= 1) {
+            passes++;
+        }
+        
+        int[] source = order;
+        int[] target = new int[size];
+        int pass = 0;
+        for (int width = 1; width < size; width <<= 1) {
+            if (listener.isCancelled()) {
+                throw new CancellationException("已取消");
+            }
+            for (int start = 0; start < size; start += width << 1) {
+                int middle = Math.min(start + width, size);
+                int end = Math.min(start + (width << 1), size);
+                merge(source, target, start, middle, end, comparator);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+            listener.progress(++pass, passes);
+        }
+        return source;
+    }
+    
+    /**
+     * 合并source中相邻的两段有序区间到target，左段优先以保持稳定
+     */
+    private static void merge(int[] source, int[] target, int start, int middle, int end,
+                              IndexComparator comparator) {
+        int left = start;
+        int right = middle;
+        int out = start;
+        if (middle < end && comparator.compare(source[middle - 1], source[middle]) <= 0) {
+            // 两段已经整体有序
+            System.arraycopy(source, start, target, start, end - start);
+            return;
+        }
+        while (left < middle && right < end) {
+            if (comparator.compare(source[right], source[left]) < 0) {
+                target[out++] = source[right++];
+            } else {
+                target[out++] = source[left++];
+            }
+        }
+        System.arraycopy(source, left, target, out, middle - left);
+        System.arraycopy(source, right, target, out + middle - left, end - right);
+    }
+    
+    /**
+     * 比较两个任务序号对应的排序键
+     */
+    private interface IndexComparator {
+        int compare(int a, int b);
+    }
+}
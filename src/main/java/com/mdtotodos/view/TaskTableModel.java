@@ -0,0 +1,251 @@
+package com.mdtotodos.view;
+
+import com.mdtotodos.model.Task;
+import com.mdtotodos.model.TaskTable;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 任务预览表格的数据模型
+ * 不复制任务，只在表格绘制可见行时按行号从任务表中读取字段，
+ * 渲染开销只与可见行数有关。排序通过预先计算的排序索引实现，
+ * 每列的升序和降序索引分别在第一次使用时计算并缓存，两个方向中值相同的任务都保持文件中的顺序。
+ */
+final class TaskTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    
+    /** 序号列，即任务在文件中的顺序 */
+    static final int INDEX_COLUMN = 0;
+    
+    /** 标题列 */
+    static final int TITLE_COLUMN = 1;
+    
+    /** 描述列 */
+    static final int DESCRIPTION_COLUMN = 2;
+    
+    /** 截止日期列 */
+    static final int DUE_COLUMN = 3;
+    
+    private static final String[] COLUMN_NAMES = {"序号", "标题", "描述", "截止日期"};
+    
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+    
+    private transient TaskTable table = new ListTable(new ArrayList<>());
+    
+    // 加载过程中逐批追加的任务，不在加载时为null
+    private transient List<Task> loading;
+    
+    // 每列缓存的升序和降序排序索引
+    private transient int[][] ascendingIndexes = new int[COLUMN_NAMES.length][];
+    private transient int[][] descendingIndexes = new int[COLUMN_NAMES.length][];
+    
+    // 当前的排序列和方向，不排序时为-1
+    private int sortColumn = -1;
+    private boolean descending;
+    
+    /**
+     * 显示新的任务表，清除排序
+     * 
+     * @param table 任务表
+     */
+    void setTasks(TaskTable table) {
+        this.table = table;
+        this.loading = null;
+        resetSort();
+        fireTableDataChanged();
+    }
+    
+    /**
+     * 显示新的任务列表，清除排序
+     * 
+     * @param tasks 任务列表，为null时显示空表
+     */
+    void setTasks(List<Task> tasks) {
+        setTasks(new ListTable(tasks != null ? tasks : new ArrayList<>()));
+    }
+    
+    /**
+     * 开始逐批显示正在加载的任务
+     */
+    void startLoading() {
+        loading = new ArrayList<>();
+        table = new ListTable(loading);
+        resetSort();
+        fireTableDataChanged();
+    }
+    
+    /**
+     * 追加新加载的一批任务，必须先调用 {@link #startLoading()}
+     * 
+     * @param batch 新解析出的任务
+     */
+    void appendTasks(List<Task> batch) {
+        if (loading == null || batch.isEmpty()) {
+            return;
+        }
+        int first = loading.size();
+        loading.addAll(batch);
+        fireTableRowsInserted(first, loading.size() - 1);
+    }
+    
+    /**
+     * 获取当前显示的任务表，用于在后台计算排序索引
+     * 
+     * @return 任务表
+     */
+    TaskTable getTable() {
+        return table;
+    }
+    
+    /**
+     * 获取缓存的排序索引
+     * 
+     * @param column 排序列
+     * @param descending 是否降序
+     * @return 排序索引，还没有计算时返回null
+     */
+    int[] getSortIndex(int column, boolean descending) {
+        return (descending ? descendingIndexes : ascendingIndexes)[column];
+    }
+    
+    /**
+     * 按指定列排序显示
+     * 
+     * @param column 排序列
+     * @param descending 是否降序
+     * @param index 该列按该方向的排序索引，由 {@link TaskSortIndex#build} 计算
+     */
+    void sort(int column, boolean descending, int[] index) {
+        (descending ? descendingIndexes : ascendingIndexes)[column] = index;
+        this.sortColumn = column;
+        this.descending = descending;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * 恢复文件中的顺序，保留已计算的排序索引
+     */
+    void unsort() {
+        sortColumn = -1;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * 获取当前的排序列
+     * 
+     * @return 排序列，不排序时返回-1
+     */
+    int getSortColumn() {
+        return sortColumn;
+    }
+    
+    /**
+     * 是否按降序排序
+     * 
+     * @return 如果降序返回true
+     */
+    boolean isDescending() {
+        return descending;
+    }
+    
+    /**
+     * 将表格的行号转换为任务序号
+     * 
+     * @param row 行号
+     * @return 任务在任务表中的序号
+     */
+    int toTaskIndex(int row) {
+        if (sortColumn < 0) {
+            return row;
+        }
+        return (descending ? descendingIndexes : ascendingIndexes)[sortColumn][row];
+    }
+    
+    private void resetSort() {
+        ascendingIndexes = new int[COLUMN_NAMES.length][];
+        descendingIndexes = new int[COLUMN_NAMES.length][];
+        sortColumn = -1;
+        descending = false;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return table.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == INDEX_COLUMN ? Integer.class : String.class;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        int index = toTaskIndex(row);
+        switch (column) {
+            case INDEX_COLUMN:
+                return index + 1;
+            case TITLE_COLUMN:
+                return table.getTitle(index);
+            case DESCRIPTION_COLUMN:
+                return table.getDescription(index);
+            case DUE_COLUMN:
+                LocalDateTime dueDate = table.getDueDate(index);
+                return dueDate != null ? dueDate.format(DATE_FORMATTER) : "";
+            default:
+                throw new IllegalArgumentException("无效的列: " + column);
+        }
+    }
+    
+    /**
+     * 以任务表的方式访问任务列表
+     */
+    private static final class ListTable implements TaskTable {
+        private final List<Task> tasks;
+        
+        ListTable(List<Task> tasks) {
+            this.tasks = tasks;
+        }
+        
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+        
+        @Override
+        public String getTitle(int index) {
+            return tasks.get(index).getTitle();
+        }
+        
+        @Override
+        public String getDescription(int index) {
+            String description = tasks.get(index).getDescription();
+            return description != null ? description : "";
+        }
+        
+        @Override
+        public long getDueEpochSecond(int index) {
+            LocalDateTime dueDate = tasks.get(index).getDueDate();
+            return dueDate != null ? dueDate.toEpochSecond(ZoneOffset.UTC) : NO_DUE_DATE;
+        }
+        
+        @Override
+        public LocalDateTime getDueDate(int index) {
+            return tasks.get(index).getDueDate();
+        }
+    }
+}